@@ -0,0 +1,106 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * ベンチマーク用のusers.csv・tasks.csv・logs.csvを一時ディレクトリに生成します。
+ */
+public final class BenchmarkFixtures implements AutoCloseable {
+    public static final int USER_COUNT = 100;
+
+    private final Path dir;
+    private final int rows;
+
+    /**
+     * @param rows tasks.csvとlogs.csvの行数
+     */
+    public BenchmarkFixtures(int rows) throws IOException {
+        this.rows = rows;
+        this.dir = Files.createTempDirectory("taskapp-bench");
+        writeUsers(USER_COUNT);
+        writeTasks();
+        writeLogs();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public Path users() {
+        return dir.resolve("users.csv");
+    }
+
+    public Path tasks() {
+        return dir.resolve("tasks.csv");
+    }
+
+    public Path logs() {
+        return dir.resolve("logs.csv");
+    }
+
+    /**
+     * 指定した件数のユーザーでusers.csvを書き直します。
+     *
+     * @param count ユーザー数
+     */
+    public void writeUsers(int count) throws IOException {
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(users()))) {
+            pw.println("Code,Name,Email,Password");
+            for (int i = 1; i <= count; i++) {
+                pw.println(i + ",user" + i + "," + email(i) + "," + password(i));
+            }
+        }
+    }
+
+    /**
+     * 全てのタスクを未着手にしてtasks.csvを書き直します。
+     */
+    public void writeTasks() throws IOException {
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(tasks()))) {
+            pw.println("Code,Name,Status,Rep_User_Code");
+            for (int i = 1; i <= rows; i++) {
+                pw.println(i + ",task" + i + ",0," + userCodeOf(i));
+            }
+        }
+    }
+
+    /**
+     * logs.csvを書き直します。
+     */
+    public void writeLogs() throws IOException {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(logs()))) {
+            pw.println("Task_Code,Change_User_Code,Status,Change_Date");
+            for (int i = 1; i <= rows; i++) {
+                pw.println(i + "," + userCodeOf(i) + ",0," + date.plusDays(i % 365));
+            }
+        }
+    }
+
+    public static int userCodeOf(int taskCode) {
+        return taskCode % USER_COUNT + 1;
+    }
+
+    public static String email(int userCode) {
+        return "user" + userCode + "@example.com";
+    }
+
+    public static String password(int userCode) {
+        return "password" + userCode;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
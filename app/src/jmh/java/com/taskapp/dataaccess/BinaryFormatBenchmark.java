@@ -0,0 +1,83 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+import com.taskapp.model.Task;
+
+/**
+ * CSV形式とバイナリ形式のfindAllの処理量を比較します。
+ * 各形式のファイルサイズはセットアップ時に標準出力へ表示します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BinaryFormatBenchmark {
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private BenchmarkFixtures fixtures;
+    private TaskDataAccess csvTasks;
+    private BinaryTaskDataAccess binaryTasks;
+    private LogDataAccess csvLogs;
+    private BinaryLogDataAccess binaryLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        UserDataAccess userDataAccess = new UserDataAccess(fixtures.users().toString());
+        csvTasks = new TaskDataAccess(fixtures.tasks().toString(), userDataAccess);
+        csvLogs = new LogDataAccess(fixtures.logs().toString());
+
+        Path taskBin = fixtures.tasks().resolveSibling("tasks.bin");
+        Path logBin = fixtures.logs().resolveSibling("logs.bin");
+        binaryTasks = new BinaryTaskDataAccess(taskBin.toString(), userDataAccess);
+        binaryLogs = new BinaryLogDataAccess(logBin.toString());
+        binaryTasks.importCsv(fixtures.tasks().toString());
+        binaryLogs.importCsv(fixtures.logs().toString());
+
+        long taskBinBytes = Files.size(taskBin) + Files.size(taskBin.resolveSibling("tasks.bin.strings"));
+        System.out.printf("%nrows=%d tasks: csv=%d bytes, binary=%d bytes / logs: csv=%d bytes, binary=%d bytes%n",
+                rows, Files.size(fixtures.tasks()), taskBinBytes, Files.size(fixtures.logs()), Files.size(logBin));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public List<Task> csvTaskFindAll() {
+        return csvTasks.findAll();
+    }
+
+    @Benchmark
+    public List<Task> binaryTaskFindAll() {
+        return binaryTasks.findAll();
+    }
+
+    @Benchmark
+    public List<Log> csvLogFindAll() {
+        return csvLogs.findAll();
+    }
+
+    @Benchmark
+    public List<Log> binaryLogFindAll() {
+        return binaryLogs.findAll();
+    }
+}
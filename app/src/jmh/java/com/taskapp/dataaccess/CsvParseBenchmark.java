@@ -0,0 +1,112 @@
+package com.taskapp.dataaccess;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * CsvLineParserを使ったfindAllと、String.splitを使った従来のfindAllを比較します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvParseBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkFixtures fixtures;
+    private TaskDataAccess taskDataAccess;
+    private LogDataAccess logDataAccess;
+    private UserDataAccess userDataAccess;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        userDataAccess = new UserDataAccess(fixtures.users().toString());
+        taskDataAccess = new TaskDataAccess(fixtures.tasks().toString(), userDataAccess);
+        logDataAccess = new LogDataAccess(fixtures.logs().toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public List<Task> taskFindAllParser() {
+        return taskDataAccess.findAll();
+    }
+
+    @Benchmark
+    public List<Task> taskFindAllSplit() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        try (BufferedReader br = new BufferedReader(new FileReader(fixtures.tasks().toFile()))) {
+            String line;
+            br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] data = line.split(",");
+                if (data.length != 4 || !isNumeric(data[0]) || !isNumeric(data[2]) || !isNumeric(data[3])) {
+                    continue;
+                }
+                User repUser = users.get(Integer.parseInt(data[3]));
+                if (repUser != null) {
+                    tasks.add(new Task(Integer.parseInt(data[0]), data[1], Integer.parseInt(data[2]), repUser));
+                }
+            }
+        }
+        return tasks;
+    }
+
+    @Benchmark
+    public List<Log> logFindAllParser() {
+        return logDataAccess.findAll();
+    }
+
+    @Benchmark
+    public List<Log> logFindAllSplit() throws IOException {
+        List<Log> logs = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(fixtures.logs().toFile()))) {
+            String line;
+            br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] data = line.split(",");
+                if (data.length != 4) {
+                    continue;
+                }
+                logs.add(new Log(Integer.parseInt(data[0]), Integer.parseInt(data[1]), Integer.parseInt(data[2]),
+                        LocalDate.parse(data[3])));
+            }
+        }
+        return logs;
+    }
+
+    private static boolean isNumeric(String input) {
+        try {
+            Integer.parseInt(input);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * TaskDataAccess・LogDataAccess・UserDataAccessの各操作を計測します。
+ * 書き込みを行う操作はイテレーションごとにデータを作り直します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataAccessBenchmark {
+    @Param({"1000"})
+    public int rows;
+
+    private BenchmarkFixtures fixtures;
+    private TaskDataAccess taskDataAccess;
+    private LogDataAccess logDataAccess;
+    private UserDataAccess userDataAccess;
+    private User repUser;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        userDataAccess = new UserDataAccess(fixtures.users().toString());
+        taskDataAccess = new TaskDataAccess(fixtures.tasks().toString(), userDataAccess);
+        logDataAccess = new LogDataAccess(fixtures.logs().toString());
+        repUser = userDataAccess.findByCode(1);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetFiles() throws IOException {
+        fixtures.writeTasks();
+        fixtures.writeLogs();
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixtures.close();
+    }
+
+    private int nextCode() {
+        next = next % rows + 1;
+        return next;
+    }
+
+    @Benchmark
+    public List<Task> taskFindAll() {
+        return taskDataAccess.findAll();
+    }
+
+    @Benchmark
+    public Task taskFindByCode() {
+        return taskDataAccess.findByCode(nextCode());
+    }
+
+    @Benchmark
+    public void taskUpdate() {
+        int code = nextCode();
+        taskDataAccess.update(new Task(code, "task" + code, 1, repUser));
+    }
+
+    @Benchmark
+    public void taskSave() {
+        taskDataAccess.save(new Task(rows + nextCode(), "new task", 0, repUser));
+    }
+
+    @Benchmark
+    public List<Log> logFindAll() {
+        return logDataAccess.findAll();
+    }
+
+    @Benchmark
+    public void logSave() {
+        logDataAccess.save(new Log(nextCode(), 1, 1, LocalDate.of(2024, 1, 1)));
+    }
+
+    @Benchmark
+    public void logDeleteByTaskCode() {
+        logDataAccess.deleteByTaskCode(nextCode());
+    }
+
+    @Benchmark
+    public User userFindByEmailAndPassword() {
+        int code = next = next % BenchmarkFixtures.USER_COUNT + 1;
+        return userDataAccess.findByEmailAndPassword(BenchmarkFixtures.email(code), BenchmarkFixtures.password(code));
+    }
+
+    @Benchmark
+    public User userFindByCode() {
+        next = next % BenchmarkFixtures.USER_COUNT + 1;
+        return userDataAccess.findByCode(next);
+    }
+}
@@ -0,0 +1,67 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+
+/**
+ * ログを1件追記した後の集計について、追記分だけを読み込む場合と全件を集計し直す場合を比較します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogAnalyticsBenchmark {
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private BenchmarkFixtures fixtures;
+    private LogDataAccess logDataAccess;
+    private LogAnalytics analytics;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        logDataAccess = new LogDataAccess(fixtures.logs().toString());
+        // 計測中は集計結果を書き出さない
+        analytics = new LogAnalytics(logDataAccess, Long.MAX_VALUE);
+        analytics.refresh();
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        logDataAccess.close();
+        fixtures.close();
+    }
+
+    @Benchmark
+    public double incremental() {
+        append();
+        return analytics.getAverageCycleTimeDays();
+    }
+
+    @Benchmark
+    public double fullRecompute() {
+        append();
+        return new LogAnalytics(logDataAccess, Long.MAX_VALUE).getAverageCycleTimeDays();
+    }
+
+    private void append() {
+        int code = next++ % rows + 1;
+        logDataAccess.save(new Log(code, BenchmarkFixtures.userCodeOf(code), 2, LocalDate.of(2025, 1, 1)));
+    }
+}
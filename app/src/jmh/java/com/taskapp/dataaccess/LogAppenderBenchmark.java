@@ -0,0 +1,50 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+
+/**
+ * 書き込みモードごとのLogDataAccess.saveのスループット(件/秒)を計測します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LogAppenderBenchmark {
+    @Param({"FLUSH_PER_RECORD", "GROUP_COMMIT", "PERIODIC_FSYNC"})
+    public LogAppender.DurabilityMode mode;
+
+    private BenchmarkFixtures fixtures;
+    private LogDataAccess logDataAccess;
+    private final Log log = new Log(1, 1, 1, LocalDate.of(2024, 1, 1));
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(0);
+        logDataAccess = new LogDataAccess(fixtures.logs().toString(), mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logDataAccess.close();
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void save() {
+        logDataAccess.save(log);
+    }
+}
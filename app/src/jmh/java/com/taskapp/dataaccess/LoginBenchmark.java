@@ -0,0 +1,51 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.User;
+
+/**
+ * ユーザー数を変えてUserDataAccess.findByEmailAndPasswordの応答時間を計測します。
+ * 索引の作成後は、ユーザー数によらずほぼ一定になることを確認します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoginBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int users;
+
+    private BenchmarkFixtures fixtures;
+    private UserDataAccess userDataAccess;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(0);
+        fixtures.writeUsers(users);
+        userDataAccess = new UserDataAccess(fixtures.users().toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public User findByEmailAndPassword() {
+        next = next % users + 1;
+        return userDataAccess.findByEmailAndPassword(BenchmarkFixtures.email(next), BenchmarkFixtures.password(next));
+    }
+}
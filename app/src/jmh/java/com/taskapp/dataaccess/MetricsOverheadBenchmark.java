@@ -0,0 +1,83 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.Task;
+
+/**
+ * 計測による処理時間の増加を確認します。
+ * メモリ上から1件取得するだけの最も軽い処理について、元の保存先を直接呼ぶ場合と、
+ * InstrumentedTaskRepositoryを通して計測を有効・無効にした場合を比較します。
+ * recordOnlyは計測1回分だけの時間です。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+    private static final OperationMetrics RECORD = Metrics.operation("MetricsOverheadBenchmark.record");
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private BenchmarkFixtures fixtures;
+    private TaskRepository raw;
+    private TaskRepository instrumented;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        raw = new CachedTaskDataAccess(fixtures.tasks().toString(), new UserDataAccess(fixtures.users().toString()));
+        instrumented = new InstrumentedTaskRepository(raw);
+        raw.findByCode(1);
+        Metrics.setEnabled(enabled);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Metrics.setEnabled(true);
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Task rawFindByCode() {
+        return raw.findByCode(nextCode());
+    }
+
+    @Benchmark
+    public Task instrumentedFindByCode() {
+        return instrumented.findByCode(nextCode());
+    }
+
+    /**
+     * 計測1回分(開始時刻の取得と記録)だけの時間です。
+     */
+    @Benchmark
+    public long recordOnly() {
+        long start = System.nanoTime();
+        RECORD.record(start);
+        return start;
+    }
+
+    private int nextCode() {
+        next = next % rows + 1;
+        return next;
+    }
+}
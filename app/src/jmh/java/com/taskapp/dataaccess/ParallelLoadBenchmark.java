@@ -0,0 +1,65 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Log;
+import com.taskapp.model.Task;
+
+/**
+ * tasks.csvとlogs.csvのfindAllについて、並列に読み込む範囲の数ごとの処理時間を計測します。
+ * parallelism=1は従来どおり1行ずつ順番に読み込みます。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelLoadBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private BenchmarkFixtures fixtures;
+    private TaskDataAccess taskDataAccess;
+    private LogDataAccess logDataAccess;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        UserDataAccess userDataAccess = new UserDataAccess(fixtures.users().toString());
+        taskDataAccess = new TaskDataAccess(fixtures.tasks().toString(), userDataAccess);
+        taskDataAccess.setParallelism(parallelism);
+        logDataAccess = new LogDataAccess(fixtures.logs().toString());
+        logDataAccess.setParallelism(parallelism);
+        System.out.printf("%navailableProcessors=%d%n", Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logDataAccess.close();
+        fixtures.close();
+    }
+
+    @Benchmark
+    public List<Task> taskFindAll() {
+        return taskDataAccess.findAll();
+    }
+
+    @Benchmark
+    public List<Log> logFindAll() {
+        return logDataAccess.findAll();
+    }
+}
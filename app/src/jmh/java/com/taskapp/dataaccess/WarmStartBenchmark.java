@@ -0,0 +1,71 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+
+/**
+ * CachedTaskDataAccessを作成してから最初のページを取得するまでの時間について、
+ * CSVを全て読み込む場合(cold)と、スナップショットと追記された行だけを読み込む場合(warm)を比較します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WarmStartBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    private BenchmarkFixtures fixtures;
+    private UserDataAccess userDataAccess;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtures = new BenchmarkFixtures(rows);
+        userDataAccess = new UserDataAccess(fixtures.users().toString());
+        new CachedTaskDataAccess(fixtures.tasks().toString(), userDataAccess, true).snapshot();
+        // スナップショットの後に追記された行があるものとする
+        StringBuilder appended = new StringBuilder();
+        for (int code = rows + 1; code <= rows + 100; code++) {
+            appended.append(code).append(",task").append(code).append(",0,")
+                    .append(BenchmarkFixtures.userCodeOf(code)).append('\n');
+        }
+        Files.writeString(fixtures.tasks(), appended, StandardOpenOption.APPEND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Path snapshot = Paths.get(fixtures.tasks() + ".snapshot");
+        Files.deleteIfExists(snapshot);
+        fixtures.close();
+    }
+
+    @Benchmark
+    public TaskPage cold() {
+        return new CachedTaskDataAccess(fixtures.tasks().toString(), userDataAccess, false).findPage(new TaskQuery());
+    }
+
+    @Benchmark
+    public TaskPage warm() {
+        CachedTaskDataAccess taskDataAccess = new CachedTaskDataAccess(fixtures.tasks().toString(), userDataAccess, true);
+        // 計測中はスナップショットを書き出さない
+        taskDataAccess.setSnapshotIntervalMillis(Long.MAX_VALUE);
+        return taskDataAccess.findPage(new TaskQuery());
+    }
+}
@@ -0,0 +1,122 @@
+package com.taskapp.logic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.dataaccess.BenchmarkFixtures;
+import com.taskapp.dataaccess.BinaryTaskDataAccess;
+import com.taskapp.dataaccess.RepositoryFactory;
+import com.taskapp.dataaccess.UserRepository;
+import com.taskapp.exception.AppException;
+import com.taskapp.model.User;
+
+/**
+ * TaskLogicのchangeStatusとshowAllを保存形式ごとに計測します。
+ * 保存先はRepositoryFactoryで作成するため、アプリケーションと同じ経路で比較できます。
+ * 標準出力は計測中は破棄します。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskLogicBenchmark {
+    @Param({"1000"})
+    public int rows;
+
+    @Param({"csv", "cached", "mapped", "binary", "h2"})
+    public String storage;
+
+    private BenchmarkFixtures fixtures;
+    private RepositoryFactory factory;
+    private TaskLogic taskLogic;
+    private User loginUser;
+    private PrintStream originalOut;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        fixtures = new BenchmarkFixtures(rows);
+        Properties properties = new Properties();
+        properties.setProperty("taskapp.task.storage", storage);
+        properties.setProperty("taskapp.log.storage", storage.equals("binary") || storage.equals("h2") ? storage : "csv");
+        properties.setProperty("taskapp.user.storage", storage.equals("h2") ? "h2" : "csv");
+        properties.setProperty("taskapp.user.file", fixtures.users().toString());
+        properties.setProperty("taskapp.h2.url", "jdbc:h2:file:" + fixtures.tasks().resolveSibling("taskapp").toAbsolutePath());
+        properties.setProperty("taskapp.task.file", taskFile().toString());
+        properties.setProperty("taskapp.log.file", fixtures.logs().resolveSibling(
+                storage.equals("binary") ? "logs.bin" : "logs.csv").toString());
+        factory = new RepositoryFactory(properties);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Iteration)
+    public void resetFiles() throws IOException, SQLException {
+        fixtures.writeLogs();
+        resetTasks();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetWhenExhausted() throws IOException, SQLException {
+        // 全てのタスクを着手中にしたら未着手に戻す
+        if (next == rows) {
+            resetTasks();
+        }
+    }
+
+    /**
+     * tasks.csvを書き直し、キャッシュや索引を持つ保存先も作り直します。
+     */
+    private void resetTasks() throws IOException, SQLException {
+        fixtures.writeTasks();
+        if (storage.equals("h2")) {
+            factory.database().importCsv(fixtures.users().toString(), fixtures.tasks().toString(),
+                    fixtures.logs().toString());
+        }
+        UserRepository users = factory.createUserRepository();
+        if (storage.equals("binary")) {
+            new BinaryTaskDataAccess(taskFile().toString(), users).importCsv(fixtures.tasks().toString());
+        }
+        taskLogic = new TaskLogic(factory.createTaskRepository(users), factory.createLogRepository(), users);
+        loginUser = users.findByCode(1);
+        next = 0;
+    }
+
+    private Path taskFile() {
+        return storage.equals("binary") ? fixtures.tasks().resolveSibling("tasks.bin") : fixtures.tasks();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        if (storage.equals("h2")) {
+            factory.database().close();
+        }
+        fixtures.close();
+    }
+
+    @Benchmark
+    public void changeStatus() throws AppException {
+        taskLogic.changeStatus(++next, 1, loginUser);
+    }
+
+    @Benchmark
+    public void showAll() {
+        taskLogic.showAll(loginUser);
+    }
+}
@@ -0,0 +1,89 @@
+package com.taskapp.logic;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * タスク一覧の表示について、1行ずつprintfする方法とTaskListRendererでまとめて書き込む方法を比較します。
+ * 書き込み先はどちらもnullデバイスで、System.outと同じく改行ごとにフラッシュするPrintStreamを基準にします。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskRenderBenchmark {
+    private static final String NULL_DEVICE =
+            System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+
+    @Param({"100000"})
+    public int rows;
+
+    private List<Task> tasks;
+    private User loginUser;
+    private FileOutputStream sink;
+    private PrintStream console;
+    private Writer writer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        loginUser = new User(1, "user1", "user1@example.com", "password");
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            users.add(new User(i, "user" + i, "user" + i + "@example.com", "password"));
+        }
+        tasks = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            tasks.add(new Task(i, "タスク" + i, i % 3, users.get(i % users.size())));
+        }
+        sink = new FileOutputStream(NULL_DEVICE);
+        console = new PrintStream(new BufferedOutputStream(sink, 8192), true, StandardCharsets.UTF_8);
+        writer = new OutputStreamWriter(sink, StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        console.close();
+    }
+
+    @Benchmark
+    public void printfPerRow() {
+        for (Task task : tasks) {
+            User responsibleUser = task.getRepUser();
+            String responsibleName = (responsibleUser.getCode() == loginUser.getCode()) ?
+                "あなたが担当しています" : responsibleUser.getName() + "が担当しています";
+            console.printf("%d. タスク名：%s, 担当者名：%s, ステータス：%s%n",
+                task.getCode(), task.getName(), responsibleName, TaskListRenderer.statusLabel(task.getStatus()));
+        }
+    }
+
+    @Benchmark
+    public void renderer() throws IOException {
+        TaskListRenderer renderer = new TaskListRenderer(writer, loginUser);
+        for (Task task : tasks) {
+            renderer.render(task);
+        }
+        renderer.flush();
+    }
+}
@@ -1,10 +1,22 @@
 package com.taskapp;
 
+import java.io.IOException;
+
+import com.taskapp.ui.TaskServer;
 import com.taskapp.ui.TaskUI;
 
 public class App {
 
-    public static void main(String[] args) {
+    /**
+     * アプリケーションを起動します。
+     * 引数に「--server [ポート番号]」を指定した場合はサーバーモードで起動します。
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            String[] serverArgs = args.length > 1 ? new String[] { args[1] } : new String[0];
+            TaskServer.main(serverArgs);
+            return;
+        }
         TaskUI ui = new TaskUI();
         ui.displayMenu();
     }
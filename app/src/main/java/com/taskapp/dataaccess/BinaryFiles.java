@@ -0,0 +1,125 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 固定長のバイナリ形式のファイルを読み書きするための補助クラスです。
+ * ファイルの先頭には形式を表す値とバージョンの2つのintを置きます。
+ */
+final class BinaryFiles {
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    private BinaryFiles() {
+    }
+
+    /**
+     * ヘッダーを確認し、ヘッダー以降の内容を読み込みます。
+     *
+     * @param path 読み込むファイル
+     * @param magic 形式を表す値
+     * @return ヘッダー以降の内容
+     */
+    static ByteBuffer readBody(Path path, int magic) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != magic || buffer.getInt() != VERSION) {
+            throw new IOException("ファイルの形式が正しくありません: " + path);
+        }
+        return buffer.slice();
+    }
+
+    /**
+     * 追記用にファイルを開きます。空のファイルにはヘッダーを書き込みます。
+     *
+     * @param path 開くファイル
+     * @param magic 形式を表す値
+     * @return 開いたファイル
+     */
+    static FileChannel openForAppend(Path path, int magic) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            writeFully(channel, header(magic, 0).flip(), 0);
+        }
+        return channel;
+    }
+
+    /**
+     * ヘッダーを書き込んだバッファを作成します。
+     *
+     * @param magic 形式を表す値
+     * @param bodyBytes ヘッダーに続けて書き込むバイト数
+     * @return ヘッダーを書き込んだバッファ
+     */
+    static ByteBuffer header(int magic, int bodyBytes) {
+        return ByteBuffer.allocate(HEADER_BYTES + bodyBytes).putInt(magic).putInt(VERSION);
+    }
+
+    /**
+     * バッファの内容を全て指定した位置に書き込みます。
+     *
+     * @return 書き込んだバイト数
+     */
+    static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    /**
+     * 指定した位置からバッファが一杯になるか、ファイルの末尾に達するまで読み込みます。
+     *
+     * @return 読み込んだバイト数
+     */
+    static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    /**
+     * 一時ファイルに書き込んでから置き換えます。
+     *
+     * @param target 置き換えるファイル
+     * @param content 書き込む内容
+     */
+    static void replace(Path target, ByteBuffer content) throws IOException {
+        replace(target, content, false);
+    }
+
+    /**
+     * 一時ファイルに書き込んでから置き換えます。
+     *
+     * @param target 置き換えるファイル
+     * @param content 書き込む内容
+     * @param force 置き換える前に内容をディスクに書き込む場合はtrue
+     */
+    static void replace(Path target, ByteBuffer content, boolean force) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFully(channel, content, 0);
+                if (force) {
+                    channel.force(false);
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.model.Log;
+
+/**
+ * ログを固定長のバイナリ形式で保存するLogDataAccessです。
+ * 1件のログはタスクコード・ユーザーコード・ステータス・変更日(エポック日数)の4つのintで表します。
+ * 読み込み時に文字列の分割や日付の解析を行いません。
+ */
+public class BinaryLogDataAccess extends LogDataAccess {
+    static final int MAGIC = 0x4C4F4742; // "LOGB"
+    static final int RECORD_BYTES = 16;
+    private static final IoMetrics IO = Metrics.io("logs.bin");
+
+    private final Path path;
+
+    public BinaryLogDataAccess() {
+        this("app/src/main/resources/logs.bin");
+    }
+
+    /**
+     * @param filePath ログファイルのパス
+     */
+    public BinaryLogDataAccess(String filePath) {
+        super(filePath);
+        this.path = Paths.get(filePath);
+    }
+
+    @Override
+    boolean isPlainCsv() {
+        return false;
+    }
+
+    /**
+     * ログを保存します。
+     *
+     * @param log 保存するログ
+     */
+    @Override
+    public void save(Log log) {
+        saveAll(List.of(log));
+    }
+
+    /**
+     * 複数のログを1回の書き込みで保存します。
+     *
+     * @param logs 保存するログ
+     */
+    @Override
+    public void saveAll(List<Log> logs) {
+        ByteBuffer records = ByteBuffer.allocate(logs.size() * RECORD_BYTES);
+        for (Log log : logs) {
+            putRecord(records, log);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                try (FileChannel channel = BinaryFiles.openForAppend(path, MAGIC)) {
+                    IO.writtenBytes(BinaryFiles.writeFully(channel, records.flip(), channel.size()));
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * すべてのログを取得します。
+     *
+     * @return すべてのログのリスト
+     */
+    @Override
+    public List<Log> findAll() {
+        List<Log> logs = new ArrayList<>();
+        try {
+            ByteBuffer records = BinaryFiles.readBody(path, MAGIC);
+            IO.readBytes(records.remaining());
+            while (records.remaining() >= RECORD_BYTES) {
+                logs.add(new Log(records.getInt(), records.getInt(), records.getInt(),
+                        LocalDate.ofEpochDay(records.getInt())));
+                IO.readRecord(true);
+            }
+        } catch (IOException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        return logs;
+    }
+
+    /**
+     * すべてのログのストリームを取得します。
+     * 固定長のレコードはまとめて読み込むため、findAllの結果をストリームにして返します。
+     *
+     * @return ログのストリーム
+     */
+    @Override
+    public Stream<Log> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * 全てのログでファイルを書き直します。
+     *
+     * @param logs 書き込むログ
+     */
+    @Override
+    protected void writeAll(List<Log> logs) {
+        ByteBuffer records = BinaryFiles.header(MAGIC, logs.size() * RECORD_BYTES);
+        for (Log log : logs) {
+            putRecord(records, log);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> BinaryFiles.replace(path, records.flip()));
+            IO.writtenBytes(records.limit());
+        } catch (IOException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * CSV形式のログを読み込み、このファイルを書き直します。
+     *
+     * @param csvPath 読み込むlogs.csvのパス
+     * @return 移行したログの件数
+     */
+    public int importCsv(String csvPath) {
+        List<Log> logs = new LogDataAccess(csvPath).findAll();
+        writeAll(logs);
+        return logs.size();
+    }
+
+    /**
+     * このファイルのログをCSV形式で書き出します。
+     *
+     * @param csvPath 書き出すlogs.csvのパス
+     * @return 書き出したログの件数
+     */
+    public int exportCsv(String csvPath) {
+        List<Log> logs = findAll();
+        LogDataAccess csv = new LogDataAccess(csvPath);
+        csv.writeAll(logs);
+        csv.close();
+        return logs.size();
+    }
+
+    private static void putRecord(ByteBuffer buffer, Log log) {
+        buffer.putInt(log.getTaskCode())
+                .putInt(log.getChangeUserCode())
+                .putInt(log.getStatus())
+                .putInt((int) log.getChangeDate().toEpochDay());
+    }
+}
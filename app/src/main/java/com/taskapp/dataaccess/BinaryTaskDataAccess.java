@@ -0,0 +1,482 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * タスクを固定長のバイナリ形式で保存するTaskDataAccessです。
+ * 1件のタスクはコード・ステータス・担当ユーザーコード・タスク名の位置の4つのintで表し、
+ * タスク名は別ファイルの文字列テーブル(長さ+UTF-8のバイト列)に追記します。
+ * レコードが固定長のため、更新は該当するレコードだけをその場で書き換えます。
+ * 全件の書き直しでは文字列テーブルも使われている名前だけで書き直し、レコードのファイルを最後に置き換えます。
+ * レコードと文字列テーブルの先頭には同じ世代番号を置き、読み込み時に組み合わせを確認します。
+ */
+public class BinaryTaskDataAccess extends TaskDataAccess {
+    static final int MAGIC = 0x54534232; // "TSB2"
+    static final int STRINGS_MAGIC = 0x54535332; // "TSS2"
+    static final int RECORD_BYTES = 16;
+    static final int GENERATION_BYTES = 8;
+    // 書き直しと重なって世代が揃わなかった場合に、ロックせずに読み直す回数
+    private static final int READ_ATTEMPTS = 3;
+    private static final IoMetrics IO = Metrics.io("tasks.bin");
+
+    private final Path path;
+    private final Path stringsPath;
+    // 書き直しの途中で中断した場合に、古いレコードから参照する文字列テーブル
+    private final Path oldStringsPath;
+    // 読み込み済みの文字列テーブルの世代と内容。同じ世代の間は追記された部分だけを読み足す
+    private long cachedGeneration;
+    private byte[] cachedStrings;
+
+    public BinaryTaskDataAccess() {
+        this("app/src/main/resources/tasks.bin", new UserDataAccess());
+    }
+
+    /**
+     * @param filePath レコードを保存するファイルのパス。文字列テーブルは「filePath.strings」に保存します
+     * @param userDataAccess 担当ユーザーの取得に使うUserRepository
+     */
+    public BinaryTaskDataAccess(String filePath, UserRepository userDataAccess) {
+        super(filePath, userDataAccess);
+        this.path = Paths.get(filePath);
+        this.stringsPath = Paths.get(filePath + ".strings");
+        this.oldStringsPath = Paths.get(filePath + ".strings.old");
+    }
+
+    /**
+     * 全てのタスクデータを取得します。
+     * 書き直しと重なってレコードと文字列テーブルの世代が揃わなかった場合は読み直し、
+     * それでも揃わなければ書き込みのロックを取得して読み込みます。
+     *
+     * @return タスクのリスト
+     */
+    @Override
+    public List<Task> findAll() {
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        try {
+            for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+                List<Task> tasks = readAll(users);
+                if (tasks != null) {
+                    return tasks;
+                }
+            }
+            List<Task> tasks = new ArrayList<>();
+            FileWriteLock.of(filePath).run(() -> {
+                List<Task> read = readAll(users);
+                if (read == null) {
+                    throw new IOException("レコードに対応する文字列テーブルが見つかりません: " + stringsPath);
+                }
+                tasks.addAll(read);
+            });
+            return tasks;
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 全てのタスクデータのストリームを取得します。
+     * 固定長のレコードはまとめて読み込むため、findAllの結果をストリームにして返します。
+     *
+     * @return タスクのストリーム
+     */
+    @Override
+    public Stream<Task> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * コードを基にタスクデータを1件取得します。
+     * バイナリ形式のため、CSVの索引は使わずに全てのレコードから探します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク、見つからなければnull
+     */
+    @Override
+    public Task findByCode(int code) {
+        return scanByCode(code);
+    }
+
+    /**
+     * 指定したユーザーが担当しているタスクをコード順に取得します。
+     * バイナリ形式のため、CSVの索引は使わずに全てのレコードから探します。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    @Override
+    public List<Task> findByRepUser(int userCode) {
+        return scanByRepUser(userCode);
+    }
+
+    /**
+     * タスクを保存します。
+     *
+     * @param task 保存するタスク
+     */
+    @Override
+    public void save(Task task) {
+        saveAll(List.of(task));
+    }
+
+    /**
+     * 複数のタスクを1回の書き込みで保存します。
+     *
+     * @param tasks 保存するタスク
+     */
+    @Override
+    public void saveAll(List<Task> tasks) {
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                openGeneration();
+                try (FileChannel recordChannel = FileChannel.open(path, StandardOpenOption.WRITE);
+                        FileChannel stringChannel = FileChannel.open(stringsPath, StandardOpenOption.WRITE)) {
+                    // 文字列を先に書き、レコードから未書き込みの位置を参照しないようにする
+                    long stringEnd = stringChannel.size();
+                    long stringBytes = stringBytes(tasks);
+                    nameOffset(stringEnd + stringBytes);
+                    ByteBuffer names = ByteBuffer.allocate((int) stringBytes);
+                    ByteBuffer records = ByteBuffer.allocate(tasks.size() * RECORD_BYTES);
+                    for (Task task : tasks) {
+                        int nameOffset = nameOffset(stringEnd + names.position());
+                        putString(names, task.getName());
+                        putRecord(records, task, nameOffset);
+                    }
+                    IO.writtenBytes(BinaryFiles.writeFully(stringChannel, names.flip(), stringEnd)
+                            + BinaryFiles.writeFully(recordChannel, records.flip(), recordChannel.size()));
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 全てのレコードから、指定したコードのうち使われているものを取得します。
+     *
+     * @param codes 確認するコード
+     * @return 使われているコード
+     */
+    @Override
+    protected Set<Integer> usedCodes(Collection<Integer> codes) {
+        return scanUsedCodes(codes);
+    }
+
+    /**
+     * タスクデータを更新します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    @Override
+    public void update(Task updateTask) {
+        updateAll(List.of(updateTask));
+    }
+
+    /**
+     * 複数のタスクデータをまとめて更新します。
+     * 該当するレコードだけを書き換え、名前が変わった場合は文字列テーブルに追記します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    @Override
+    public void updateAll(Collection<Task> updateTasks) {
+        if (updateTasks.isEmpty()) {
+            return;
+        }
+        Map<Integer, Task> updates = new HashMap<>();
+        for (Task task : updateTasks) {
+            updates.put(task.getCode(), task);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                long generation = openGeneration();
+                ByteBuffer records = BinaryFiles.readBody(path, MAGIC);
+                records.position(GENERATION_BYTES);
+                byte[] strings = strings(generation);
+                IO.readBytes(records.remaining());
+                try (FileChannel recordChannel = FileChannel.open(path, StandardOpenOption.WRITE);
+                        FileChannel stringChannel = FileChannel.open(stringsPath, StandardOpenOption.WRITE)) {
+                    long stringEnd = stringChannel.size();
+                    ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+                    while (records.remaining() >= RECORD_BYTES) {
+                        long position = BinaryFiles.HEADER_BYTES + records.position();
+                        int code = records.getInt(records.position());
+                        int nameOffset = records.getInt(records.position() + 12);
+                        records.position(records.position() + RECORD_BYTES);
+
+                        Task task = updates.get(code);
+                        if (task == null) {
+                            continue;
+                        }
+                        if (!task.getName().equals(decodeString(strings, nameOffset))) {
+                            ByteBuffer name = ByteBuffer.allocate((int) stringBytes(List.of(task)));
+                            putString(name, task.getName());
+                            nameOffset = nameOffset(stringEnd);
+                            int written = BinaryFiles.writeFully(stringChannel, name.flip(), stringEnd);
+                            stringEnd += written;
+                            IO.writtenBytes(written);
+                        }
+                        putRecord(record.clear(), task, nameOffset);
+                        IO.writtenBytes(BinaryFiles.writeFully(recordChannel, record.flip(), position));
+                    }
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("タスクデータの更新中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 全てのタスクでレコードと文字列テーブルを書き直します。
+     * 文字列テーブルは新しい世代で書き直し、今の文字列テーブルを「.strings.old」に残してから置き換えます。
+     * レコードのファイルは最後に置き換えるため、途中で中断しても古いレコードと古い文字列テーブルの組み合わせで読み込めます。
+     *
+     * @param tasks 書き込むタスク
+     */
+    @Override
+    protected void writeAll(Collection<Task> tasks) {
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                long generation = newGeneration();
+                long stringsSize = BinaryFiles.HEADER_BYTES + GENERATION_BYTES + stringBytes(tasks);
+                ByteBuffer strings = BinaryFiles.header(STRINGS_MAGIC, nameOffset(stringsSize) - BinaryFiles.HEADER_BYTES)
+                        .putLong(generation);
+                ByteBuffer records = BinaryFiles.header(MAGIC, GENERATION_BYTES + tasks.size() * RECORD_BYTES)
+                        .putLong(generation);
+                for (Task task : tasks) {
+                    int nameOffset = nameOffset(strings.position());
+                    putString(strings, task.getName());
+                    putRecord(records, task, nameOffset);
+                }
+                IO.writtenBytes(strings.position() + records.position());
+                if (Files.exists(stringsPath)) {
+                    Files.move(stringsPath, oldStringsPath, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+                // レコードを置き換える前に、参照する文字列をディスクに書き込む
+                BinaryFiles.replace(stringsPath, strings.flip(), true);
+                BinaryFiles.replace(path, records.flip());
+                Files.deleteIfExists(oldStringsPath);
+            });
+        } catch (IOException e) {
+            System.err.println("タスクデータの書き込み中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * CSV形式のタスクデータを読み込み、このファイルを書き直します。
+     *
+     * @param csvPath 読み込むtasks.csvのパス
+     * @return 移行したタスクの件数
+     */
+    public int importCsv(String csvPath) {
+        List<Task> tasks = new TaskDataAccess(csvPath, userDataAccess).findAll();
+        writeAll(tasks);
+        return tasks.size();
+    }
+
+    /**
+     * このファイルのタスクデータをCSV形式で書き出します。
+     *
+     * @param csvPath 書き出すtasks.csvのパス
+     * @return 書き出したタスクの件数
+     */
+    public int exportCsv(String csvPath) {
+        List<Task> tasks = findAll();
+        new TaskDataAccess(csvPath, userDataAccess).writeAll(tasks);
+        return tasks.size();
+    }
+
+    /**
+     * レコードと、同じ世代の文字列テーブルを読み込みます。
+     *
+     * @return 読み込んだタスク、同じ世代の文字列テーブルが見つからない場合はnull
+     */
+    private List<Task> readAll(Map<Integer, User> users) throws IOException {
+        ByteBuffer records = BinaryFiles.readBody(path, MAGIC);
+        if (records.remaining() < GENERATION_BYTES) {
+            throw new IOException("ファイルの形式が正しくありません: " + path);
+        }
+        byte[] strings = strings(records.getLong());
+        if (strings == null) {
+            return null;
+        }
+        IO.readBytes(records.remaining());
+        List<Task> tasks = new ArrayList<>(records.remaining() / RECORD_BYTES);
+        while (records.remaining() >= RECORD_BYTES) {
+            int code = records.getInt();
+            int status = records.getInt();
+            int userCode = records.getInt();
+            int nameOffset = records.getInt();
+            User repUser = users.get(userCode);
+            String name = decodeString(strings, nameOffset);
+            IO.readRecord(repUser != null && name != null);
+            if (repUser == null || name == null) {
+                System.err.println("Skipping invalid record: code=" + code);
+                continue;
+            }
+            tasks.add(new Task(code, name, status, repUser));
+        }
+        return tasks;
+    }
+
+    /**
+     * 指定した世代の文字列テーブルを取得します。
+     * 書き直しの途中であれば、残してある古い文字列テーブルも探します。
+     *
+     * @param generation レコードの世代
+     * @return 文字列テーブルの内容、見つからなければnull
+     */
+    private synchronized byte[] strings(long generation) throws IOException {
+        byte[] strings = readStrings(stringsPath, generation);
+        return strings != null ? strings : readStrings(oldStringsPath, generation);
+    }
+
+    /**
+     * 文字列テーブルが指定した世代であれば内容を取得します。
+     * 読み込み済みの世代であれば、追記された部分だけを読み足します。
+     */
+    private byte[] readStrings(Path stringsFile, long generation) throws IOException {
+        try (FileChannel channel = FileChannel.open(stringsFile, StandardOpenOption.READ)) {
+            if (generationOf(channel, STRINGS_MAGIC, stringsFile) != generation) {
+                return null;
+            }
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文字列テーブルが大きすぎます: " + stringsFile);
+            }
+            boolean cached = cachedStrings != null && cachedGeneration == generation && cachedStrings.length <= size;
+            int from = cached ? cachedStrings.length : 0;
+            byte[] strings = cached ? Arrays.copyOf(cachedStrings, (int) size) : new byte[(int) size];
+            IO.readBytes(BinaryFiles.readFully(channel, ByteBuffer.wrap(strings, from, (int) size - from), from));
+            cachedGeneration = generation;
+            cachedStrings = strings;
+            return strings;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * レコードと文字列テーブルの世代を揃え、レコードの世代を取得します。書き込みのロック中に呼び出してください。
+     * ファイルがなければ新しい世代で作成し、レコードを置き換える前に中断した書き直しがあれば文字列テーブルを元に戻します。
+     *
+     * @return レコードの世代
+     */
+    private long openGeneration() throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            long generation = newGeneration();
+            BinaryFiles.replace(stringsPath,
+                    BinaryFiles.header(STRINGS_MAGIC, GENERATION_BYTES).putLong(generation).flip(), true);
+            BinaryFiles.replace(path, BinaryFiles.header(MAGIC, GENERATION_BYTES).putLong(generation).flip());
+            return generation;
+        }
+        long generation;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            generation = generationOf(channel, MAGIC, path);
+        }
+        if (!Objects.equals(stringsGeneration(stringsPath), generation)) {
+            if (!Objects.equals(stringsGeneration(oldStringsPath), generation)) {
+                throw new IOException("レコードに対応する文字列テーブルが見つかりません: " + stringsPath);
+            }
+            Files.move(oldStringsPath, stringsPath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        return generation;
+    }
+
+    /**
+     * 文字列テーブルの世代を取得します。ファイルがなければnullを返します。
+     */
+    private static Long stringsGeneration(Path stringsFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(stringsFile, StandardOpenOption.READ)) {
+            return generationOf(channel, STRINGS_MAGIC, stringsFile);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * ファイルの先頭のヘッダーを確認し、続く世代番号を読み込みます。
+     */
+    private static long generationOf(FileChannel channel, int magic, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BinaryFiles.HEADER_BYTES + GENERATION_BYTES);
+        if (BinaryFiles.readFully(channel, header, 0) < header.capacity()
+                || header.flip().getInt() != magic || header.getInt() != BinaryFiles.VERSION) {
+            throw new IOException("ファイルの形式が正しくありません: " + file);
+        }
+        return header.getLong();
+    }
+
+    private static long newGeneration() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * 文字列テーブル上の位置をレコードに書き込むintにします。intに収まらない場合は書き込みを中止します。
+     */
+    private static int nameOffset(long position) throws IOException {
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("文字列テーブルが大きすぎます: " + position + "バイト");
+        }
+        return (int) position;
+    }
+
+    /**
+     * 文字列テーブルの指定位置から文字列を取り出します。位置が不正な場合はnullを返します。
+     */
+    private static String decodeString(byte[] strings, int offset) {
+        if (offset < 0 || offset > strings.length - 4) {
+            return null;
+        }
+        int length = ByteBuffer.wrap(strings, offset, 4).getInt();
+        if (length < 0 || length > strings.length - offset - 4) {
+            return null;
+        }
+        return new String(strings, offset + 4, length, StandardCharsets.UTF_8);
+    }
+
+    private static long stringBytes(Collection<Task> tasks) {
+        long bytes = 0;
+        for (Task task : tasks) {
+            bytes += 4 + task.getName().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static void putRecord(ByteBuffer buffer, Task task, int nameOffset) {
+        buffer.putInt(task.getCode())
+                .putInt(task.getStatus())
+                .putInt(task.getRepUser().getCode())
+                .putInt(nameOffset);
+    }
+}
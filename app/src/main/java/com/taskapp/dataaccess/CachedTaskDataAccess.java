@@ -0,0 +1,598 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+import com.taskapp.model.User;
+
+/**
+ * tasks.csvをメモリ上に保持するTaskDataAccessです。
+ * 読み込みはメモリから行い、保存・更新は同時にCSVファイルへ書き込みます。
+ * ファイルの更新日時とサイズが変わっていた場合は外部で編集されたものとして読み直します。
+ * 読み込み済みの部分が変わっていなければ、追記された行だけを読み込みます。
+ * 担当ユーザーごとのタスクコードの索引も保持し、保存・更新のたびに反映します。
+ *
+ * 読み込み済みの部分が変わっていないかは、ファイルの識別子・サイズ・更新日時と、
+ * 読み込み済みの範囲の末尾の内容のCRCで確認し、ファイル全体は読み直しません。
+ *
+ * スナップショットを有効にすると、読み込んだタスクを{@code <tasks.csv>.snapshot}へ定期的に書き出します。
+ * 次回の起動時はスナップショットからタスクと担当ユーザーの索引を組み立て、その後にCSVへ追記された行だけを変換します。
+ * スナップショットを書き出した時点から読み込み済みの部分が変わっていれば使いません。
+ * スナップショットに含めるのはタスクだけで、担当ユーザーは起動のたびにユーザーの保存先から取得します。
+ * ログの集計結果は{@link LogAnalytics}が別に書き出します。
+ * スナップショットを使うのはtaskapp.task.storage=cachedの場合だけです。
+ */
+public class CachedTaskDataAccess extends TaskDataAccess {
+    public static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 60_000;
+    private static final int SNAPSHOT_MAGIC = 0x54534B32; // "TSK2"
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NavigableMap<Integer, Task> tasks = new TreeMap<>();
+    // 担当ユーザーのコードから、そのユーザーが担当するタスクのコードを引く索引
+    private final Map<Integer, NavigableSet<Integer>> codesByRepUser = new HashMap<>();
+    private final Path path;
+    private long lastModified = -1;
+    private long size = -1;
+    // メモリ上に読み込み済みの範囲(ファイルの先頭から最後の改行の直後まで)と、
+    // 読み込んだファイルの識別子、範囲の末尾の内容のCRC
+    private long loadedLength;
+    private String loadedFileKey;
+    private long loadedFingerprint;
+
+    // スナップショットのパス。nullの場合はスナップショットを使わない
+    private final Path snapshotPath;
+    private long snapshotIntervalMillis = DEFAULT_SNAPSHOT_INTERVAL_MILLIS;
+    private long lastSnapshotTime;
+    private boolean snapshotStale;
+
+    public CachedTaskDataAccess() {
+        super();
+        path = Paths.get(filePath);
+        snapshotPath = null;
+    }
+
+    public CachedTaskDataAccess(String filePath, UserRepository userDataAccess) {
+        this(filePath, userDataAccess, false);
+    }
+
+    /**
+     * @param filePath tasks.csvのパス
+     * @param userDataAccess 担当ユーザーの取得に使うユーザーの保存先
+     * @param snapshot スナップショットを使う場合はtrue
+     */
+    public CachedTaskDataAccess(String filePath, UserRepository userDataAccess, boolean snapshot) {
+        super(filePath, userDataAccess);
+        path = Paths.get(filePath);
+        snapshotPath = snapshot ? Paths.get(filePath + ".snapshot") : null;
+    }
+
+    /**
+     * スナップショットを書き出す間隔を設定します。
+     * 前回の書き出しからこの時間が経っていれば、次の読み込み・保存・更新の後に書き出します。
+     *
+     * @param snapshotIntervalMillis 間隔(ミリ秒)
+     */
+    public synchronized void setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    /**
+     * メモリ上の全てのタスクをコード順に取得します。
+     *
+     * @return タスクのリスト
+     */
+    @Override
+    public synchronized List<Task> findAll() {
+        reloadIfChanged();
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks.values()) {
+            result.add(copy(task));
+        }
+        return result;
+    }
+
+    /**
+     * メモリ上の全てのタスクのストリームを取得します。
+     *
+     * @return タスクのストリーム
+     */
+    @Override
+    public Stream<Task> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * メモリ上のタスクから条件に該当するページを取得します。
+     * コピーを作るのはページに含まれるタスクだけです。
+     *
+     * @param query 絞り込み条件・並び順・ページ
+     * @return 該当するページ
+     */
+    @Override
+    public synchronized TaskPage findPage(TaskQuery query) {
+        reloadIfChanged();
+        TaskPage page = query.select(tasks.values().stream());
+        List<Task> result = new ArrayList<>(page.getTasks().size());
+        for (Task task : page.getTasks()) {
+            result.add(copy(task));
+        }
+        return new TaskPage(result, page.getPage(), page.hasNext());
+    }
+
+    /**
+     * 索引を使って、指定したユーザーが担当しているタスクをコード順に取得します。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    @Override
+    public synchronized List<Task> findByRepUser(int userCode) {
+        reloadIfChanged();
+        NavigableSet<Integer> codes = codesByRepUser.get(userCode);
+        if (codes == null) {
+            return new ArrayList<>();
+        }
+        List<Task> result = new ArrayList<>(codes.size());
+        for (int code : codes) {
+            result.add(copy(tasks.get(code)));
+        }
+        return result;
+    }
+
+    /**
+     * メモリ上からコードを基にタスクを1件取得します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク、見つからなければnull
+     */
+    @Override
+    public synchronized Task findByCode(int code) {
+        reloadIfChanged();
+        Task task = tasks.get(code);
+        return task == null ? null : copy(task);
+    }
+
+    /**
+     * タスクをCSVに追記し、メモリ上にも反映します。
+     *
+     * @param task 保存するタスク
+     */
+    @Override
+    public synchronized void save(Task task) {
+        try {
+            // 他のインスタンスの追記が最新化と追記の間に入らないよう、最新化から反映までをロックする
+            FileWriteLock.of(filePath).run(() -> {
+                reloadIfChanged();
+                super.save(task);
+                put(task);
+                advanceLoaded();
+                recordFileState();
+            });
+            maybeSnapshot();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 複数のタスクをCSVに追記し、メモリ上にも反映します。
+     *
+     * @param newTasks 保存するタスク
+     */
+    @Override
+    public synchronized void saveAll(List<Task> newTasks) {
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                reloadIfChanged();
+                super.saveAll(newTasks);
+                for (Task task : newTasks) {
+                    put(task);
+                }
+                advanceLoaded();
+                recordFileState();
+            });
+            maybeSnapshot();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 既に使われているコードがないことを確認してから、複数のタスクをCSVに保存します。
+     *
+     * @param newTasks 保存するタスク
+     * @throws AppException 既に使われているコードがある場合、または保存に失敗した場合
+     */
+    @Override
+    public synchronized void saveAllIfAbsent(List<Task> newTasks) throws AppException {
+        super.saveAllIfAbsent(newTasks);
+    }
+
+    /**
+     * メモリ上のタスクから、指定したコードのうち使われているものを取得します。
+     *
+     * @param codes 確認するコード
+     * @return 使われているコード
+     */
+    @Override
+    protected Set<Integer> usedCodes(Collection<Integer> codes) {
+        reloadIfChanged();
+        Set<Integer> used = new HashSet<>();
+        for (int code : codes) {
+            if (tasks.containsKey(code)) {
+                used.add(code);
+            }
+        }
+        return used;
+    }
+
+    /**
+     * メモリ上のタスクを更新し、CSVファイルを書き直します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    @Override
+    public synchronized void update(Task updateTask) {
+        try {
+            // 他のインスタンスの書き込みと重ならないよう、最新化から書き込みまでをロックする
+            FileWriteLock.of(filePath).run(() -> {
+                reloadIfChanged();
+                if (!tasks.containsKey(updateTask.getCode())) {
+                    return;
+                }
+                put(updateTask);
+                writeAll(tasks.values());
+                reloaded();
+                recordFileState();
+            });
+            maybeSnapshot();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * メモリ上の複数のタスクを更新し、CSVファイルを1回だけ書き直します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    @Override
+    public synchronized void updateAll(Collection<Task> updateTasks) {
+        if (updateTasks.isEmpty()) {
+            return;
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                reloadIfChanged();
+                for (Task updateTask : updateTasks) {
+                    if (tasks.containsKey(updateTask.getCode())) {
+                        put(updateTask);
+                    }
+                }
+                writeAll(tasks.values());
+                reloaded();
+                recordFileState();
+            });
+            maybeSnapshot();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * メモリ上のタスクをスナップショットとして書き出します。
+     */
+    public synchronized void snapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+        reloadIfChanged();
+        writeSnapshot();
+    }
+
+    /**
+     * CSVファイルの更新日時かサイズが前回から変わっていれば読み直します。
+     * 読み込み済みの部分が変わっていなければ追記された行だけを読み込み、変わっていれば全て読み直します。
+     * 初回はスナップショットがあればそれを読み込みます。
+     */
+    private void reloadIfChanged() {
+        try {
+            long currentModified = Files.getLastModifiedTime(path).toMillis();
+            long currentSize = Files.size(path);
+            if (currentModified == lastModified && currentSize == size) {
+                return;
+            }
+        } catch (IOException e) {
+            System.err.println("タスクデータの状態確認中にエラーが発生しました: " + e.getMessage());
+            return;
+        }
+
+        boolean appendOnly;
+        try {
+            appendOnly = lastModified == -1 ? loadSnapshot() : loadedPartUnchanged(lastModified, size);
+            if (appendOnly) {
+                replayAppended();
+            }
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            appendOnly = false;
+        }
+        if (!appendOnly) {
+            tasks.clear();
+            codesByRepUser.clear();
+            for (Task task : super.findAll()) {
+                put(task);
+            }
+            reloaded();
+        }
+        malformedRows.summarize();
+        recordFileState();
+        maybeSnapshot();
+    }
+
+    /**
+     * 読み込み済みの範囲の内容が、更新日時とサイズを記録した時点から変わっていないかを確認します。
+     * 同じファイルのままで読み込み済みの範囲の末尾の内容が一致すれば、その後に追記されただけとみなします。
+     * 保存先の書き直しは別のファイルに書いてから置き換えるため、ファイルの識別子が変わることで検出します。
+     * サイズが同じまま更新日時だけが変わった場合は、その場で書き換えられたものとみなします。
+     * ファイルの識別子を取得できない環境では、更新日時とサイズが記録した時点と同じ場合だけ変わっていないとみなします。
+     *
+     * @param modified 記録した更新日時
+     * @param fileSize 記録したサイズ
+     */
+    private boolean loadedPartUnchanged(long modified, long fileSize) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long currentSize = attributes.size();
+        if (loadedLength == 0 || currentSize < loadedLength) {
+            return false;
+        }
+        boolean sameState = currentSize == fileSize && attributes.lastModifiedTime().toMillis() == modified;
+        String fileKey = LineScanner.fileKeyOf(attributes);
+        if (fileKey == null ? !sameState : !fileKey.equals(loadedFileKey)) {
+            return false;
+        }
+        if (currentSize == fileSize && !sameState) {
+            return false;
+        }
+        return LineScanner.fingerprint(path, loadedLength) == loadedFingerprint;
+    }
+
+    /**
+     * 読み込み済みの範囲より後に追記された行をメモリ上に反映します。
+     * 改行で終わっていない最後の行も反映しますが、読み込み済みの範囲には含めません。
+     */
+    private void replayAppended() throws IOException {
+        if (Files.size(path) <= loadedLength) {
+            return;
+        }
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        long from = loadedLength;
+        long end = LineScanner.scan(path, from, Long.MAX_VALUE, true, (offset, line) -> {
+            // ヘッダー行の読み飛ばし
+            if (offset == 0) {
+                return;
+            }
+            Task task = parseLine(offset, line, users::get);
+            if (task != null) {
+                put(task);
+            }
+        });
+        markLoaded(end);
+        snapshotStale = true;
+    }
+
+    /**
+     * 自身が追記した行を読み込み済みの範囲に加えます。
+     */
+    private void advanceLoaded() {
+        try {
+            long end = lastLineEnd();
+            if (end > loadedLength) {
+                markLoaded(end);
+            }
+        } catch (IOException e) {
+            loadedLength = 0;
+        }
+        snapshotStale = true;
+    }
+
+    /**
+     * ファイル全体を読み込んだ後に、読み込み済みの範囲を記録します。
+     */
+    private void reloaded() {
+        try {
+            markLoaded(lastLineEnd());
+        } catch (IOException e) {
+            loadedLength = 0;
+        }
+        snapshotStale = true;
+    }
+
+    /**
+     * ファイルの先頭から指定した位置までを読み込み済みの範囲として記録します。
+     */
+    private void markLoaded(long length) throws IOException {
+        loadedFingerprint = LineScanner.fingerprint(path, length);
+        loadedFileKey = LineScanner.fileKeyOf(Files.readAttributes(path, BasicFileAttributes.class));
+        loadedLength = length;
+    }
+
+    /**
+     * ファイルの最後の改行の直後の位置を取得します。
+     */
+    private long lastLineEnd() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // 範囲を全て読み込むまで繰り返す
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * スナップショットを読み込みます。
+     * スナップショットを書き出した時点から、CSVの読み込み済みの部分が変わっていない場合のみ使います。
+     *
+     * @return 読み込んだ場合はtrue
+     */
+    private boolean loadSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return false;
+        }
+        try {
+            ByteBuffer buffer = BinaryFiles.readBody(snapshotPath, SNAPSHOT_MAGIC);
+            loadedLength = buffer.getLong();
+            loadedFingerprint = buffer.getLong();
+            long modified = buffer.getLong();
+            long fileSize = buffer.getLong();
+            byte[] fileKey = new byte[buffer.getInt()];
+            buffer.get(fileKey);
+            loadedFileKey = fileKey.length == 0 ? null : new String(fileKey, StandardCharsets.UTF_8);
+            if (!loadedPartUnchanged(modified, fileSize)) {
+                loadedLength = 0;
+                return false;
+            }
+
+            Map<Integer, User> users = userDataAccess.findAllAsMap();
+            int count = buffer.getInt();
+            tasks.clear();
+            codesByRepUser.clear();
+            long previousCode = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int code = buffer.getInt();
+                int status = buffer.getInt();
+                int repUserCode = buffer.getInt();
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                if (code <= previousCode) {
+                    throw new IllegalStateException("タスクがコード順に並んでいません: code=" + code);
+                }
+                previousCode = code;
+                User repUser = users.get(repUserCode);
+                if (repUser == null) {
+                    malformedRows.unresolved("code=" + code, "user not found");
+                    continue;
+                }
+                tasks.put(code, new Task(code, new String(name, StandardCharsets.UTF_8), status, repUser));
+                codesByRepUser.computeIfAbsent(repUserCode, k -> new TreeSet<>()).add(code);
+            }
+            lastSnapshotTime = System.currentTimeMillis();
+            snapshotStale = false;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("スナップショットの読み込み中にエラーが発生しました: " + e.getMessage());
+            tasks.clear();
+            codesByRepUser.clear();
+            loadedLength = 0;
+            return false;
+        }
+    }
+
+    /**
+     * 前回の書き出しから一定時間が経っていて、内容が変わっていればスナップショットを書き出します。
+     */
+    private void maybeSnapshot() {
+        if (snapshotPath != null && snapshotStale
+                && System.currentTimeMillis() - lastSnapshotTime >= snapshotIntervalMillis) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        if (loadedLength == 0) {
+            return;
+        }
+        byte[] fileKey = loadedFileKey == null ? new byte[0] : loadedFileKey.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> names = new ArrayList<>(tasks.size());
+        int bodyBytes = 8 + 8 + 8 + 8 + 4 + fileKey.length + 4;
+        for (Task task : tasks.values()) {
+            byte[] name = task.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            bodyBytes += 16 + name.length;
+        }
+        ByteBuffer buffer = BinaryFiles.header(SNAPSHOT_MAGIC, bodyBytes);
+        buffer.putLong(loadedLength).putLong(loadedFingerprint).putLong(lastModified).putLong(size)
+                .putInt(fileKey.length).put(fileKey).putInt(tasks.size());
+        int i = 0;
+        for (Task task : tasks.values()) {
+            byte[] name = names.get(i++);
+            buffer.putInt(task.getCode()).putInt(task.getStatus()).putInt(task.getRepUser().getCode())
+                    .putInt(name.length).put(name);
+        }
+        try {
+            BinaryFiles.replace(snapshotPath, buffer.flip());
+            lastSnapshotTime = System.currentTimeMillis();
+            snapshotStale = false;
+        } catch (IOException e) {
+            System.err.println("スナップショットの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 現在のCSVファイルの更新日時とサイズを記録します。
+     */
+    private void recordFileState() {
+        try {
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            size = Files.size(path);
+        } catch (IOException e) {
+            lastModified = -1;
+            size = -1;
+        }
+    }
+
+    /**
+     * タスクのコピーをメモリ上に登録し、担当ユーザーの索引を更新します。
+     */
+    private void put(Task task) {
+        Task previous = tasks.put(task.getCode(), copy(task));
+        int repUserCode = task.getRepUser().getCode();
+        if (previous != null && previous.getRepUser().getCode() != repUserCode) {
+            NavigableSet<Integer> codes = codesByRepUser.get(previous.getRepUser().getCode());
+            codes.remove(task.getCode());
+            if (codes.isEmpty()) {
+                codesByRepUser.remove(previous.getRepUser().getCode());
+            }
+        }
+        codesByRepUser.computeIfAbsent(repUserCode, code -> new TreeSet<>()).add(task.getCode());
+    }
+
+    private Task copy(Task task) {
+        return new Task(task.getCode(), task.getName(), task.getStatus(), task.getRepUser());
+    }
+}
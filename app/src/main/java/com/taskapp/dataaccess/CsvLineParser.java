@@ -0,0 +1,187 @@
+package com.taskapp.dataaccess;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * CSVの1行をカンマで区切り、各項目の位置を保持する再利用可能なパーサーです。
+ * 項目ごとに部分文字列を作らずに、整数や日付をその場で読み取ります。
+ * 1つのインスタンスを同じスレッドで行ごとに使い回すことを想定しています。
+ */
+public class CsvLineParser {
+    /** 整数として読み取れなかった場合の戻り値 */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 項目を受け取るコールバックです。
+     */
+    @FunctionalInterface
+    public interface FieldHandler {
+        /**
+         * @param index 項目の番号(0始まり)
+         * @param line 対象の行
+         * @param start 項目の開始位置
+         * @param end 項目の終了位置(この位置は含まない)
+         */
+        void field(int index, CharSequence line, int start, int end);
+    }
+
+    private CharSequence line;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fieldCount;
+
+    /**
+     * 行を区切り、項目の位置を記録します。
+     *
+     * @param line 対象の行
+     * @return 項目数
+     */
+    public int parse(CharSequence line) {
+        this.line = line;
+        fieldCount = 0;
+        int length = line.length();
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == ',') {
+                if (fieldCount == starts.length) {
+                    starts = Arrays.copyOf(starts, fieldCount * 2);
+                    ends = Arrays.copyOf(ends, fieldCount * 2);
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = i;
+                fieldCount++;
+                start = i + 1;
+            }
+        }
+        return fieldCount;
+    }
+
+    /**
+     * 行を区切り、項目ごとにコールバックを呼び出します。
+     *
+     * @param line 対象の行
+     * @param handler 項目を受け取るコールバック
+     * @return 項目数
+     */
+    public int parse(CharSequence line, FieldHandler handler) {
+        int count = parse(line);
+        for (int i = 0; i < count; i++) {
+            handler.field(i, line, starts[i], ends[i]);
+        }
+        return count;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 項目を文字列として取得します。
+     *
+     * @param index 項目の番号
+     * @return 項目の文字列
+     */
+    public String field(int index) {
+        return line.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * 項目が指定した文字列と一致するかを判定します。
+     *
+     * @param index 項目の番号
+     * @param value 比較する文字列
+     * @return 一致すればtrue
+     */
+    public boolean fieldEquals(int index, String value) {
+        if (value == null) {
+            return false;
+        }
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 項目を整数として読み取ります。
+     *
+     * @param index 項目の番号
+     * @return 読み取った整数、整数でなければ{@link #INVALID}
+     */
+    public long intField(int index) {
+        return parseInt(line, starts[index], ends[index]);
+    }
+
+    /**
+     * 項目をyyyy-MM-dd形式の日付として読み取ります。
+     *
+     * @param index 項目の番号
+     * @return 読み取った日付、日付でなければnull
+     */
+    public LocalDate dateField(int index) {
+        int start = starts[index];
+        if (ends[index] - start != 10 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-') {
+            return null;
+        }
+        long year = parseInt(line, start, start + 4);
+        long month = parseInt(line, start + 5, start + 7);
+        long day = parseInt(line, start + 8, start + 10);
+        if (year == INVALID || month == INVALID || day == INVALID) {
+            return null;
+        }
+        try {
+            return LocalDate.of((int) year, (int) month, (int) day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 文字列の指定範囲を10進数の整数として読み取ります。
+     *
+     * @param s 対象の文字列
+     * @param start 開始位置
+     * @param end 終了位置(この位置は含まない)
+     * @return 読み取った整数、int型の整数でなければ{@link #INVALID}
+     */
+    public static long parseInt(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return INVALID;
+        }
+        boolean negative = false;
+        int i = start;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == end) {
+                return INVALID;
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            return INVALID;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,101 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * データファイルへの書き込みを直列化するロックです。
+ * 同じJVM内ではファイルごとに共有するReentrantLockで、
+ * プロセス間では「ファイル名.lock」に対するFileChannel.lockで排他します。
+ * 読み込みはロックを取得しません。
+ */
+final class FileWriteLock {
+    private static final ConcurrentHashMap<Path, FileWriteLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * ロック中に実行する書き込み処理です。
+     */
+    @FunctionalInterface
+    interface IOAction {
+        void run() throws IOException;
+    }
+
+    private final Path lockFile;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileWriteLock(Path dataFile) {
+        this.lockFile = dataFile.resolveSibling(dataFile.getFileName() + ".lock");
+    }
+
+    /**
+     * データファイルに対応するロックを取得します。同じファイルには同じインスタンスを返します。
+     *
+     * @param filePath データファイルのパス
+     * @return ロック
+     */
+    static FileWriteLock of(String filePath) {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        return LOCKS.computeIfAbsent(path, FileWriteLock::new);
+    }
+
+    /**
+     * 取得したロックです。closeで解放します。
+     */
+    interface Held extends AutoCloseable {
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * ロックを取得して処理を実行します。同じスレッドからの再入が可能です。
+     *
+     * @param action 実行する処理
+     */
+    void run(IOAction action) throws IOException {
+        Held held = acquire();
+        try {
+            action.run();
+        } finally {
+            held.close();
+        }
+    }
+
+    /**
+     * ロックを取得します。複数の呼び出しにまたがって保持する場合に使い、必ずcloseで解放してください。
+     * 同じスレッドからの再入が可能です。
+     *
+     * @return 取得したロック
+     */
+    Held acquire() throws IOException {
+        lock.lock();
+        if (lock.getHoldCount() > 1) {
+            // 外側の呼び出しで既にファイルロックを取得している
+            return lock::unlock;
+        }
+        try {
+            FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                channel.lock();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return () -> {
+                try {
+                    // チャネルを閉じるとファイルロックも解放される
+                    channel.close();
+                } finally {
+                    lock.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+}
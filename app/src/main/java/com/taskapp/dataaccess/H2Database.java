@@ -0,0 +1,342 @@
+package com.taskapp.dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import com.taskapp.model.Log;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * 組み込みのH2データベースへの接続プールとテーブルを管理するクラスです。
+ * H2TaskDataAccess・H2LogDataAccess・H2UserDataAccessはこのクラスから接続を取得します。
+ */
+public class H2Database implements AutoCloseable {
+    public static final int DEFAULT_MAX_CONNECTIONS = 10;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users ("
+                + "code INT PRIMARY KEY, name VARCHAR NOT NULL, email VARCHAR NOT NULL UNIQUE, password VARCHAR NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS tasks ("
+                + "code INT PRIMARY KEY, name VARCHAR NOT NULL, status INT NOT NULL, rep_user_code INT NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS tasks_rep_user_code ON tasks (rep_user_code)",
+        "CREATE TABLE IF NOT EXISTS logs ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, task_code INT NOT NULL, user_code INT NOT NULL,"
+                + " status INT NOT NULL, change_date DATE NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS logs_task_code_change_date ON logs (task_code, change_date)"
+    };
+
+    private final JdbcConnectionPool pool;
+    // 埋め込みのデータベースは1つのプロセスからしか開けないため、JVM内のロックで排他する
+    private final ReentrantLock taskUpdateLock = new ReentrantLock();
+
+    /**
+     * @param url JDBCのURL(例：jdbc:h2:file:/path/to/taskapp)
+     */
+    public H2Database(String url) throws SQLException {
+        this(url, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param url JDBCのURL(例：jdbc:h2:file:/path/to/taskapp)
+     * @param maxConnections プールする接続の上限
+     */
+    public H2Database(String url, int maxConnections) throws SQLException {
+        pool = JdbcConnectionPool.create(url, "sa", "");
+        pool.setMaxConnections(maxConnections);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            pool.dispose();
+            throw e;
+        }
+    }
+
+    /**
+     * プールから接続を取得します。利用後は必ず閉じてください。
+     *
+     * @return 接続
+     */
+    Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    /**
+     * タスクを読み込んでから更新するまでを排他するロックを取得します。
+     *
+     * @return ロック
+     */
+    ReentrantLock taskUpdateLock() {
+        return taskUpdateLock;
+    }
+
+    /**
+     * CSVファイルの内容でテーブルを置き換えます。
+     * 全ての行を1つのトランザクションで登録するため、途中で失敗した場合は何も変わりません。
+     * 同じコードのユーザー・タスクが複数ある場合は後の行で上書きし、上書きしたタスクのコードを表示します。
+     * メールアドレスが重複するユーザーがある場合は、該当するユーザーのコードを示して何も登録しません。
+     *
+     * @param usersCsv users.csvのパス
+     * @param tasksCsv tasks.csvのパス
+     * @param logsCsv logs.csvのパス
+     */
+    public void importCsv(String usersCsv, String tasksCsv, String logsCsv) throws SQLException {
+        UserDataAccess csvUsers = new UserDataAccess(usersCsv);
+        Map<Integer, User> users = csvUsers.findAllAsMap();
+        checkUniqueEmails(users.values());
+        LogDataAccess csvLogs = new LogDataAccess(logsCsv);
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DELETE FROM logs");
+                    statement.execute("DELETE FROM tasks");
+                    statement.execute("DELETE FROM users");
+                }
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "MERGE INTO users (code, name, email, password) KEY (code) VALUES (?, ?, ?, ?)")) {
+                    Batch<User> batch = new Batch<>(ps, H2UserDataAccess::bind);
+                    users.values().forEach(batch);
+                    batch.finish();
+                }
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "MERGE INTO tasks (code, name, status, rep_user_code) KEY (code) VALUES (?, ?, ?, ?)");
+                        Stream<Task> tasks = new TaskDataAccess(tasksCsv, csvUsers).streamAll()) {
+                    Batch<Task> batch = new Batch<>(ps, H2TaskDataAccess::bind);
+                    Set<Integer> codes = new HashSet<>();
+                    Set<Integer> overwritten = new TreeSet<>();
+                    tasks.peek(task -> {
+                        if (!codes.add(task.getCode())) {
+                            overwritten.add(task.getCode());
+                        }
+                    }).forEach(batch);
+                    batch.finish();
+                    if (!overwritten.isEmpty()) {
+                        System.err.println("タスクコード" + overwritten + "は複数の行にあるため、後の行で上書きしました");
+                    }
+                }
+                try (PreparedStatement ps = connection.prepareStatement(H2LogDataAccess.INSERT);
+                        Stream<Log> logs = csvLogs.streamAll()) {
+                    Batch<Log> batch = new Batch<>(ps, H2LogDataAccess::bind);
+                    logs.forEach(batch);
+                    batch.finish();
+                }
+                connection.commit();
+            } catch (UncheckedSQLException e) {
+                connection.rollback();
+                throw e.getCause();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+                csvLogs.close();
+            }
+        }
+    }
+
+    /**
+     * 登録するユーザーのメールアドレスに重複がないことを確認します。
+     * 一意制約の違反で移行全体が失敗する前に、どの行が原因かを示すために使います。
+     */
+    private static void checkUniqueEmails(Collection<User> users) throws SQLException {
+        Map<String, Integer> codesByEmail = new HashMap<>();
+        for (User user : users) {
+            Integer other = codesByEmail.putIfAbsent(user.getEmail(), user.getCode());
+            if (other != null) {
+                throw new SQLException("ユーザーコード" + other + "と" + user.getCode()
+                        + "のメールアドレス(" + user.getEmail() + ")が重複しているため、移行を中止しました");
+            }
+        }
+    }
+
+    /**
+     * 同じSQLを値ごとに実行します。全ての値を1つのトランザクションで実行し、失敗した場合は元に戻します。
+     *
+     * @param sql 実行するSQL
+     * @param values SQLに設定する値
+     * @param binder 値をSQLに設定する関数
+     */
+    <T> void executeBatch(String sql, Collection<? extends T> values, Binder<T> binder) throws SQLException {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                Batch<T> batch = new Batch<>(ps, binder);
+                values.forEach(batch);
+                batch.finish();
+                connection.commit();
+            } catch (UncheckedSQLException e) {
+                connection.rollback();
+                throw e.getCause();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * 接続プールを閉じます。
+     */
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+
+    /**
+     * 結果セットの1行を変換する関数です。
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 値をプリペアドステートメントに設定する関数です。
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement ps, T value) throws SQLException;
+    }
+
+    /**
+     * 問い合わせの結果を1行ずつ読み込むストリームを作成します。
+     * ストリームを閉じると結果セット・ステートメント・接続も閉じます。
+     *
+     * @param connection 接続
+     * @param ps 実行するステートメント
+     * @param mapper 1行を変換する関数
+     * @return 変換した行のストリーム
+     */
+    static <T> Stream<T> stream(Connection connection, PreparedStatement ps, RowMapper<T> mapper) throws SQLException {
+        ResultSet rs = ps.executeQuery();
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try (connection; ps; rs) {
+                // 全て閉じる
+            } catch (SQLException e) {
+                System.err.println("データベースの切断中にエラーが発生しました: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 例外を無視してステートメントと接続を閉じます。nullは読み飛ばします。
+     */
+    static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("データベースの切断中にエラーが発生しました: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 一定件数ごとにまとめて実行するバッチです。
+     */
+    static class Batch<T> implements Consumer<T> {
+        private final PreparedStatement ps;
+        private final Binder<T> binder;
+        private int pending;
+
+        Batch(PreparedStatement ps, Binder<T> binder) {
+            this.ps = ps;
+            this.binder = binder;
+        }
+
+        @Override
+        public void accept(T value) {
+            try {
+                binder.bind(ps, value);
+                ps.addBatch();
+                if (++pending >= BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            } catch (SQLException e) {
+                throw new UncheckedSQLException(e);
+            }
+        }
+
+        void finish() throws SQLException {
+            if (pending > 0) {
+                ps.executeBatch();
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * ストリームの処理中に発生したSQLExceptionを包む例外です。
+     */
+    static class UncheckedSQLException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UncheckedSQLException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+
+    /**
+     * CSVファイルからデータベースへ移行します。
+     * 引数：JDBCのURL users.csv tasks.csv logs.csv
+     */
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 4) {
+            System.err.println("使い方: H2Database <JDBCのURL> <users.csv> <tasks.csv> <logs.csv>");
+            return;
+        }
+        try (H2Database database = new H2Database(args[0])) {
+            database.importCsv(args[1], args[2], args[3]);
+        }
+        System.out.println("CSVファイルからデータベースへの移行が完了しました");
+    }
+}
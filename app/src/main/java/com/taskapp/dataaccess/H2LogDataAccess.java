@@ -0,0 +1,155 @@
+package com.taskapp.dataaccess;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.taskapp.model.Log;
+
+/**
+ * ログをH2データベースのlogsテーブルに保存するLogRepositoryです。
+ * ログは登録順に返し、タスクコードごとの取得には索引を使います。
+ */
+public class H2LogDataAccess implements LogRepository {
+    static final String INSERT = "INSERT INTO logs (task_code, user_code, status, change_date) VALUES (?, ?, ?, ?)";
+    private static final String SELECT = "SELECT task_code, user_code, status, change_date FROM logs";
+
+    private final H2Database database;
+
+    /**
+     * @param database 接続を取得するデータベース
+     */
+    public H2LogDataAccess(H2Database database) {
+        this.database = database;
+    }
+
+    /**
+     * ログを保存します。
+     *
+     * @param log 保存するログ
+     */
+    @Override
+    public void save(Log log) {
+        saveAll(List.of(log));
+    }
+
+    /**
+     * 複数のログを1つのトランザクションで保存します。
+     *
+     * @param logs 保存するログ
+     */
+    @Override
+    public void saveAll(List<Log> logs) {
+        try {
+            database.executeBatch(INSERT, logs, H2LogDataAccess::bind);
+        } catch (SQLException e) {
+            System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * すべてのログを登録順に取得します。
+     *
+     * @return すべてのログのリスト
+     */
+    @Override
+    public List<Log> findAll() {
+        return query(SELECT + " ORDER BY id", null);
+    }
+
+    /**
+     * すべてのログを1行ずつ読み込むストリームを取得します。
+     * ストリームを閉じるまで接続を使用するため、利用後は必ず閉じてください。
+     *
+     * @return ログのストリーム
+     */
+    @Override
+    public Stream<Log> streamAll() {
+        Connection connection = null;
+        PreparedStatement ps = null;
+        try {
+            connection = database.getConnection();
+            ps = connection.prepareStatement(SELECT + " ORDER BY id");
+            return H2Database.stream(connection, ps, H2LogDataAccess::map);
+        } catch (SQLException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            H2Database.closeQuietly(ps, connection);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 指定したタスクコードのログを索引を使って取得します。
+     *
+     * @param taskCode 取得するログのタスクコード
+     * @return 該当するログのリスト
+     */
+    @Override
+    public List<Log> findByTaskCode(int taskCode) {
+        return query(SELECT + " WHERE task_code = ? ORDER BY id", taskCode);
+    }
+
+    /**
+     * 指定したタスクコードに該当するログを削除します。
+     *
+     * @param taskCode 削除するログのタスクコード
+     */
+    @Override
+    public void deleteByTaskCode(int taskCode) {
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement("DELETE FROM logs WHERE task_code = ?")) {
+            ps.setInt(1, taskCode);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ログは保存時に書き込み済みのため、何も行いません。
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * 接続はH2Databaseが管理するため、何も行いません。
+     */
+    @Override
+    public void close() {
+    }
+
+    private List<Log> query(String sql, Integer taskCode) {
+        List<Log> logs = new ArrayList<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(sql)) {
+            if (taskCode != null) {
+                ps.setInt(1, taskCode);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        return logs;
+    }
+
+    static void bind(PreparedStatement ps, Log log) throws SQLException {
+        ps.setInt(1, log.getTaskCode());
+        ps.setInt(2, log.getChangeUserCode());
+        ps.setInt(3, log.getStatus());
+        ps.setDate(4, Date.valueOf(log.getChangeDate()));
+    }
+
+    private static Log map(ResultSet rs) throws SQLException {
+        return new Log(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getDate(4).toLocalDate());
+    }
+}
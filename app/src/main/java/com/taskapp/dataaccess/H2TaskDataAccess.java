@@ -0,0 +1,306 @@
+package com.taskapp.dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+import com.taskapp.model.User;
+
+/**
+ * タスクをH2データベースのtasksテーブルに保存するTaskRepositoryです。
+ * 担当ユーザーは同じデータベースのusersテーブルと結合して取得します。
+ */
+public class H2TaskDataAccess implements TaskRepository {
+    private static final String SELECT = "SELECT t.code, t.name, t.status, u.code, u.name, u.email, u.password"
+            + " FROM tasks t JOIN users u ON u.code = t.rep_user_code";
+    private static final String INSERT = "INSERT INTO tasks (code, name, status, rep_user_code) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_CODES = "SELECT code FROM tasks WHERE code = ANY(?)";
+    // 一意制約に違反した場合のSQLSTATE
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String UPDATE = "UPDATE tasks SET name = ?, status = ?, rep_user_code = ? WHERE code = ?";
+
+    private final H2Database database;
+
+    /**
+     * @param database 接続を取得するデータベース
+     */
+    public H2TaskDataAccess(H2Database database) {
+        this.database = database;
+    }
+
+    /**
+     * 全てのタスクデータをコード順に取得します。
+     *
+     * @return タスクのリスト
+     */
+    @Override
+    public List<Task> findAll() {
+        List<Task> tasks = new ArrayList<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT + " ORDER BY t.code");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                tasks.add(map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        return tasks;
+    }
+
+    /**
+     * 全てのタスクデータを1行ずつ読み込むストリームを取得します。
+     * ストリームを閉じるまで接続を使用するため、利用後は必ず閉じてください。
+     *
+     * @return タスクのストリーム
+     */
+    @Override
+    public Stream<Task> streamAll() {
+        Connection connection = null;
+        PreparedStatement ps = null;
+        try {
+            connection = database.getConnection();
+            ps = connection.prepareStatement(SELECT + " ORDER BY t.code");
+            return H2Database.stream(connection, ps, H2TaskDataAccess::map);
+        } catch (SQLException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            H2Database.closeQuietly(ps, connection);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 条件に該当するタスクを1ページ分取得します。
+     * 絞り込み・並び替え・件数の制限はデータベースで行い、担当ユーザーの条件には索引を使います。
+     * 並び順を指定しない場合はコード順で返します。
+     *
+     * @param query 絞り込み条件・並び順・ページ
+     * @return 該当するページ
+     */
+    @Override
+    public TaskPage findPage(TaskQuery query) {
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (query.getStatus() != null) {
+            sql.append(" AND t.status = ?");
+            params.add(query.getStatus());
+        }
+        if (query.getRepUserCode() != null) {
+            sql.append(" AND t.rep_user_code = ?");
+            params.add(query.getRepUserCode());
+        }
+        if (query.getNamePrefix() != null) {
+            sql.append(" AND t.name LIKE ? ESCAPE '\\'");
+            params.add(query.getNamePrefix().replaceAll("([\\\\%_])", "\\\\$1") + "%");
+        }
+        switch (query.getSort()) {
+            case NAME: sql.append(" ORDER BY t.name, t.code"); break;
+            case STATUS: sql.append(" ORDER BY t.status, t.code"); break;
+            default: sql.append(" ORDER BY t.code"); break;
+        }
+        // 次のページの有無を判定するため1件多く取得する
+        sql.append(" LIMIT ? OFFSET ?");
+        params.add(query.getLimit() + 1);
+        params.add(query.getOffset());
+
+        List<Task> tasks = new ArrayList<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        boolean hasNext = tasks.size() > query.getLimit();
+        if (hasNext) {
+            tasks.remove(tasks.size() - 1);
+        }
+        return new TaskPage(tasks, query.getPage(), hasNext);
+    }
+
+    /**
+     * 指定したユーザーが担当しているタスクをコード順に取得します。
+     * 担当ユーザーの索引を使うため、他のユーザーのタスクは読み込みません。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    @Override
+    public List<Task> findByRepUser(int userCode) {
+        List<Task> tasks = new ArrayList<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(
+                        SELECT + " WHERE t.rep_user_code = ? ORDER BY t.code")) {
+            ps.setInt(1, userCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        return tasks;
+    }
+
+    /**
+     * コードを基にタスクデータを1件取得します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク
+     */
+    @Override
+    public Task findByCode(int code) {
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT + " WHERE t.code = ?")) {
+            ps.setInt(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * タスクを保存します。
+     *
+     * @param task 保存するタスク
+     */
+    @Override
+    public void save(Task task) {
+        saveAll(List.of(task));
+    }
+
+    /**
+     * 複数のタスクを1つのトランザクションで保存します。
+     *
+     * @param tasks 保存するタスク
+     */
+    @Override
+    public void saveAll(List<Task> tasks) {
+        try {
+            database.executeBatch(INSERT, tasks, H2TaskDataAccess::bind);
+        } catch (SQLException e) {
+            System.err.println("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 複数のタスクを1つのトランザクションで保存します。
+     * 主キーに違反した場合は何も保存せず、既に使われているコードを例外で知らせます。
+     *
+     * @param tasks 保存するタスク
+     * @throws AppException 既に使われているコードがある場合、または保存に失敗した場合
+     */
+    @Override
+    public void saveAllIfAbsent(List<Task> tasks) throws AppException {
+        Set<Integer> duplicates = new TreeSet<>();
+        Set<Integer> codes = new HashSet<>();
+        for (Task task : tasks) {
+            if (!codes.add(task.getCode())) {
+                duplicates.add(task.getCode());
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw TaskDataAccess.duplicateCodes(duplicates);
+        }
+        try {
+            database.executeBatch(INSERT, tasks, H2TaskDataAccess::bind);
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw TaskDataAccess.duplicateCodes(usedCodes(codes));
+            }
+            throw new AppException("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private Set<Integer> usedCodes(Set<Integer> codes) throws AppException {
+        Set<Integer> used = new TreeSet<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT_CODES)) {
+            ps.setObject(1, codes.toArray(new Integer[0]));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    used.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new AppException("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+        return used;
+    }
+
+    /**
+     * タスクデータを更新します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    @Override
+    public void update(Task updateTask) {
+        updateAll(List.of(updateTask));
+    }
+
+    /**
+     * 複数のタスクデータを1つのトランザクションで更新します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    @Override
+    public void updateAll(Collection<Task> updateTasks) {
+        try {
+            database.executeBatch(UPDATE, updateTasks, (ps, task) -> {
+                ps.setString(1, task.getName());
+                ps.setInt(2, task.getStatus());
+                ps.setInt(3, task.getRepUser().getCode());
+                ps.setInt(4, task.getCode());
+            });
+        } catch (SQLException e) {
+            System.err.println("タスクデータの更新中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * タスクを読み込んでから更新するまでを排他するロックを取得します。
+     *
+     * @return 取得したロック
+     */
+    @Override
+    public UpdateLock lockForUpdate() {
+        ReentrantLock lock = database.taskUpdateLock();
+        lock.lock();
+        return lock::unlock;
+    }
+
+    static void bind(PreparedStatement ps, Task task) throws SQLException {
+        ps.setInt(1, task.getCode());
+        ps.setString(2, task.getName());
+        ps.setInt(3, task.getStatus());
+        ps.setInt(4, task.getRepUser().getCode());
+    }
+
+    private static Task map(ResultSet rs) throws SQLException {
+        User repUser = new User(rs.getInt(4), rs.getString(5), rs.getString(6), rs.getString(7));
+        return new Task(rs.getInt(1), rs.getString(2), rs.getInt(3), repUser);
+    }
+}
@@ -0,0 +1,101 @@
+package com.taskapp.dataaccess;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.taskapp.model.User;
+
+/**
+ * ユーザーをH2データベースのusersテーブルから取得するUserRepositoryです。
+ * メールアドレスには一意の索引があるため、ログイン時に全件を読みません。
+ */
+public class H2UserDataAccess implements UserRepository {
+    private static final String SELECT = "SELECT code, name, email, password FROM users";
+
+    private final H2Database database;
+
+    /**
+     * @param database 接続を取得するデータベース
+     */
+    public H2UserDataAccess(H2Database database) {
+        this.database = database;
+    }
+
+    /**
+     * メールアドレスとパスワードを基にユーザーデータを探します。
+     *
+     * @param email メールアドレス
+     * @param password パスワード
+     * @return 見つかったユーザー
+     */
+    @Override
+    public User findByEmailAndPassword(String email, String password) {
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT + " WHERE email = ? AND password = ?")) {
+            ps.setString(1, email);
+            ps.setString(2, password);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("ユーザーデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * コードを基にユーザーデータを取得します。
+     *
+     * @param code 取得するユーザーのコード
+     * @return 見つかったユーザー
+     */
+    @Override
+    public User findByCode(int code) {
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT + " WHERE code = ?")) {
+            ps.setInt(1, code);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("ユーザーデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 全てのユーザーをコード順に取得します。
+     *
+     * @return ユーザーコードとユーザーのMap
+     */
+    @Override
+    public Map<Integer, User> findAllAsMap() {
+        Map<Integer, User> users = new LinkedHashMap<>();
+        try (Connection connection = database.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT + " ORDER BY code");
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                User user = map(rs);
+                users.put(user.getCode(), user);
+            }
+        } catch (SQLException e) {
+            System.err.println("ユーザーデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        return users;
+    }
+
+    static void bind(PreparedStatement ps, User user) throws SQLException {
+        ps.setInt(1, user.getCode());
+        ps.setString(2, user.getName());
+        ps.setString(3, user.getEmail());
+        ps.setString(4, user.getPassword());
+    }
+
+    private static User map(ResultSet rs) throws SQLException {
+        return new User(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    }
+}
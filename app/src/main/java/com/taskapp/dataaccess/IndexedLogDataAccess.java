@@ -0,0 +1,339 @@
+package com.taskapp.dataaccess;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import com.taskapp.model.Log;
+
+/**
+ * タスクコードからログの行位置を引く索引を持つLogDataAccessです。
+ * findByTaskCodeは該当する行だけを読み込みます。
+ * deleteByTaskCodeはファイルを書き直さず、削除の記録(トゥームストーン)を別ファイルに追記します。
+ * 削除済みの行は{@link #compact()}でまとめてファイルから取り除きます。
+ * 削除の記録やログファイルは他のインスタンスも追記・書き直しするため、使う前に変わっていないかを確認します。
+ */
+public class IndexedLogDataAccess extends LogDataAccess {
+    private final Path path;
+    private final String tombstonePath;
+    private final Map<Integer, Offsets> index = new HashMap<>();
+    // タスクコードごとの削除位置。この位置より前の行は削除済みとして扱う
+    private final Map<Integer, Long> tombstones = new HashMap<>();
+    // 索引に登録済みの位置(最後の改行の直後)
+    private long indexedLength;
+    // 索引を作成したファイルの識別子、最後に走査した時点の更新日時とサイズ、登録済みの部分の末尾の内容。書き直しの検出に使う
+    private String indexedFileKey;
+    private long indexedModified;
+    private long indexedSize;
+    private long indexedFingerprint;
+    // 読み込み済みの削除の記録の長さと、そのファイルの識別子
+    private long tombstoneLength;
+    private String tombstoneFileKey;
+
+    public IndexedLogDataAccess() {
+        super();
+        path = Paths.get(filePath);
+        tombstonePath = filePath + ".tombstones";
+    }
+
+    public IndexedLogDataAccess(String filePath) {
+        this(filePath, LogAppender.DurabilityMode.FLUSH_PER_RECORD);
+    }
+
+    public IndexedLogDataAccess(String filePath, LogAppender.DurabilityMode mode) {
+        super(filePath, mode);
+        path = Paths.get(filePath);
+        tombstonePath = filePath + ".tombstones";
+    }
+
+    // 削除したログも行に残し、墓標で読み飛ばすため
+    @Override
+    boolean isPlainCsv() {
+        return false;
+    }
+
+    /**
+     * 削除済みのものを除いた全てのログを取得します。
+     *
+     * @return すべてのログのリスト
+     */
+    @Override
+    public synchronized List<Log> findAll() {
+        flush();
+        refreshTombstones();
+        List<Log> logs = new ArrayList<>();
+        CsvLineParser parser = new CsvLineParser();
+        try {
+            LineScanner.scan(path, 0, Long.MAX_VALUE, true, (offset, line) -> {
+                // ヘッダー行の読み飛ばし
+                if (offset == 0) {
+                    return;
+                }
+                Log log = parseLine(offset, line, parser);
+                if (log != null && !isDeleted(log.getTaskCode(), offset)) {
+                    logs.add(log);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        malformedRows.summarize();
+        return logs;
+    }
+
+    /**
+     * 削除済みのものを除いた全てのログのストリームを取得します。
+     * 削除の記録がある場合は行位置との突き合わせのため、全件を読み込んでから返します。
+     *
+     * @return ログのストリーム
+     */
+    @Override
+    public synchronized Stream<Log> streamAll() {
+        refreshTombstones();
+        if (tombstones.isEmpty()) {
+            return super.streamAll();
+        }
+        return findAll().stream();
+    }
+
+    /**
+     * 指定したタスクコードのログを索引を使って取得します。
+     *
+     * @param taskCode 取得するログのタスクコード
+     * @return 該当するログのリスト
+     */
+    @Override
+    public synchronized List<Log> findByTaskCode(int taskCode) {
+        List<Log> logs = new ArrayList<>();
+        CsvLineParser parser = new CsvLineParser();
+        try {
+            ensureIndexed();
+            Offsets offsets = index.get(taskCode);
+            if (offsets != null) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    for (int i = 0; i < offsets.size; i++) {
+                        long offset = offsets.values[i];
+                        Log log = parseLine(offset, LineScanner.readLine(channel, offset), parser);
+                        if (log != null && log.getTaskCode() == taskCode) {
+                            logs.add(log);
+                        }
+                    }
+                }
+            }
+            // 改行で終わっていない最後の行は索引に含まれないため直接確認する
+            LineScanner.scan(path, indexedLength, Long.MAX_VALUE, true, (offset, line) -> {
+                if (offset == 0) {
+                    return;
+                }
+                Log log = parseLine(offset, line, parser);
+                if (log != null && log.getTaskCode() == taskCode && !isDeleted(taskCode, offset)) {
+                    logs.add(log);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        malformedRows.summarize();
+        return logs;
+    }
+
+    /**
+     * 指定したタスクコードのログを削除済みとして記録します。
+     * ログファイルは書き直しません。
+     *
+     * @param taskCode 削除するログのタスクコード
+     */
+    @Override
+    public synchronized void deleteByTaskCode(int taskCode) {
+        flush();
+        long cutoff;
+        try {
+            cutoff = Files.size(path);
+        } catch (IOException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+            return;
+        }
+        try (PrintWriter pw = new PrintWriter(new FileWriter(tombstonePath, true))) {
+            pw.println(taskCode + "," + cutoff);
+        } catch (IOException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+            return;
+        }
+        tombstones.merge(taskCode, cutoff, Math::max);
+        removeDeleted(taskCode);
+    }
+
+    /**
+     * 削除済みのログを取り除いてログファイルを書き直し、削除の記録を空にします。
+     */
+    public synchronized void compact() {
+        refreshTombstones();
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                writeAll(findAll());
+                Files.deleteIfExists(Paths.get(tombstonePath));
+            });
+        } catch (IOException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+            return;
+        }
+        tombstones.clear();
+        tombstoneLength = 0;
+        tombstoneFileKey = null;
+        clearIndex();
+    }
+
+    /**
+     * ログファイルに追記された行を索引に加えます。
+     * ファイルが書き直されていた場合は索引を作り直します。
+     */
+    private void ensureIndexed() throws IOException {
+        flush();
+        refreshTombstones();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String fileKey = LineScanner.fileKeyOf(attributes);
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (indexedLength > 0 && !indexedPartUnchanged(attributes.size(), modified, fileKey)) {
+            clearIndex();
+        }
+        indexedFileKey = fileKey;
+        indexedModified = modified;
+        indexedSize = attributes.size();
+        indexedLength = LineScanner.scan(path, indexedLength, Long.MAX_VALUE, false, (offset, line) -> {
+            if (offset == 0) {
+                return;
+            }
+            int comma = line.indexOf(',');
+            long taskCode = CsvLineParser.parseInt(line, 0, comma < 0 ? line.length() : comma);
+            if (taskCode != CsvLineParser.INVALID && !isDeleted((int) taskCode, offset)) {
+                index.computeIfAbsent((int) taskCode, k -> new Offsets()).add(offset);
+            }
+        });
+        indexedFingerprint = LineScanner.fingerprint(path, indexedLength);
+    }
+
+    /**
+     * 索引に登録済みの部分が、索引を作成した時点から変わっていないかを確認します。
+     * 一時ファイルからの置き換えはファイルの識別子で、その場での書き直しは
+     * サイズが同じまま更新日時が変わったことか、登録済みの部分の末尾の内容で検出します。
+     */
+    private boolean indexedPartUnchanged(long fileSize, long modified, String fileKey) throws IOException {
+        if (fileSize < indexedLength || !Objects.equals(fileKey, indexedFileKey)) {
+            return false;
+        }
+        if (fileSize == indexedSize && modified != indexedModified) {
+            return false;
+        }
+        return LineScanner.fingerprint(path, indexedLength) == indexedFingerprint;
+    }
+
+    private void clearIndex() {
+        index.clear();
+        indexedLength = 0;
+    }
+
+    /**
+     * 削除位置より前の行を索引から取り除きます。
+     */
+    private void removeDeleted(int taskCode) {
+        Offsets offsets = index.get(taskCode);
+        if (offsets == null) {
+            return;
+        }
+        offsets.removeBefore(tombstones.get(taskCode));
+        if (offsets.size == 0) {
+            index.remove(taskCode);
+        }
+    }
+
+    private boolean isDeleted(int taskCode, long offset) {
+        Long cutoff = tombstones.get(taskCode);
+        return cutoff != null && offset < cutoff;
+    }
+
+    /**
+     * 削除の記録に追記された行を読み込みます。
+     * 他のインスタンスの書き戻しで記録が空になっていた場合は、読み込み済みの記録と索引を破棄します。
+     */
+    private void refreshTombstones() {
+        Path tombstoneFile = Paths.get(tombstonePath);
+        try {
+            long size = 0;
+            String fileKey = null;
+            if (Files.exists(tombstoneFile)) {
+                BasicFileAttributes attributes = Files.readAttributes(tombstoneFile, BasicFileAttributes.class);
+                size = attributes.size();
+                fileKey = LineScanner.fileKeyOf(attributes);
+            }
+            if (tombstoneLength > 0 && (size < tombstoneLength || !Objects.equals(fileKey, tombstoneFileKey))) {
+                tombstones.clear();
+                tombstoneLength = 0;
+                clearIndex();
+            }
+            tombstoneFileKey = fileKey;
+            if (size == tombstoneLength) {
+                return;
+            }
+            CsvLineParser parser = new CsvLineParser();
+            tombstoneLength = LineScanner.scan(tombstoneFile, tombstoneLength, Long.MAX_VALUE, false, (offset, line) -> {
+                if (parser.parse(line) != 2) {
+                    return;
+                }
+                long taskCode = parser.intField(0);
+                long cutoff;
+                try {
+                    cutoff = Long.parseLong(parser.field(1));
+                } catch (NumberFormatException e) {
+                    return;
+                }
+                if (taskCode != CsvLineParser.INVALID) {
+                    tombstones.merge((int) taskCode, cutoff, Math::max);
+                    removeDeleted((int) taskCode);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 行位置を保持する伸長可能なlong配列です。
+     */
+    private static class Offsets {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+
+        void removeBefore(long cutoff) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (values[i] >= cutoff) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.taskapp.dataaccess;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.Log;
+
+/**
+ * ログの保存先の各処理の呼び出し回数と処理時間を{@link Metrics}に記録するLogRepositoryです。
+ * 処理は全てそのまま元の保存先に任せます。
+ */
+public class InstrumentedLogRepository implements LogRepository {
+    private static final OperationMetrics SAVE = Metrics.operation("LogRepository.save");
+    private static final OperationMetrics SAVE_ALL = Metrics.operation("LogRepository.saveAll");
+    private static final OperationMetrics FIND_ALL = Metrics.operation("LogRepository.findAll");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("LogRepository.streamAll");
+    private static final OperationMetrics FIND_BY_TASK_CODE = Metrics.operation("LogRepository.findByTaskCode");
+    private static final OperationMetrics DELETE_BY_TASK_CODE = Metrics.operation("LogRepository.deleteByTaskCode");
+    private static final OperationMetrics FLUSH = Metrics.operation("LogRepository.flush");
+
+    private final LogRepository delegate;
+
+    /**
+     * @param delegate 元の保存先
+     */
+    public InstrumentedLogRepository(LogRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void save(Log log) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(log);
+        } finally {
+            SAVE.record(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Log> logs) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(logs);
+        } finally {
+            SAVE_ALL.record(start);
+        }
+    }
+
+    @Override
+    public List<Log> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } finally {
+            FIND_ALL.record(start);
+        }
+    }
+
+    /**
+     * ストリームを取得します。処理時間はストリームを閉じた時点までを記録します。
+     */
+    @Override
+    public Stream<Log> streamAll() {
+        long start = System.nanoTime();
+        return delegate.streamAll().onClose(() -> STREAM_ALL.record(start));
+    }
+
+    @Override
+    public List<Log> findByTaskCode(int taskCode) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByTaskCode(taskCode);
+        } finally {
+            FIND_BY_TASK_CODE.record(start);
+        }
+    }
+
+    @Override
+    public void deleteByTaskCode(int taskCode) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteByTaskCode(taskCode);
+        } finally {
+            DELETE_BY_TASK_CODE.record(start);
+        }
+    }
+
+    @Override
+    public void flush() {
+        long start = System.nanoTime();
+        try {
+            delegate.flush();
+        } finally {
+            FLUSH.record(start);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.taskapp.dataaccess;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+
+/**
+ * タスクの保存先の各処理の呼び出し回数と処理時間を{@link Metrics}に記録するTaskRepositoryです。
+ * 処理は全てそのまま元の保存先に任せます。
+ */
+public class InstrumentedTaskRepository implements TaskRepository {
+    private static final OperationMetrics FIND_ALL = Metrics.operation("TaskRepository.findAll");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("TaskRepository.streamAll");
+    private static final OperationMetrics FIND_PAGE = Metrics.operation("TaskRepository.findPage");
+    private static final OperationMetrics FIND_BY_REP_USER = Metrics.operation("TaskRepository.findByRepUser");
+    private static final OperationMetrics FIND_BY_CODE = Metrics.operation("TaskRepository.findByCode");
+    private static final OperationMetrics SAVE = Metrics.operation("TaskRepository.save");
+    private static final OperationMetrics SAVE_ALL = Metrics.operation("TaskRepository.saveAll");
+    private static final OperationMetrics SAVE_ALL_IF_ABSENT = Metrics.operation("TaskRepository.saveAllIfAbsent");
+    private static final OperationMetrics UPDATE = Metrics.operation("TaskRepository.update");
+    private static final OperationMetrics UPDATE_ALL = Metrics.operation("TaskRepository.updateAll");
+
+    private final TaskRepository delegate;
+
+    /**
+     * @param delegate 元の保存先
+     */
+    public InstrumentedTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAll();
+        } finally {
+            FIND_ALL.record(start);
+        }
+    }
+
+    /**
+     * ストリームを取得します。処理時間はストリームを閉じた時点までを記録します。
+     */
+    @Override
+    public Stream<Task> streamAll() {
+        long start = System.nanoTime();
+        return delegate.streamAll().onClose(() -> STREAM_ALL.record(start));
+    }
+
+    @Override
+    public TaskPage findPage(TaskQuery query) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findPage(query);
+        } finally {
+            FIND_PAGE.record(start);
+        }
+    }
+
+    @Override
+    public List<Task> findByRepUser(int userCode) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByRepUser(userCode);
+        } finally {
+            FIND_BY_REP_USER.record(start);
+        }
+    }
+
+    @Override
+    public Task findByCode(int code) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByCode(code);
+        } finally {
+            FIND_BY_CODE.record(start);
+        }
+    }
+
+    @Override
+    public void save(Task task) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(task);
+        } finally {
+            SAVE.record(start);
+        }
+    }
+
+    @Override
+    public void saveAll(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAll(tasks);
+        } finally {
+            SAVE_ALL.record(start);
+        }
+    }
+
+    @Override
+    public void saveAllIfAbsent(List<Task> tasks) throws AppException {
+        long start = System.nanoTime();
+        try {
+            delegate.saveAllIfAbsent(tasks);
+        } finally {
+            SAVE_ALL_IF_ABSENT.record(start);
+        }
+    }
+
+    @Override
+    public void update(Task updateTask) {
+        long start = System.nanoTime();
+        try {
+            delegate.update(updateTask);
+        } finally {
+            UPDATE.record(start);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Task> updateTasks) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateAll(updateTasks);
+        } finally {
+            UPDATE_ALL.record(start);
+        }
+    }
+
+    @Override
+    public UpdateLock lockForUpdate() throws AppException {
+        return delegate.lockForUpdate();
+    }
+}
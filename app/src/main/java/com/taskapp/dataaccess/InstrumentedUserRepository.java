@@ -0,0 +1,57 @@
+package com.taskapp.dataaccess;
+
+import java.util.Map;
+
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.User;
+
+/**
+ * ユーザーの保存先の各処理の呼び出し回数と処理時間を{@link Metrics}に記録するUserRepositoryです。
+ * 処理は全てそのまま元の保存先に任せます。
+ */
+public class InstrumentedUserRepository implements UserRepository {
+    private static final OperationMetrics FIND_BY_EMAIL_AND_PASSWORD =
+            Metrics.operation("UserRepository.findByEmailAndPassword");
+    private static final OperationMetrics FIND_BY_CODE = Metrics.operation("UserRepository.findByCode");
+    private static final OperationMetrics FIND_ALL_AS_MAP = Metrics.operation("UserRepository.findAllAsMap");
+
+    private final UserRepository delegate;
+
+    /**
+     * @param delegate 元の保存先
+     */
+    public InstrumentedUserRepository(UserRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User findByEmailAndPassword(String email, String password) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByEmailAndPassword(email, password);
+        } finally {
+            FIND_BY_EMAIL_AND_PASSWORD.record(start);
+        }
+    }
+
+    @Override
+    public User findByCode(int code) {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByCode(code);
+        } finally {
+            FIND_BY_CODE.record(start);
+        }
+    }
+
+    @Override
+    public Map<Integer, User> findAllAsMap() {
+        long start = System.nanoTime();
+        try {
+            return delegate.findAllAsMap();
+        } finally {
+            FIND_ALL_AS_MAP.record(start);
+        }
+    }
+}
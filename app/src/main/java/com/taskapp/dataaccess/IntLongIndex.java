@@ -0,0 +1,120 @@
+package com.taskapp.dataaccess;
+
+import java.util.Arrays;
+
+/**
+ * intのキーからlongの値を引くための、ボクシングを行わないハッシュ表です。
+ * 値には0以上の数(ファイル上の位置など)を格納し、見つからない場合は-1を返します。
+ */
+class IntLongIndex {
+    private static final long EMPTY = -1;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    IntLongIndex() {
+        this(16);
+    }
+
+    IntLongIndex(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, EMPTY);
+    }
+
+    /**
+     * キーに対応する値を取得します。
+     *
+     * @param key キー
+     * @return 値、登録されていなければ-1
+     */
+    long get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == EMPTY) {
+                return EMPTY;
+            }
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+    }
+
+    /**
+     * キーがまだ登録されていなければ値を登録します。
+     *
+     * @param key キー
+     * @param value 0以上の値
+     * @return 登録した場合はtrue
+     */
+    boolean putIfAbsent(int key, long value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * キーに値を登録します。既に登録されていれば上書きします。
+     *
+     * @param key キー
+     * @param value 0以上の値
+     */
+    void put(int key, long value) {
+        put(key, value, true);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    private boolean put(int key, long value, boolean overwrite) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative: " + value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return true;
+            }
+            if (keys[i] == key) {
+                if (overwrite) {
+                    values[i] = value;
+                }
+                return overwrite;
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(values, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i], true);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
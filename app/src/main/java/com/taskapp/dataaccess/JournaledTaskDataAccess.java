@@ -0,0 +1,303 @@
+package com.taskapp.dataaccess;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * タスクの更新をジャーナルファイルへの追記で記録するTaskDataAccessです。
+ * 読み込み時はtasks.csvにジャーナルの内容を重ねて返し、
+ * ジャーナルが一定の件数かサイズを超えたらtasks.csvへまとめて書き戻します。
+ * ジャーナルは他のインスタンスやプロセスも追記・書き戻しするため、
+ * 読み込みや書き戻しの要否はファイルロック中にジャーナルファイルを見て判断します。
+ */
+public class JournaledTaskDataAccess extends TaskDataAccess {
+    public static final int DEFAULT_MAX_RECORDS = 1000;
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+    private static final IoMetrics JOURNAL_IO = Metrics.io("tasks.journal");
+
+    private final String journalPath;
+    private final int maxRecords;
+    private final long maxBytes;
+    // 最後に確認したジャーナルファイルの件数とサイズ。サイズが変わっていれば数え直す
+    private int journalRecords;
+    private long journalBytes;
+
+    public JournaledTaskDataAccess() {
+        super();
+        journalPath = filePath + ".journal";
+        maxRecords = DEFAULT_MAX_RECORDS;
+        maxBytes = DEFAULT_MAX_BYTES;
+    }
+
+    public JournaledTaskDataAccess(String filePath, UserRepository userDataAccess) {
+        this(filePath, userDataAccess, DEFAULT_MAX_RECORDS, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param filePath タスクファイルのパス
+     * @param userDataAccess ユーザーの取得に使うUserRepository
+     * @param maxRecords 書き戻しを行うジャーナルの件数
+     * @param maxBytes 書き戻しを行うジャーナルのバイト数
+     */
+    public JournaledTaskDataAccess(String filePath, UserRepository userDataAccess, int maxRecords, long maxBytes) {
+        super(filePath, userDataAccess);
+        this.journalPath = filePath + ".journal";
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * tasks.csvにジャーナルの更新を重ねた全てのタスクを取得します。
+     *
+     * @return タスクのリスト
+     */
+    @Override
+    public synchronized List<Task> findAll() {
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        Map<Integer, Task> tasks = new LinkedHashMap<>();
+        try {
+            // 書き戻しの途中のtasks.csvとジャーナルを組み合わせないよう、ロック中に両方を読み込む
+            FileWriteLock.of(filePath).run(() -> {
+                readInto(filePath, users, tasks, true);
+                if (Files.exists(Paths.get(journalPath))) {
+                    readInto(journalPath, users, tasks, false);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        malformedRows.summarize();
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * ジャーナルを重ねた全てのタスクのストリームを取得します。
+     * ジャーナルとの突き合わせのため、全件を読み込んでから返します。
+     *
+     * @return タスクのストリーム
+     */
+    @Override
+    public Stream<Task> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * コードを基にタスクデータを1件取得します。
+     * ジャーナルの更新を反映するため、CSVの索引は使わずに全てのタスクから探します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク、見つからなければnull
+     */
+    @Override
+    public Task findByCode(int code) {
+        return scanByCode(code);
+    }
+
+    /**
+     * 指定したユーザーが担当しているタスクをコード順に取得します。
+     * ジャーナルの更新を反映するため、CSVの索引は使わずに全てのタスクから探します。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    @Override
+    public List<Task> findByRepUser(int userCode) {
+        return scanByRepUser(userCode);
+    }
+
+    /**
+     * タスクをCSVに保存します。
+     *
+     * @param task 保存するタスク
+     */
+    @Override
+    public synchronized void save(Task task) {
+        super.save(task);
+    }
+
+    /**
+     * 複数のタスクをCSVに保存します。
+     *
+     * @param tasks 保存するタスク
+     */
+    @Override
+    public synchronized void saveAll(List<Task> tasks) {
+        super.saveAll(tasks);
+    }
+
+    /**
+     * 既に使われているコードがないことを確認してから、複数のタスクをCSVに保存します。
+     *
+     * @param tasks 保存するタスク
+     * @throws AppException 既に使われているコードがある場合、または保存に失敗した場合
+     */
+    @Override
+    public synchronized void saveAllIfAbsent(List<Task> tasks) throws AppException {
+        super.saveAllIfAbsent(tasks);
+    }
+
+    /**
+     * タスクの更新をジャーナルに追記します。
+     * 件数かサイズが上限に達した場合はtasks.csvへ書き戻します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    @Override
+    public synchronized void update(Task updateTask) {
+        String line = createLine(updateTask);
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                syncJournalState();
+                try (PrintWriter pw = new PrintWriter(new FileWriter(journalPath, true))) {
+                    pw.println(line);
+                }
+                JOURNAL_IO.written(line);
+                appended(1);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 複数のタスクの更新をまとめてジャーナルに追記します。
+     * 件数かサイズが上限に達した場合はtasks.csvへ書き戻します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    @Override
+    public synchronized void updateAll(Collection<Task> updateTasks) {
+        if (updateTasks.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (Task updateTask : updateTasks) {
+            String line = createLine(updateTask);
+            lines.append(line).append(System.lineSeparator());
+            JOURNAL_IO.written(line);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                syncJournalState();
+                try (FileWriter writer = new FileWriter(journalPath, true)) {
+                    writer.write(lines.toString());
+                }
+                appended(updateTasks.size());
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * ジャーナルの内容をtasks.csvへ書き戻し、ジャーナルを空にします。
+     */
+    public synchronized void compact() {
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                syncJournalState();
+                if (journalRecords > 0) {
+                    compactLocked();
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 未書き戻しのジャーナルの件数を取得します。
+     *
+     * @return ジャーナルの件数
+     */
+    public synchronized int getJournalRecords() {
+        try {
+            FileWriteLock.of(filePath).run(this::syncJournalState);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return journalRecords;
+    }
+
+    /**
+     * 追記した件数を加え、上限に達していればtasks.csvへ書き戻します。ロック中に呼び出してください。
+     */
+    private void appended(int records) throws IOException {
+        journalRecords += records;
+        journalBytes = Files.size(Paths.get(journalPath));
+        if (journalRecords >= maxRecords || journalBytes >= maxBytes) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        writeAll(findAll());
+        Files.deleteIfExists(Paths.get(journalPath));
+        journalRecords = 0;
+        journalBytes = 0;
+    }
+
+    /**
+     * ファイルを読み込み、タスクをコードごとにマップへ反映します。
+     * ジャーナルの場合は既存のタスクのみを上書きします。
+     */
+    private void readInto(String path, Map<Integer, User> users, Map<Integer, Task> tasks, boolean hasHeader) {
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            if (hasHeader) {
+                br.readLine(); // ヘッダー行をスキップ
+            }
+            while ((line = br.readLine()) != null) {
+                Task task = parseLine(line, users::get);
+                if (task == null) {
+                    continue;
+                }
+                if (hasHeader || tasks.containsKey(task.getCode())) {
+                    tasks.put(task.getCode(), task);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ジャーナルファイルの件数とサイズを確認します。ロック中に呼び出してください。
+     * 他のインスタンスやプロセスの追記・書き戻しでサイズが変わっている場合だけ、件数を数え直します。
+     */
+    private void syncJournalState() throws IOException {
+        Path path = Paths.get(journalPath);
+        long size = Files.exists(path) ? Files.size(path) : 0;
+        if (size == journalBytes) {
+            return;
+        }
+        int records = 0;
+        if (size > 0) {
+            try (BufferedReader br = new BufferedReader(new FileReader(journalPath))) {
+                while (br.readLine() != null) {
+                    records++;
+                }
+            }
+        }
+        journalRecords = records;
+        journalBytes = size;
+    }
+}
@@ -0,0 +1,316 @@
+package com.taskapp.dataaccess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * ファイルを行単位で読み込み、各行の先頭のバイト位置と一緒に渡すクラスです。
+ * 改行はLFとCRLFのどちらにも対応します。
+ */
+final class LineScanner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 書き換えの検出に使う、読み込み済みの位置の直前のバイト数
+    private static final int FINGERPRINT_BYTES = 64;
+
+    /**
+     * 行を受け取るコールバックです。
+     */
+    @FunctionalInterface
+    interface LineVisitor {
+        /**
+         * @param offset 行の先頭のバイト位置
+         * @param line 改行を除いた行
+         */
+        void line(long offset, String line);
+    }
+
+    /**
+     * 行を変換する関数です。
+     */
+    @FunctionalInterface
+    interface LineParser<T> {
+        /**
+         * @param offset 行の先頭のバイト位置
+         * @param line 改行を除いた行
+         * @return 変換結果、読み飛ばす行の場合はnull
+         */
+        T parse(long offset, String line);
+    }
+
+    private LineScanner() {
+    }
+
+    /**
+     * ファイルの行を読み込みながら変換するストリームを作成します。
+     * 行は要素を取り出す時点で読み込まれ、変換結果がnullの行は含めません。
+     * ストリームを閉じるとファイルも閉じます。
+     *
+     * @param path 対象のファイル
+     * @param skipHeader 先頭の行を読み飛ばす場合はtrue
+     * @param parser 行を変換する関数
+     * @return 変換結果のストリーム
+     */
+    static <T> Stream<T> stream(Path path, boolean skipHeader, LineParser<T> parser) throws IOException {
+        Cursor cursor = new Cursor(path, 0, Long.MAX_VALUE);
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    while (cursor.next()) {
+                        if (skipHeader && cursor.offset() == 0) {
+                            continue;
+                        }
+                        T value = parser.parse(cursor.offset(), cursor.line());
+                        if (value != null) {
+                            action.accept(value);
+                            return true;
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 指定した位置から末尾までの行を読み込みます。
+     *
+     * @param path 対象のファイル
+     * @param from 読み込みを始めるバイト位置(行の先頭であること)
+     * @param to 読み込みを終えるバイト位置(この位置は含まない)
+     * @param includePartial 改行で終わっていない最後の行も渡す場合はtrue
+     * @param visitor 行を受け取るコールバック
+     * @return 最後に読み込んだ改行の直後の位置
+     */
+    static long scan(Path path, long from, long to, boolean includePartial, LineVisitor visitor) throws IOException {
+        try (Cursor cursor = new Cursor(path, from, to)) {
+            while (cursor.next()) {
+                if (includePartial || !cursor.isPartial()) {
+                    visitor.line(cursor.offset(), cursor.line());
+                }
+            }
+            return cursor.lineEnd();
+        }
+    }
+
+    /**
+     * ファイルの行を1行ずつ取り出すカーソルです。
+     * コールバックではなく呼び出し側の都合で読み進める場合(ストリームなど)に使います。
+     */
+    static final class Cursor implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final byte[] data = buffer.array();
+        private final long end;
+        private byte[] bytes = new byte[256];
+        // バッファの先頭のファイル上の位置と、バッファ内の読み込み位置・終わり
+        private long bufferStart;
+        private int index;
+        private int limit;
+        private long lineEnd;
+        private long offset;
+        private String line;
+        private boolean partial;
+
+        /**
+         * @param path 対象のファイル
+         * @param from 読み込みを始めるバイト位置(行の先頭であること)
+         * @param to 読み込みを終えるバイト位置(この位置は含まない)
+         */
+        Cursor(Path path, long from, long to) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            end = Math.min(to, channel.size());
+            bufferStart = from;
+            lineEnd = from;
+        }
+
+        /**
+         * 次の行へ進みます。改行で終わっていない最後の行も返します。
+         *
+         * @return 行があればtrue
+         */
+        boolean next() throws IOException {
+            if (partial) {
+                return false;
+            }
+            int length = 0;
+            while (true) {
+                if (index == limit && !fill()) {
+                    if (length == 0) {
+                        return false;
+                    }
+                    offset = lineEnd;
+                    line = decode(bytes, length);
+                    partial = true;
+                    return true;
+                }
+                int i = index;
+                while (i < limit && data[i] != '\n') {
+                    i++;
+                }
+                int chunk = i - index;
+                if (length + chunk > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + chunk));
+                }
+                System.arraycopy(data, index, bytes, length, chunk);
+                length += chunk;
+                if (i < limit) {
+                    index = i + 1;
+                    offset = lineEnd;
+                    line = decode(bytes, length);
+                    lineEnd = bufferStart + index;
+                    return true;
+                }
+                index = i;
+            }
+        }
+
+        /**
+         * @return 現在の行の先頭のバイト位置
+         */
+        long offset() {
+            return offset;
+        }
+
+        /**
+         * @return 改行を除いた現在の行
+         */
+        String line() {
+            return line;
+        }
+
+        /**
+         * @return 現在の行が改行で終わっていない最後の行ならtrue
+         */
+        boolean isPartial() {
+            return partial;
+        }
+
+        /**
+         * @return 最後に読み込んだ改行の直後の位置
+         */
+        long lineEnd() {
+            return lineEnd;
+        }
+
+        private boolean fill() throws IOException {
+            long position = bufferStart + limit;
+            if (position >= end) {
+                return false;
+            }
+            buffer.clear();
+            if (end - position < buffer.capacity()) {
+                buffer.limit((int) (end - position));
+            }
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return false;
+            }
+            bufferStart = position;
+            index = 0;
+            limit = read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * 指定した位置から1行だけ読み込みます。
+     *
+     * @param channel 対象のファイル
+     * @param offset 行の先頭のバイト位置
+     * @return 改行を除いた行
+     */
+    static String readLine(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        byte[] line = new byte[128];
+        int lineLength = 0;
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return decode(line, lineLength);
+                }
+                if (lineLength == line.length) {
+                    line = Arrays.copyOf(line, line.length * 2);
+                }
+                line[lineLength++] = b;
+            }
+            position += read;
+        }
+        return decode(line, lineLength);
+    }
+
+    /**
+     * 指定した位置の直前の内容から、読み込み済みの部分の書き換えの検出に使う値を求めます。
+     * 読み込んだ位置より後に追記されただけであれば、値は変わりません。
+     *
+     * @param path 対象のファイル
+     * @param length 読み込み済みの位置
+     * @return 位置の直前の内容のCRC
+     */
+    static long fingerprint(Path path, long length) throws IOException {
+        int bytes = (int) Math.min(FINGERPRINT_BYTES, length);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, length - bytes + buffer.position()) > 0) {
+                // 全て読み込むまで繰り返す
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+
+    /**
+     * ファイルの識別子を文字列で取得します。一時ファイルからの置き換えで書き直されると値が変わります。
+     *
+     * @param attributes ファイルの属性
+     * @return ファイルの識別子、識別子のないファイルシステムではnull
+     */
+    static String fileKeyOf(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return fileKey == null ? null : fileKey.toString();
+    }
+
+    private static String decode(byte[] bytes, int length) {
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,364 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.taskapp.model.Log;
+
+/**
+ * logs.csvのステータス変更履歴を集計するクラスです。
+ * タスクごとのサイクルタイム(登録から完了までの日数)、ユーザーごとの日別の完了件数、
+ * 日別の着手中のタスク件数を求めます。
+ *
+ * 集計結果はメモリ上に保持し、問い合わせのたびに前回読み込んだ位置より後に追記された行だけを読み込みます。
+ * 読み込んだ位置と集計結果は一定量ごとに{@code <logs.csv>.analytics}へ書き出し、次回の起動時はその続きから読み込みます。
+ * ログファイルが書き直されていた場合(サイズの減少、読み込み済みの末尾の内容の変化)は最初から集計し直します。
+ * 書き出す集計結果はタスクごとの状態(現在のステータス、登録日、最後の変更日、初めて完了した日とユーザー)と
+ * 日別の着手中の件数の増減だけで、ステータス変更の履歴は持ちません。
+ * そのため、前の行より古い日付のログは登録日と完了日の補正にだけ使い、着手中の件数は日付順に届いたログの遷移から数えます。
+ *
+ * 集計できるのはCSV形式のログ(taskapp.log.storage=csv)を扱う{@link LogDataAccess}だけです。
+ * indexedは削除済みのログを行に残したまま読み飛ばし、binaryとh2はCSVのファイルを持たないため、
+ * これらの保存形式では{@link #forRepository}がnullを返します。
+ */
+public class LogAnalytics {
+    // 前回の書き出しからこのバイト数以上を読み込んだら集計結果を書き出す
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 1024 * 1024;
+    private static final int MAGIC = 0x4C4F4733; // "LOG3"
+    // 1タスクの状態の書き出しのバイト数(コード、ステータス、登録日、最後の変更日、完了日、完了したユーザー)
+    private static final int TASK_STATE_BYTES = 4 + 1 + 8 + 8 + 8 + 4;
+
+    private final LogDataAccess logDataAccess;
+    private final Path path;
+    private final Path checkpointPath;
+    private final long checkpointInterval;
+
+    private final Map<Integer, TaskState> states = new HashMap<>();
+    // ユーザーコード → 日付(エポック日) → 完了件数
+    private final Map<Integer, NavigableMap<Long, Integer>> completions = new HashMap<>();
+    // 日付(エポック日) → その日の着手中の件数の増減
+    private final NavigableMap<Long, Integer> wipDeltas = new TreeMap<>();
+    // 完了したタスクの件数とサイクルタイムの合計(平均を全件の走査なしで求めるため)
+    private int completedCount;
+    private long totalCycleDays;
+    // 読み込み済みの位置(最後の改行の直後)
+    private long processedLength;
+    // 読み込み済みの位置の直前の内容のCRC(書き直しの検出に使う)
+    private long fingerprint;
+    private long checkpointedLength;
+
+    /**
+     * ログの保存先を集計するLogAnalyticsを作成します。
+     *
+     * @param logs ログの保存先
+     * @return 作成したLogAnalytics。CSV形式のログでない場合はnull
+     */
+    public static LogAnalytics forRepository(LogRepository logs) {
+        return isSupported(logs) ? new LogAnalytics((LogDataAccess) logs) : null;
+    }
+
+    private static boolean isSupported(LogRepository logs) {
+        return logs instanceof LogDataAccess && ((LogDataAccess) logs).isPlainCsv();
+    }
+
+    /**
+     * @param logDataAccess 集計するログ。読み込む前にためているログを書き込みます
+     */
+    public LogAnalytics(LogDataAccess logDataAccess) {
+        this(logDataAccess, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param logDataAccess 集計するログ。読み込む前にためているログを書き込みます
+     * @param checkpointInterval 集計結果を書き出す間隔(読み込んだバイト数)
+     * @throws IllegalArgumentException CSV形式のログでない場合
+     */
+    public LogAnalytics(LogDataAccess logDataAccess, long checkpointInterval) {
+        if (!isSupported(logDataAccess)) {
+            throw new IllegalArgumentException("ログの集計はCSV形式のログでのみ利用できます: "
+                    + logDataAccess.filePath);
+        }
+        this.logDataAccess = logDataAccess;
+        this.path = Paths.get(logDataAccess.filePath);
+        this.checkpointPath = Paths.get(logDataAccess.filePath + ".analytics");
+        this.checkpointInterval = checkpointInterval;
+        loadCheckpoint();
+    }
+
+    /**
+     * 前回読み込んだ位置より後に追記されたログを集計に加えます。
+     * 問い合わせの各メソッドは最初にこのメソッドを呼び出します。
+     */
+    public synchronized void refresh() {
+        logDataAccess.flush();
+        try {
+            if (!matchesFile()) {
+                reset();
+            }
+            CsvLineParser parser = new CsvLineParser();
+            long previousLength = processedLength;
+            processedLength = LineScanner.scan(path, processedLength, Long.MAX_VALUE, false, (offset, line) -> {
+                // ヘッダー行の読み飛ばし
+                if (offset == 0) {
+                    return;
+                }
+                Log log = logDataAccess.parseLine(offset, line, parser);
+                if (log != null) {
+                    apply(log);
+                }
+            });
+            if (processedLength != previousLength) {
+                fingerprint = LineScanner.fingerprint(path, processedLength);
+            }
+            logDataAccess.malformedRows.summarize();
+        } catch (NoSuchFileException e) {
+            reset();
+            return;
+        } catch (IOException e) {
+            System.err.println("ログデータの集計中にエラーが発生しました: " + e.getMessage());
+            return;
+        }
+        if (processedLength - checkpointedLength >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * タスクのサイクルタイムを取得します。
+     * 最初のログ(登録)の日付から、初めて完了になった日付までの日数です。
+     *
+     * @param taskCode タスクコード
+     * @return 日数。完了していない場合やログがない場合は-1
+     */
+    public synchronized long getCycleTimeDays(int taskCode) {
+        refresh();
+        TaskState state = states.get(taskCode);
+        if (state == null || !state.isDone()) {
+            return -1;
+        }
+        return state.doneDay - state.startDay;
+    }
+
+    /**
+     * 完了したタスクのサイクルタイムの平均を取得します。
+     *
+     * @return 平均の日数。完了したタスクがない場合は0
+     */
+    public synchronized double getAverageCycleTimeDays() {
+        refresh();
+        return completedCount == 0 ? 0 : (double) totalCycleDays / completedCount;
+    }
+
+    /**
+     * ユーザーが日ごとに完了させたタスクの件数を取得します。
+     *
+     * @param userCode ステータスを変更したユーザーのコード
+     * @return 日付と完了件数。完了させた日のみを含みます
+     */
+    public synchronized NavigableMap<LocalDate, Integer> getCompletionsPerDay(int userCode) {
+        refresh();
+        NavigableMap<LocalDate, Integer> result = new TreeMap<>();
+        NavigableMap<Long, Integer> perDay = completions.get(userCode);
+        if (perDay != null) {
+            perDay.forEach((day, count) -> result.put(LocalDate.ofEpochDay(day), count));
+        }
+        return result;
+    }
+
+    /**
+     * 日ごとの、その日の終わりに着手中だったタスクの件数を取得します。
+     *
+     * @return 日付と着手中の件数。件数が変わった日のみを含みます
+     */
+    public synchronized NavigableMap<LocalDate, Integer> getWorkInProgressPerDay() {
+        refresh();
+        NavigableMap<LocalDate, Integer> result = new TreeMap<>();
+        int wip = 0;
+        for (Map.Entry<Long, Integer> entry : wipDeltas.entrySet()) {
+            wip += entry.getValue();
+            result.put(LocalDate.ofEpochDay(entry.getKey()), wip);
+        }
+        return result;
+    }
+
+    /**
+     * 読み込み済みの位置を取得します。
+     *
+     * @return 最後に集計した行の直後のバイト位置
+     */
+    public synchronized long getProcessedLength() {
+        return processedLength;
+    }
+
+    /**
+     * 読み込んだ位置と集計結果をファイルに書き出します。
+     */
+    public synchronized void checkpoint() {
+        try {
+            ByteBuffer buffer = BinaryFiles.header(MAGIC, 8 + 8 + 4 + states.size() * TASK_STATE_BYTES
+                    + 4 + wipDeltas.size() * (8 + 4));
+            buffer.putLong(processedLength).putLong(fingerprint);
+            buffer.putInt(states.size());
+            states.forEach((code, state) -> buffer.putInt(code).put((byte) state.status)
+                    .putLong(state.startDay).putLong(state.lastDay).putLong(state.doneDay).putInt(state.doneUser));
+            buffer.putInt(wipDeltas.size());
+            wipDeltas.forEach((day, delta) -> buffer.putLong(day).putInt(delta));
+            BinaryFiles.replace(checkpointPath, buffer.flip());
+            checkpointedLength = processedLength;
+        } catch (IOException e) {
+            System.err.println("ログデータの集計結果の保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 1件のログを集計に加えます。
+     * 日付順に届いたログは直前のステータスからの変化を数えます。
+     * 前の行より古い日付のログは、登録日を早めるか、より早い完了として完了日を移すことにだけ使います。
+     */
+    private void apply(Log log) {
+        int status = log.getStatus();
+        if (status < 0 || status > 2) {
+            return;
+        }
+        long day = log.getChangeDate().toEpochDay();
+        int userCode = log.getChangeUserCode();
+        TaskState state = states.computeIfAbsent(log.getTaskCode(), k -> new TaskState(day));
+        if (day >= state.lastDay) {
+            countTransition(state.status, status, day);
+            state.status = status;
+            state.lastDay = day;
+            if (status == 2 && !state.isDone()) {
+                state.doneDay = day;
+                state.doneUser = userCode;
+                countCompletion(state, 1);
+            }
+            return;
+        }
+        boolean earlierDone = status == 2 && (!state.isDone() || day < state.doneDay);
+        if (day >= state.startDay && !earlierDone) {
+            return;
+        }
+        if (state.isDone()) {
+            countCompletion(state, -1);
+        }
+        state.startDay = Math.min(state.startDay, day);
+        if (earlierDone) {
+            state.doneDay = day;
+            state.doneUser = userCode;
+        }
+        countCompletion(state, 1);
+    }
+
+    private void countTransition(int previous, int status, long day) {
+        if (previous != 1 && status == 1) {
+            adjust(wipDeltas, day, 1);
+        } else if (previous == 1 && status != 1) {
+            adjust(wipDeltas, day, -1);
+        }
+    }
+
+    private void countCompletion(TaskState state, int sign) {
+        completedCount += sign;
+        totalCycleDays += sign * (state.doneDay - state.startDay);
+        NavigableMap<Long, Integer> perDay = completions.computeIfAbsent(state.doneUser, k -> new TreeMap<>());
+        adjust(perDay, state.doneDay, sign);
+        if (perDay.isEmpty()) {
+            completions.remove(state.doneUser);
+        }
+    }
+
+    // 件数が0になった日は取り除く
+    private static void adjust(NavigableMap<Long, Integer> perDay, long day, int delta) {
+        perDay.merge(day, delta, (current, added) -> current + added == 0 ? null : current + added);
+    }
+
+    private void reset() {
+        states.clear();
+        completions.clear();
+        wipDeltas.clear();
+        completedCount = 0;
+        totalCycleDays = 0;
+        processedLength = 0;
+        fingerprint = 0;
+        checkpointedLength = 0;
+    }
+
+    /**
+     * 読み込み済みの部分が前回から変わっていないかを確認します。
+     */
+    private boolean matchesFile() throws IOException {
+        if (processedLength == 0) {
+            return true;
+        }
+        return Files.size(path) >= processedLength && LineScanner.fingerprint(path, processedLength) == fingerprint;
+    }
+
+    /**
+     * 書き出した集計結果を読み込みます。読み込めない場合は最初から集計します。
+     */
+    private void loadCheckpoint() {
+        if (!Files.exists(checkpointPath)) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = BinaryFiles.readBody(checkpointPath, MAGIC);
+            processedLength = buffer.getLong();
+            fingerprint = buffer.getLong();
+            int taskCount = buffer.getInt();
+            for (int i = 0; i < taskCount; i++) {
+                int code = buffer.getInt();
+                TaskState state = new TaskState(0);
+                state.status = buffer.get();
+                state.startDay = buffer.getLong();
+                state.lastDay = buffer.getLong();
+                state.doneDay = buffer.getLong();
+                state.doneUser = buffer.getInt();
+                states.put(code, state);
+                if (state.isDone()) {
+                    countCompletion(state, 1);
+                }
+            }
+            int dayCount = buffer.getInt();
+            for (int i = 0; i < dayCount; i++) {
+                wipDeltas.put(buffer.getLong(), buffer.getInt());
+            }
+            checkpointedLength = processedLength;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("ログデータの集計結果の読み込み中にエラーが発生しました: " + e.getMessage());
+            reset();
+        }
+    }
+
+    /**
+     * 集計に使うタスクごとの状態です。
+     */
+    private static class TaskState {
+        private static final long NOT_DONE = Long.MIN_VALUE;
+
+        // 日付が最も新しいログのステータス(同じ日付はファイル上の順で後のもの)。ログがまだない場合は-1
+        private int status = -1;
+        private long startDay;
+        private long lastDay;
+        // 初めて完了になった日と、完了にしたユーザー
+        private long doneDay = NOT_DONE;
+        private int doneUser;
+
+        TaskState(long day) {
+            this.startDay = day;
+            this.lastDay = day;
+        }
+
+        boolean isDone() {
+            return doneDay != NOT_DONE;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.taskapp.dataaccess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ログファイルを開いたまま行を追記するクラスです。
+ * 書き込みのタイミングと同期(fsync)の頻度は{@link DurabilityMode}で選択します。
+ * LogDataAccessは{@link #shared}でファイルごとに1つのインスタンスを共有し、
+ * ファイルのハンドルや書き込み用のスレッドがインスタンスの数だけ増えないようにします。
+ * 別のプロセスなどによるファイルの置き換えは、一定時間ごとにファイルの識別子を比べて検出します。
+ */
+public final class LogAppender implements Closeable {
+    public static final int DEFAULT_MAX_BATCH_RECORDS = 1024;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 100;
+    // 開いているファイルが置き換えられていないかを確認する間隔
+    private static final long FILE_KEY_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // ファイルごとに共有しているインスタンス
+    private static final Map<Path, LogAppender> SHARED = new HashMap<>();
+
+    /**
+     * 追記した行をいつディスクへ反映するかの設定です。
+     */
+    public enum DurabilityMode {
+        /** 1行ごとにファイルへ書き込みます。fsyncは行いません。 */
+        FLUSH_PER_RECORD,
+        /** 件数か時間の上限までメモリにため、まとめて書き込んでfsyncします。 */
+        GROUP_COMMIT,
+        /** 1行ごとにファイルへ書き込み、fsyncは一定時間ごとに行います。 */
+        PERIODIC_FSYNC
+    }
+
+    private final String filePath;
+    private final DurabilityMode mode;
+    private final int maxBatchRecords;
+    private final StringBuilder pending = new StringBuilder();
+    private final ScheduledExecutorService scheduler;
+    private final Thread shutdownHook;
+    private FileChannel channel;
+    // 開いているファイルの識別子(i-node番号など)と、最後に確認した時刻
+    private Object fileKey;
+    private long fileKeyCheckedNanos;
+    private int pendingRecords;
+    private boolean unsynced;
+    private boolean closed;
+    // 共有している場合のキーと、closeされていない利用者の数(SHAREDで同期する)
+    private Path sharedPath;
+    private int references;
+
+    public LogAppender(String filePath, DurabilityMode mode) {
+        this(filePath, mode, DEFAULT_MAX_BATCH_RECORDS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param filePath 追記するファイルのパス
+     * @param mode 書き込みとfsyncのタイミング
+     * @param maxBatchRecords GROUP_COMMITでまとめて書き込む件数
+     * @param maxDelayMillis GROUP_COMMITとPERIODIC_FSYNCで書き込み・fsyncを行う間隔(ミリ秒)
+     */
+    public LogAppender(String filePath, DurabilityMode mode, int maxBatchRecords, long maxDelayMillis) {
+        this.filePath = filePath;
+        this.mode = mode;
+        this.maxBatchRecords = maxBatchRecords;
+        if (mode == DurabilityMode.FLUSH_PER_RECORD) {
+            scheduler = null;
+            shutdownHook = null;
+        } else {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "log-appender");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, maxDelayMillis, maxDelayMillis, TimeUnit.MILLISECONDS);
+            // 終了時にためている行を失わないようにする(共有の利用者が残っていても書き込む)
+            shutdownHook = new Thread(this::releaseQuietly);
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * ファイルに対応する共有のインスタンスを取得します。同じファイルには同じインスタンスを返します。
+     * 利用者ごとにcloseを1回呼び出し、全ての利用者がcloseした時点でファイルを閉じます。
+     * 既に共有しているインスタンスがある場合は、最初に指定した書き込み方式をそのまま使います。
+     *
+     * @param filePath 追記するファイルのパス
+     * @param mode 書き込みとfsyncのタイミング
+     * @return 共有のインスタンス
+     */
+    static LogAppender shared(String filePath, DurabilityMode mode) {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        synchronized (SHARED) {
+            LogAppender appender = SHARED.get(path);
+            if (appender == null) {
+                appender = new LogAppender(filePath, mode);
+                appender.sharedPath = path;
+                SHARED.put(path, appender);
+            }
+            appender.references++;
+            return appender;
+        }
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    /**
+     * 1行を追記します。改行はこのクラスで付け加えます。
+     *
+     * @param line 追記する行
+     */
+    public synchronized void append(CharSequence line) throws IOException {
+        if (closed) {
+            throw new IOException("LogAppender is closed: " + filePath);
+        }
+        pending.append(line).append(System.lineSeparator());
+        pendingRecords++;
+        if (mode != DurabilityMode.GROUP_COMMIT || pendingRecords >= maxBatchRecords) {
+            writePending();
+            if (mode == DurabilityMode.GROUP_COMMIT) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * 複数の行をまとめて追記します。
+     * GROUP_COMMIT以外でも1回の書き込みで行います。
+     *
+     * @param lines 追記する行
+     */
+    public synchronized void appendAll(List<? extends CharSequence> lines) throws IOException {
+        if (closed) {
+            throw new IOException("LogAppender is closed: " + filePath);
+        }
+        for (CharSequence line : lines) {
+            pending.append(line).append(System.lineSeparator());
+        }
+        pendingRecords += lines.size();
+        if (mode != DurabilityMode.GROUP_COMMIT || pendingRecords >= maxBatchRecords) {
+            writePending();
+            if (mode == DurabilityMode.GROUP_COMMIT) {
+                sync();
+            }
+        }
+    }
+
+    /**
+     * ためている行を書き込み、FLUSH_PER_RECORD以外ではfsyncも行います。
+     */
+    public synchronized void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        writePending();
+        if (mode != DurabilityMode.FLUSH_PER_RECORD) {
+            sync();
+        }
+    }
+
+    /**
+     * ためている行を書き込んでファイルを閉じます。
+     * 次に書き込む際にはファイルを開き直すため、ファイルを書き直した後に呼び出してください。
+     */
+    public synchronized void release() throws IOException {
+        writePending();
+        if (channel != null) {
+            if (unsynced) {
+                channel.force(false);
+                unsynced = false;
+            }
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * ためている行を書き込んでファイルを閉じ、追記を止めた状態でファイルを書き直します。
+     * 書き直しの間に追記しようとした行は、書き直した後のファイルに追記します。
+     *
+     * @param rewrite ファイルを書き直す処理
+     */
+    synchronized void rewrite(FileWriteLock.IOAction rewrite) throws IOException {
+        release();
+        rewrite.run();
+    }
+
+    /**
+     * ためている行を書き込んでファイルを閉じ、書き込み用のスレッドを止めます。
+     * 共有のインスタンスでは、他の利用者が残っている間は何もしません。
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (sharedPath != null) {
+            synchronized (SHARED) {
+                if (--references > 0) {
+                    return;
+                }
+                SHARED.remove(sharedPath);
+            }
+        }
+        release();
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // シャットダウン中はフックを外せないため無視する
+            }
+        }
+    }
+
+    private void writePending() throws IOException {
+        if (pending.length() == 0) {
+            return;
+        }
+        Path path = Paths.get(filePath);
+        long now = System.nanoTime();
+        if (channel != null && now - fileKeyCheckedNanos >= FILE_KEY_CHECK_INTERVAL_NANOS) {
+            // 共有している間に別のプロセスなどでファイルが置き換えられた場合は開き直す。
+            // 書き込みのたびに属性を読まないよう、確認は一定時間ごとに行う
+            fileKeyCheckedNanos = now;
+            if (!Objects.equals(fileKey(path), fileKey)) {
+                channel.close();
+                channel = null;
+            }
+        }
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            fileKey = fileKey(path);
+            fileKeyCheckedNanos = now;
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(pending));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        pending.setLength(0);
+        pendingRecords = 0;
+        unsynced = true;
+    }
+
+    private static Object fileKey(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void sync() throws IOException {
+        if (channel != null && unsynced) {
+            channel.force(false);
+            unsynced = false;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("ログデータの書き込み中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private void releaseQuietly() {
+        try {
+            release();
+        } catch (IOException e) {
+            System.err.println("ログデータの書き込み中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,37 @@
 package com.taskapp.dataaccess;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.Log;
 
-public class LogDataAccess {
-    private final String filePath;
+public class LogDataAccess implements LogRepository {
+    protected static final String HEADER = "taskCode,userCode,status,changeDate";
+    private static final IoMetrics IO = Metrics.io("logs");
+
+    protected final String filePath;
+    protected final LogAppender appender;
+    // 不正な行の報告と退避
+    final MalformedRows malformedRows;
+    // findAllで並列に読み込む範囲の最大数。1の場合は1行ずつ順番に読み込む
+    private int parallelism = 1;
+    // 共有の追記用インスタンスの利用を終えたか
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public LogDataAccess() {
         filePath = "app/src/main/resources/logs.csv";
+        appender = LogAppender.shared(filePath, LogAppender.DurabilityMode.FLUSH_PER_RECORD);
+        malformedRows = MalformedRows.of(filePath);
     }
 
     /**
@@ -20,7 +40,19 @@ public class LogDataAccess {
      * @param filePath ログファイルのパス
      */
     public LogDataAccess(String filePath) {
+        this(filePath, LogAppender.DurabilityMode.FLUSH_PER_RECORD);
+    }
+
+    /**
+     * ログの書き込みとfsyncのタイミングを指定してインスタンスを作成します。
+     *
+     * @param filePath ログファイルのパス
+     * @param mode 書き込みとfsyncのタイミング
+     */
+    public LogDataAccess(String filePath, LogAppender.DurabilityMode mode) {
         this.filePath = filePath;
+        this.appender = LogAppender.shared(filePath, mode);
+        this.malformedRows = MalformedRows.of(filePath);
     }
 
     /**
@@ -29,77 +61,242 @@ public class LogDataAccess {
      * @param log 保存するログ
      */
     public void save(Log log) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath, true))) {
-            pw.println(createLine(log));
+        try {
+            String line = createLine(log);
+            appender.append(line);
+            IO.written(line);
         } catch (IOException e) {
             System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
         }
     }
 
+    /**
+     * 複数のログを1回の書き込みでCSVファイルに保存します。
+     *
+     * @param logs 保存するログ
+     */
+    public void saveAll(List<Log> logs) {
+        List<String> lines = new ArrayList<>(logs.size());
+        for (Log log : logs) {
+            lines.add(createLine(log));
+        }
+        try {
+            appender.appendAll(lines);
+            for (String line : lines) {
+                IO.written(line);
+            }
+        } catch (IOException e) {
+            System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ファイルの全ての行がそのまま有効なログとして読めるCSVかを取得します。
+     * {@link LogAnalytics}はこの場合だけファイルを直接集計します。
+     *
+     * @return 有効なログだけを行に持つCSVならtrue
+     */
+    boolean isPlainCsv() {
+        return true;
+    }
+
+    /**
+     * findAllで並列に読み込む範囲の最大数を設定します。
+     * 2以上の場合、大きなファイルは改行の位置で分割して範囲ごとに並列に変換します。
+     *
+     * @param parallelism 範囲の最大数
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /**
      * すべてのログを取得します。
+     * 不正な行は読み飛ばし、読み込みの最後にまとめて報告します。
      *
      * @return すべてのログのリスト
      */
     public List<Log> findAll() {
-        List<Log> logs = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-
-            String line;
-            // ヘッダー行の読み飛ばし
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                
-                if (data.length != 4) {
-                    System.err.println("Skipping invalid line (unexpected column count): " + line);
-                    continue;
-                }
+        flush();
+        try {
+            return ParallelLineReader.read(Paths.get(filePath), parallelism, ParallelLineReader.DEFAULT_MIN_CHUNK_BYTES,
+                    true, () -> {
+                        CsvLineParser parser = new CsvLineParser();
+                        return (offset, line) -> parseLine(offset, line, parser);
+                    });
+        } catch (IOException e) {
+            System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            malformedRows.summarize();
+        }
+    }
 
-                try {
-                    int taskCode = Integer.parseInt(data[0]);
-                    int userCode = Integer.parseInt(data[1]);
-                    int status = Integer.parseInt(data[2]);
-                    LocalDate changeDate = LocalDate.parse(data[3]); // 変更日付は文字列として保持
-
-                    logs.add(new Log(taskCode, userCode, status, changeDate));
-                } catch (NumberFormatException e) {
-                    System.err.println("Skipping invalid line (parsing error): " + line);
-                }
-            }
+    /**
+     * すべてのログを1行ずつ読み込むストリームを取得します。
+     * 行は要素を取り出す時点で読み込まれ、ストリームを閉じるとファイルも閉じます。
+     * 不正な行はストリームを閉じた時点でまとめて報告します。
+     * 利用後は必ずストリームを閉じてください。
+     *
+     * @return ログのストリーム
+     */
+    public Stream<Log> streamAll() {
+        flush();
+        CsvLineParser parser = new CsvLineParser();
+        try {
+            return LineScanner.stream(Paths.get(filePath), true, (offset, line) -> parseLine(offset, line, parser))
+                    .onClose(malformedRows::summarize);
         } catch (IOException e) {
             System.err.println("ログデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return Stream.empty();
         }
-        return logs;
+    }
+
+    /**
+     * ファイル上の位置が分からないCSVの1行をログに変換します。不正な行の場合はnullを返します。
+     *
+     * @param line CSVの1行
+     * @param parser 行の区切りに使うパーサー
+     * @return 変換したログ
+     */
+    protected Log parseLine(String line, CsvLineParser parser) {
+        return parseLine(MalformedRows.NO_OFFSET, line, parser);
+    }
+
+    /**
+     * CSVの1行をログに変換します。不正な行の場合はnullを返します。
+     * 退避済みの不正な行は変換せずに読み飛ばします。
+     *
+     * @param offset 行の先頭のバイト位置
+     * @param line CSVの1行
+     * @param parser 行の区切りに使うパーサー
+     * @return 変換したログ
+     */
+    protected Log parseLine(long offset, String line, CsvLineParser parser) {
+        if (malformedRows.isKnown(offset, line)) {
+            IO.read(line, false);
+            return null;
+        }
+        Log log = toLog(offset, line, parser);
+        IO.read(line, log != null);
+        return log;
+    }
+
+    private Log toLog(long offset, String line, CsvLineParser parser) {
+        if (parser.parse(line) != 4) {
+            malformedRows.reject(offset, line, "unexpected column count");
+            return null;
+        }
+
+        long taskCode = parser.intField(0);
+        long userCode = parser.intField(1);
+        long status = parser.intField(2);
+        LocalDate changeDate = parser.dateField(3);
+        if (taskCode == CsvLineParser.INVALID || userCode == CsvLineParser.INVALID
+                || status == CsvLineParser.INVALID || changeDate == null) {
+            malformedRows.reject(offset, line, "parsing error");
+            return null;
+        }
+
+        return new Log((int) taskCode, (int) userCode, (int) status, changeDate);
     }
 
     /**
      * 指定したタスクコードに該当するログを削除します。
+     * 読み込みから書き直しまでの間は、このファイルへの書き直しと追記を待たせます。
      *
      * @param taskCode 削除するログのタスクコード
      */
     public void deleteByTaskCode(int taskCode) {
-        List<Log> logs = findAll();
+        try {
+            FileWriteLock.of(filePath).run(() -> appender.rewrite(() -> {
+                List<Log> logs = findAll();
+                logs.removeIf(log -> log.getTaskCode() == taskCode);
+                writeAll(logs);
+            }));
+        } catch (IOException e) {
+            System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
+        }
+    }
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
-            pw.println("taskCode,userCode,status,changeDate");
-            for (Log log : logs) {
-                if (log.getTaskCode() != taskCode) {
-                    pw.println(createLine(log)); 
+    /**
+     * ヘッダー行と全てのログで一時ファイルを書き、CSVファイルと置き換えます。
+     * 書き直す間は追記用のファイルを閉じ、追記を待たせます。
+     *
+     * @param logs 書き込むログ
+     */
+    protected void writeAll(List<Log> logs) {
+        Path path = Paths.get(filePath).toAbsolutePath();
+        try {
+            FileWriteLock.of(filePath).run(() -> appender.rewrite(() -> {
+                Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+                try {
+                    try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(temp))) {
+                        pw.println(HEADER);
+                        IO.written(HEADER);
+                        for (Log log : logs) {
+                            String line = createLine(log);
+                            pw.println(line);
+                            IO.written(line);
+                        }
+                    }
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    malformedRows.rewritten();
+                } finally {
+                    Files.deleteIfExists(temp);
                 }
-            }
+            }));
         } catch (IOException e) {
             System.err.println("ログデータの削除中にエラーが発生しました: " + e.getMessage());
         }
     }
 
+    /**
+     * ためているログをファイルに書き込みます。
+     */
+    public void flush() {
+        try {
+            appender.flush();
+        } catch (IOException e) {
+            System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ためているログを書き込み、追記用のインスタンスの利用を終えます。
+     * 同じファイルを使う他のインスタンスが残っている間は、ログファイルを開いたままにします。
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            appender.flush();
+            appender.close();
+        } catch (IOException e) {
+            System.err.println("ログデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
     /**
      * ログをCSVファイルに書き込むためのフォーマットを作成します。
      *
      * @param log フォーマットを作成するログ
      * @return CSVファイルに書き込むためのフォーマット
      */
-    private String createLine(Log log) {
-        return String.format("%d,%d,%d,%s", log.getTaskCode(), log.getChangeUserCode(), log.getStatus(), log.getChangeDate());
+    protected String createLine(Log log) {
+        return new StringBuilder(32)
+                .append(log.getTaskCode()).append(',')
+                .append(log.getChangeUserCode()).append(',')
+                .append(log.getStatus()).append(',')
+                .append(log.getChangeDate())
+                .toString();
     }
 }
@@ -0,0 +1,72 @@
+package com.taskapp.dataaccess;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.taskapp.model.Log;
+
+/**
+ * ログの保存先を表すインターフェースです。
+ * 保存形式ごとの実装は{@link RepositoryFactory}で選択します。
+ */
+public interface LogRepository {
+    /**
+     * ログを保存します。
+     *
+     * @param log 保存するログ
+     */
+    void save(Log log);
+
+    /**
+     * 複数のログをまとめて保存します。
+     *
+     * @param logs 保存するログ
+     */
+    void saveAll(List<Log> logs);
+
+    /**
+     * すべてのログを取得します。
+     *
+     * @return すべてのログのリスト
+     */
+    List<Log> findAll();
+
+    /**
+     * すべてのログのストリームを取得します。
+     * 利用後は必ずストリームを閉じてください。
+     *
+     * @return ログのストリーム
+     */
+    Stream<Log> streamAll();
+
+    /**
+     * 指定したタスクコードのログを取得します。
+     * 索引を持つ実装では全件を読まずに取得します。
+     *
+     * @param taskCode タスクコード
+     * @return 該当するログのリスト
+     */
+    default List<Log> findByTaskCode(int taskCode) {
+        try (Stream<Log> logs = streamAll()) {
+            return logs.filter(log -> log.getTaskCode() == taskCode).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 指定したタスクコードに該当するログを削除します。
+     *
+     * @param taskCode 削除するログのタスクコード
+     */
+    void deleteByTaskCode(int taskCode);
+
+    /**
+     * ためているログを書き込みます。
+     */
+    void flush();
+
+    /**
+     * ためているログを書き込み、保存先を閉じます。
+     */
+    void close();
+}
@@ -0,0 +1,250 @@
+package com.taskapp.dataaccess;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CSVファイルの不正な行を数え、読み込みごとにまとめて報告するクラスです。
+ * 行ごとにSystem.errへ出力する代わりに、件数と数件の例だけを1行で出力します。
+ *
+ * 形式が不正な行(カラム数や数値の誤り)は位置が分かれば{@code <CSV>.rejected}へ1回だけ退避し、
+ * 以降の読み込みでは同じ位置・同じ内容の行を変換せずに読み飛ばします。
+ * 退避したファイルの各行は「位置,行のハッシュ値,理由,元の行」の形式です。
+ * 存在しないユーザーを参照する行は後から正しくなり得るため、退避せずに毎回数えるだけにします。
+ *
+ * 同じCSVファイルを読み込むインスタンスの間では{@link #of}で1つのインスタンスを共有し、
+ * 退避済みの行の記録と退避先への書き込みを1か所にまとめます。
+ * CSVファイルが書き直されると行の位置が変わるため、{@link #rewritten}で退避済みの位置を破棄します。
+ */
+final class MalformedRows {
+    // 行の位置が分からない場合に渡す値
+    static final long NO_OFFSET = -1;
+    static final int SAMPLE_LIMIT = 3;
+    // 新たに退避した行がない場合に、同じ報告を繰り返さない間隔
+    static final long REPORT_INTERVAL_MILLIS = 60_000;
+    private static final int SAMPLE_LENGTH = 80;
+    private static final ConcurrentHashMap<Path, MalformedRows> SHARED = new ConcurrentHashMap<>();
+
+    private final String fileName;
+    private final Path rejectedPath;
+    private final Path archivePath;
+    // 退避済みの行の位置と、その行のハッシュ値
+    private final Map<Long, Integer> known = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // 前回の報告以降に数えた件数
+    private int quarantined;
+    private int unresolved;
+    private final LongAdder knownSkipped = new LongAdder();
+    private final List<String> samples = new ArrayList<>();
+    private final List<String> pending = new ArrayList<>();
+    private long lastReportTime;
+
+    /**
+     * 対象のCSVファイルのパスを指定してインスタンスを作成します。
+     * 同じファイルを読み込む他のインスタンスとは記録を共有しないため、通常は{@link #of}を使ってください。
+     *
+     * @param filePath 対象のCSVファイルのパス
+     */
+    MalformedRows(String filePath) {
+        Path path = Paths.get(filePath);
+        fileName = path.getFileName().toString();
+        rejectedPath = Paths.get(filePath + ".rejected");
+        archivePath = Paths.get(filePath + ".rejected.old");
+    }
+
+    /**
+     * CSVファイルに対応するインスタンスを取得します。同じファイルには同じインスタンスを返します。
+     *
+     * @param filePath 対象のCSVファイルのパス
+     * @return 共有するインスタンス
+     */
+    static MalformedRows of(String filePath) {
+        Path path = Paths.get(filePath).toAbsolutePath().normalize();
+        return SHARED.computeIfAbsent(path, key -> new MalformedRows(filePath));
+    }
+
+    /**
+     * 退避済みの行かどうかを確認します。該当する場合は読み飛ばした件数に数えます。
+     *
+     * @param offset 行の先頭のバイト位置
+     * @param line 改行を除いた行
+     * @return 同じ位置・同じ内容の行が退避済みならtrue
+     */
+    boolean isKnown(long offset, String line) {
+        if (offset == NO_OFFSET) {
+            return false;
+        }
+        if (!loaded) {
+            load();
+        }
+        if (known.isEmpty()) {
+            return false;
+        }
+        Integer hash = known.get(offset);
+        if (hash == null || hash != line.hashCode()) {
+            return false;
+        }
+        knownSkipped.increment();
+        return true;
+    }
+
+    /**
+     * 形式が不正な行を記録します。位置が分かる場合は退避の対象にします。
+     *
+     * @param offset 行の先頭のバイト位置、分からない場合はNO_OFFSET
+     * @param line 改行を除いた行
+     * @param reason 不正な理由
+     */
+    synchronized void reject(long offset, String line, String reason) {
+        if (offset == NO_OFFSET) {
+            unresolved(line, reason);
+            return;
+        }
+        if (!loaded) {
+            load();
+        }
+        Integer previous = known.put(offset, line.hashCode());
+        if (previous != null && previous == line.hashCode()) {
+            knownSkipped.increment();
+            return;
+        }
+        quarantined++;
+        pending.add(offset + "," + line.hashCode() + "," + reason + "," + line);
+        sample(line, reason);
+    }
+
+    /**
+     * 退避しない不正な行(存在しないユーザーを参照する行など)を記録します。
+     *
+     * @param line 改行を除いた行
+     * @param reason 不正な理由
+     */
+    synchronized void unresolved(String line, String reason) {
+        unresolved++;
+        sample(line, reason);
+    }
+
+    /**
+     * 前回の報告以降に記録した不正な行を退避し、件数と例を1行で報告します。
+     * 新たに退避した行がない場合は、一定の間隔を空けてから報告します。
+     */
+    synchronized void summarize() {
+        if (quarantined == 0 && unresolved == 0) {
+            knownSkipped.reset();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (quarantined == 0 && now - lastReportTime < REPORT_INTERVAL_MILLIS) {
+            clear();
+            return;
+        }
+        flushPending();
+
+        long skipped = knownSkipped.sum();
+        StringBuilder message = new StringBuilder(fileName).append(": 不正な行を")
+                .append(quarantined + unresolved + skipped).append("行読み飛ばしました");
+        message.append("(新たに退避: ").append(quarantined)
+                .append(", 退避済み: ").append(skipped)
+                .append(", 未解決: ").append(unresolved).append(")");
+        if (quarantined > 0) {
+            message.append(" 退避先: ").append(rejectedPath);
+        }
+        for (String sample : samples) {
+            message.append(System.lineSeparator()).append("  ").append(sample);
+        }
+        System.err.println(message);
+        lastReportTime = now;
+        clear();
+    }
+
+    /**
+     * CSVファイルが書き直されたことを記録します。
+     * 書き直しで行の位置が変わるため、退避済みの行の位置を全て破棄し、{@code <CSV>.rejected}を空にします。
+     * 書き直したCSVには不正な行が残らないため、それまでに退避した行は{@code <CSV>.rejected.old}へ移して残します。
+     * 書き直しの後、他の書き込みが始まる前に呼び出してください。
+     */
+    synchronized void rewritten() {
+        flushPending();
+        known.clear();
+        loaded = true;
+        try {
+            if (Files.exists(rejectedPath)) {
+                Files.write(archivePath, Files.readAllBytes(rejectedPath),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                Files.delete(rejectedPath);
+            }
+        } catch (IOException e) {
+            System.err.println("退避した行の整理中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private void sample(String line, String reason) {
+        if (samples.size() < SAMPLE_LIMIT) {
+            String shown = line.length() > SAMPLE_LENGTH ? line.substring(0, SAMPLE_LENGTH) + "..." : line;
+            samples.add("[" + reason + "] " + shown);
+        }
+    }
+
+    private void clear() {
+        quarantined = 0;
+        unresolved = 0;
+        knownSkipped.reset();
+        samples.clear();
+    }
+
+    private void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(rejectedPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : pending) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("不正な行の退避中にエラーが発生しました: " + e.getMessage());
+        }
+        pending.clear();
+    }
+
+    private synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        try (BufferedReader br = Files.newBufferedReader(rejectedPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int first = line.indexOf(',');
+                int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+                if (second < 0) {
+                    continue;
+                }
+                try {
+                    known.put(Long.parseLong(line.substring(0, first)),
+                            Integer.parseInt(line.substring(first + 1, second)));
+                } catch (NumberFormatException e) {
+                    // 壊れた行は使わない
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // まだ退避した行がない
+        } catch (IOException e) {
+            System.err.println("退避した行の読み込み中にエラーが発生しました: " + e.getMessage());
+        }
+        loaded = true;
+    }
+}
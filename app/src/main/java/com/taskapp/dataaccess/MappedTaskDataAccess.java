@@ -0,0 +1,186 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+import com.taskapp.model.Task;
+
+/**
+ * tasks.csvをメモリマップし、findByCodeで該当する1行だけをマップから読み込むTaskDataAccessです。
+ * 行の位置はTaskDataAccessの索引から引くため、追記した行の登録や書き直し後の作り直しは索引に任せます。
+ * マップ中のファイルはWindowsでは置き換えられないため、書き直す前にマップを解除します。
+ */
+public class MappedTaskDataAccess extends TaskDataAccess {
+    // sun.misc.Unsafe.invokeCleaner。使えない環境ではnull
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final Path path;
+    private MappedByteBuffer buffer;
+    // マップした時点のファイルの更新日時とサイズ
+    private long lastModified = -1;
+    private long size = -1;
+
+    public MappedTaskDataAccess() {
+        super();
+        path = Paths.get(filePath);
+    }
+
+    public MappedTaskDataAccess(String filePath, UserRepository userDataAccess) {
+        super(filePath, userDataAccess);
+        path = Paths.get(filePath);
+    }
+
+    /**
+     * 索引を使ってコードを基にタスクデータを1件取得します。
+     * 該当する1行だけをマップから読み込んでタスクに変換します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク、見つからなければnull
+     */
+    @Override
+    public synchronized Task findByCode(int code) {
+        try {
+            long offset = index.offsetOf(code);
+            if (offset < 0) {
+                return null;
+            }
+            if (remapIfChanged() && offset < buffer.limit()) {
+                Task task = parseLine(offset, readLine((int) offset), userDataAccess::findByCode);
+                if (task != null && task.getCode() == code) {
+                    return task;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return null;
+        }
+        // マップできない大きさのファイルや、索引の作成後に書き直されたファイルは通常の読み込みで探す
+        return super.findByCode(code);
+    }
+
+    /**
+     * タスクデータを更新します。マップの解除と読み込みが重ならないよう同期します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    @Override
+    public synchronized void update(Task updateTask) {
+        super.update(updateTask);
+    }
+
+    /**
+     * 複数のタスクデータをまとめて更新します。マップの解除と読み込みが重ならないよう同期します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    @Override
+    public synchronized void updateAll(Collection<Task> updateTasks) {
+        super.updateAll(updateTasks);
+    }
+
+    /**
+     * マップを解除してから、ヘッダー行と全てのタスクでCSVファイルを書き直します。
+     *
+     * @param tasks 書き込むタスク
+     */
+    @Override
+    protected synchronized void writeAll(Collection<Task> tasks) {
+        unmap();
+        super.writeAll(tasks);
+    }
+
+    /**
+     * 索引に登録されているタスクの件数を取得します。
+     *
+     * @return 索引の件数
+     */
+    public int indexedCount() {
+        try {
+            return index.size();
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * ファイルがマップした時点から変わっていればマップし直します。
+     *
+     * @return マップを使える場合はtrue、ファイルが大きすぎてマップできない場合はfalse
+     */
+    private boolean remapIfChanged() throws IOException {
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        long fileSize = Files.size(path);
+        if (buffer != null && modified == lastModified && fileSize == size) {
+            return true;
+        }
+        unmap();
+        if (fileSize > Integer.MAX_VALUE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            lastModified = modified;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        }
+        return true;
+    }
+
+    /**
+     * マップを解除します。Javaにはマップを解除する公開APIがないため、
+     * sun.misc.Unsafe.invokeCleanerを使える場合はすぐに解除し、使えない場合は参照を外してGCに任せます。
+     */
+    private void unmap() {
+        MappedByteBuffer mapped = buffer;
+        buffer = null;
+        lastModified = -1;
+        size = -1;
+        if (mapped == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) mapped);
+        } catch (Throwable e) {
+            System.err.println("タスクデータのマップの解除中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String readLine(int start) {
+        int end = start;
+        int limit = buffer.limit();
+        while (end < limit && buffer.get(end) != '\n') {
+            end++;
+        }
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
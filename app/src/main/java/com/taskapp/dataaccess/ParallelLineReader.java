@@ -0,0 +1,126 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * ファイルを改行の位置で複数の範囲に分け、範囲ごとに並列に行を変換するクラスです。
+ * 範囲の変換はForkJoinPoolの共通プールで行い、結果はファイル上の順番のまま連結します。
+ * 範囲が1つの場合は呼び出し元のスレッドで順番に変換します。
+ */
+final class ParallelLineReader {
+    // 1つの範囲の最小のバイト数。これより小さいファイルは分割せずに読み込む
+    static final long DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+    private static final int SEARCH_BUFFER_SIZE = 8 * 1024;
+
+    private ParallelLineReader() {
+    }
+
+    /**
+     * ファイルの全ての行を変換します。変換結果がnullの行は読み飛ばします。
+     *
+     * @param path 対象のファイル
+     * @param parallelism 分割する範囲の最大数
+     * @param minChunkBytes 1つの範囲の最小のバイト数
+     * @param skipHeader 先頭の行を読み飛ばす場合はtrue
+     * @param parsers 範囲ごとに行を変換する関数を作成する関数
+     * @return 変換した行のリスト(ファイル上の順番)
+     */
+    static <T> List<T> read(Path path, int parallelism, long minChunkBytes, boolean skipHeader,
+            Supplier<LineScanner.LineParser<T>> parsers) throws IOException {
+        long[] bounds = split(path, parallelism, minChunkBytes);
+        int chunks = bounds.length - 1;
+        List<List<T>> results;
+        try {
+            IntStream indexes = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                indexes = indexes.parallel();
+            }
+            results = indexes.mapToObj(i -> readChunk(path, bounds[i], bounds[i + 1], skipHeader, parsers.get()))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int size = 0;
+        for (List<T> result : results) {
+            size += result.size();
+        }
+        List<T> all = new ArrayList<>(size);
+        for (List<T> result : results) {
+            all.addAll(result);
+        }
+        return all;
+    }
+
+    /**
+     * ファイルを行の途中で切れないように分割します。
+     *
+     * @return 各範囲の先頭の位置と、最後にファイルのサイズを並べた配列
+     */
+    static long[] split(Path path, int parallelism, long minChunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, Math.min(parallelism, size / Math.max(1, minChunkBytes)));
+            long[] bounds = new long[chunks + 1];
+            int count = 1;
+            ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+            for (int i = 1; i < chunks; i++) {
+                // 目安の位置の直前の改行を探し始め、次の行の先頭を範囲の境目にする
+                long from = Math.max(size * i / chunks - 1, bounds[count - 1]);
+                long bound = nextLineStart(channel, buffer, from, size);
+                if (bound > bounds[count - 1] && bound < size) {
+                    bounds[count++] = bound;
+                }
+            }
+            bounds[count++] = size;
+            return count == bounds.length ? bounds : Arrays.copyOf(bounds, count);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static <T> List<T> readChunk(Path path, long from, long to, boolean skipHeader,
+            LineScanner.LineParser<T> parser) {
+        List<T> result = new ArrayList<>();
+        try {
+            LineScanner.scan(path, from, to, true, (offset, line) -> {
+                if (skipHeader && offset == 0) {
+                    return;
+                }
+                T value = parser.parse(offset, line);
+                if (value != null) {
+                    result.add(value);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+}
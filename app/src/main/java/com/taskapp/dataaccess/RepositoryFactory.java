@@ -0,0 +1,174 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * 設定に従ってタスク・ログ・ユーザーの保存先を作成するクラスです。
+ * 設定は「taskapp.properties」(またはシステムプロパティtaskapp.configで指定したファイル)から読み込み、
+ * 同じ名前のシステムプロパティがあればそちらを優先します。
+ *
+ * <ul>
+ * <li>taskapp.storage … 全ての保存形式の既定値(既定はcsv)</li>
+ * <li>taskapp.task.storage … csv / cached / journaled / mapped / binary / h2</li>
+ * <li>taskapp.task.snapshot … cachedでスナップショットを使うか(既定はtrue)</li>
+ * <li>taskapp.log.storage … csv / indexed / binary / h2</li>
+ * <li>taskapp.user.storage … csv / h2</li>
+ * <li>taskapp.log.durability … LogAppender.DurabilityModeの名前(既定はFLUSH_PER_RECORD)</li>
+ * <li>taskapp.data.dir … データファイルを置くディレクトリ(既定はapp/src/main/resources)</li>
+ * <li>taskapp.task.file / taskapp.log.file / taskapp.user.file … 各ファイルのパス</li>
+ * <li>taskapp.h2.url … h2で使うJDBCのURL(既定はデータディレクトリのtaskapp)</li>
+ * <li>taskapp.h2.maxConnections … h2の接続プールの上限</li>
+ * <li>taskapp.load.parallelism … CSVのfindAllを並列に読み込む範囲の最大数(既定はCPU数、1で順番に読み込む)</li>
+ * </ul>
+ * h2のタスクは同じデータベースのusersテーブルから担当ユーザーを取得するため、
+ * 既存のCSVファイルは{@link H2Database#importCsv}でまとめて移行してください。
+ */
+public class RepositoryFactory {
+    public static final String CONFIG_PROPERTY = "taskapp.config";
+    public static final String DEFAULT_CONFIG_FILE = "taskapp.properties";
+    public static final String DEFAULT_DATA_DIR = "app/src/main/resources";
+
+    private final Properties properties;
+    private H2Database database;
+
+    /**
+     * @param properties 設定
+     */
+    public RepositoryFactory(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 設定ファイルとシステムプロパティから設定を読み込みます。
+     *
+     * @return 読み込んだ設定を使うRepositoryFactory
+     */
+    public static RepositoryFactory fromEnvironment() {
+        Properties properties = new Properties();
+        Path config = Paths.get(System.getProperty(CONFIG_PROPERTY, DEFAULT_CONFIG_FILE));
+        if (Files.isRegularFile(config)) {
+            try (Reader reader = Files.newBufferedReader(config)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                System.err.println("設定ファイルの読み込み中にエラーが発生しました: " + e.getMessage());
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("taskapp.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new RepositoryFactory(properties);
+    }
+
+    /**
+     * ユーザーの保存先を作成します。
+     *
+     * @return ユーザーの保存先
+     */
+    public UserRepository createUserRepository() {
+        String storage = storage("user");
+        switch (storage) {
+            case "csv": return new UserDataAccess(file("user", "users.csv"));
+            case "h2": return new H2UserDataAccess(database());
+            default: throw unsupported("user", storage);
+        }
+    }
+
+    /**
+     * タスクの保存先を作成します。
+     *
+     * @param users 担当ユーザーの取得に使うユーザーの保存先
+     * @return タスクの保存先
+     */
+    public TaskRepository createTaskRepository(UserRepository users) {
+        String storage = storage("task");
+        switch (storage) {
+            case "csv": return withParallelism(new TaskDataAccess(file("task", "tasks.csv"), users));
+            case "cached": return withParallelism(new CachedTaskDataAccess(file("task", "tasks.csv"), users,
+                    Boolean.parseBoolean(properties.getProperty("taskapp.task.snapshot", "true"))));
+            case "journaled": return new JournaledTaskDataAccess(file("task", "tasks.csv"), users);
+            case "mapped": return withParallelism(new MappedTaskDataAccess(file("task", "tasks.csv"), users));
+            case "binary": return new BinaryTaskDataAccess(file("task", "tasks.bin"), users);
+            case "h2": return new H2TaskDataAccess(database());
+            default: throw unsupported("task", storage);
+        }
+    }
+
+    /**
+     * ログの保存先を作成します。
+     *
+     * @return ログの保存先
+     */
+    public LogRepository createLogRepository() {
+        String storage = storage("log");
+        LogAppender.DurabilityMode mode = LogAppender.DurabilityMode.valueOf(
+                properties.getProperty("taskapp.log.durability", LogAppender.DurabilityMode.FLUSH_PER_RECORD.name()));
+        switch (storage) {
+            case "csv": return withParallelism(new LogDataAccess(file("log", "logs.csv"), mode));
+            case "indexed": return new IndexedLogDataAccess(file("log", "logs.csv"), mode);
+            case "binary": return new BinaryLogDataAccess(file("log", "logs.bin"));
+            case "h2": return new H2LogDataAccess(database());
+            default: throw unsupported("log", storage);
+        }
+    }
+
+    /**
+     * h2で使うデータベースを取得します。同じファクトリから作成した保存先では接続プールを共有します。
+     *
+     * @return データベース
+     */
+    public synchronized H2Database database() {
+        if (database == null) {
+            String dataDir = properties.getProperty("taskapp.data.dir", DEFAULT_DATA_DIR);
+            String url = properties.getProperty("taskapp.h2.url",
+                    "jdbc:h2:file:" + Paths.get(dataDir, "taskapp").toAbsolutePath());
+            int maxConnections = Integer.parseInt(properties.getProperty("taskapp.h2.maxConnections",
+                    String.valueOf(H2Database.DEFAULT_MAX_CONNECTIONS)));
+            try {
+                database = new H2Database(url, maxConnections);
+            } catch (SQLException e) {
+                throw new IllegalStateException("データベースに接続できません: " + url, e);
+            }
+        }
+        return database;
+    }
+
+    private <T extends TaskDataAccess> T withParallelism(T dataAccess) {
+        dataAccess.setParallelism(loadParallelism());
+        return dataAccess;
+    }
+
+    private <T extends LogDataAccess> T withParallelism(T dataAccess) {
+        dataAccess.setParallelism(loadParallelism());
+        return dataAccess;
+    }
+
+    private int loadParallelism() {
+        return Integer.parseInt(properties.getProperty("taskapp.load.parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+    }
+
+    private String storage(String kind) {
+        String fallback = properties.getProperty("taskapp.storage", "csv");
+        return properties.getProperty("taskapp." + kind + ".storage", fallback);
+    }
+
+    private String file(String kind, String defaultName) {
+        String file = properties.getProperty("taskapp." + kind + ".file");
+        if (file != null) {
+            return file;
+        }
+        return Paths.get(properties.getProperty("taskapp.data.dir", DEFAULT_DATA_DIR), defaultName).toString();
+    }
+
+    private static IllegalArgumentException unsupported(String kind, String storage) {
+        return new IllegalArgumentException("未対応の保存形式です: taskapp." + kind + ".storage=" + storage);
+    }
+}
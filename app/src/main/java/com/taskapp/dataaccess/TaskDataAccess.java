@@ -1,82 +1,175 @@
 package com.taskapp.dataaccess;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
+import com.taskapp.exception.AppException;
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.Task;
 import com.taskapp.model.User;
 
-public class TaskDataAccess {
+public class TaskDataAccess implements TaskRepository {
+    protected static final String HEADER = "Code,Name,Status,Rep_User_Code";
 
-    private final String filePath;
-    private final UserDataAccess userDataAccess;
+    protected final String filePath;
+    protected final UserRepository userDataAccess;
+    // 不正な行の報告と退避
+    final MalformedRows malformedRows;
+    // コードと担当ユーザーから行の位置を引く索引。findByCodeとfindByRepUserで初めて使う時点で作成する
+    final TaskIndex index;
+    private static final IoMetrics IO = Metrics.io("tasks");
+    private static final ThreadLocal<CsvLineParser> PARSER = ThreadLocal.withInitial(CsvLineParser::new);
+    // findAllで並列に読み込む範囲の最大数。1の場合は1行ずつ順番に読み込む
+    private int parallelism = 1;
 
     public TaskDataAccess() {
         filePath = "app/src/main/resources/tasks.csv";
         userDataAccess = new UserDataAccess();
+        malformedRows = MalformedRows.of(filePath);
+        index = new TaskIndex(Paths.get(filePath));
     }
 
     /**
      * 自動採点用に必要なコンストラクタのため、皆さんはこのコンストラクタを利用・削除しないでください。
      */
-    public TaskDataAccess(String filePath, UserDataAccess userDataAccess) {
+    public TaskDataAccess(String filePath, UserRepository userDataAccess) {
         this.filePath = filePath;
         this.userDataAccess = userDataAccess;
+        this.malformedRows = MalformedRows.of(filePath);
+        this.index = new TaskIndex(Paths.get(filePath));
+    }
+
+    /**
+     * findAllで並列に読み込む範囲の最大数を設定します。
+     * 2以上の場合、大きなファイルは改行の位置で分割して範囲ごとに並列に変換します。
+     *
+     * @param parallelism 範囲の最大数
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
     }
 
     /**
      * CSVから全てのタスクデータを取得します。
+     * 不正な行は読み飛ばし、読み込みの最後にまとめて報告します。
      *
      * @return タスクのリスト
      */
     public List<Task> findAll() {
-        List<Task> tasks = new ArrayList<>();
+        // ユーザーは1回の読み込みでまとめて取得する
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        try {
+            return ParallelLineReader.read(Paths.get(filePath), parallelism, ParallelLineReader.DEFAULT_MIN_CHUNK_BYTES,
+                    true, () -> (offset, line) -> parseLine(offset, line, users::get));
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return new ArrayList<>();
+        } finally {
+            malformedRows.summarize();
+        }
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            br.readLine(); // ヘッダー行をスキップ
-            while ((line = br.readLine()) != null) {
-                // 行のデータを分割
-                String[] data = line.split(",");
-    
-                // カラム数を確認
-                if (data.length != 4) {
-                    System.err.println("Skipping invalid line (unexpected column count): " + line);
-                    continue;
-                }
-    
-                // 各カラムの妥当性を確認
-                if (!isNumeric(data[0]) || !isNumeric(data[2]) || !isNumeric(data[3])) {
-                    System.err.println("Skipping invalid line (parsing error): " + line);
-                    continue;
-                }
-    
-                try {
-                    int code = Integer.parseInt(data[0]);
-                    String name = data[1];
-                    int status = Integer.parseInt(data[2]);
-                    int userCode = Integer.parseInt(data[3]);
-    
-                    // Userオブジェクトを取得
-                    User repUser = userDataAccess.findByCode(userCode);
-                    if (repUser == null) {
-                        System.err.println("Skipping invalid line (user not found): " + line);
-                        continue;
-                    }
-    
-                    // タスクオブジェクトを作成してリストに追加
-                    tasks.add(new Task(code, name, status, repUser));
-                } catch (NumberFormatException e) {
-                    System.err.println("Skipping invalid line (unexpected number format): " + line);
-                }
-            }
+    /**
+     * CSVから全てのタスクデータを1行ずつ読み込むストリームを取得します。
+     * 行は要素を取り出す時点で読み込まれ、ストリームを閉じるとファイルも閉じます。
+     * 不正な行はストリームを閉じた時点でまとめて報告します。
+     * 利用後は必ずストリームを閉じてください。
+     *
+     * @return タスクのストリーム
+     */
+    public Stream<Task> streamAll() {
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        try {
+            return LineScanner.stream(Paths.get(filePath), true, (offset, line) -> parseLine(offset, line, users::get))
+                    .onClose(malformedRows::summarize);
         } catch (IOException e) {
             System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return Stream.empty();
         }
-        return tasks;
     }
 
+    /**
+     * ファイル上の位置が分からないCSVの1行をタスクに変換します。不正な行の場合はnullを返します。
+     *
+     * @param line CSVの1行
+     * @param users ユーザーコードからユーザーを取得する関数
+     * @return 変換したタスク
+     */
+    protected Task parseLine(String line, IntFunction<User> users) {
+        return parseLine(MalformedRows.NO_OFFSET, line, users);
+    }
+
+    /**
+     * CSVの1行をタスクに変換します。不正な行の場合はnullを返します。
+     * 退避済みの不正な行は変換せずに読み飛ばします。
+     *
+     * @param offset 行の先頭のバイト位置
+     * @param line CSVの1行
+     * @param users ユーザーコードからユーザーを取得する関数
+     * @return 変換したタスク
+     */
+    protected Task parseLine(long offset, String line, IntFunction<User> users) {
+        if (malformedRows.isKnown(offset, line)) {
+            IO.read(line, false);
+            return null;
+        }
+        Task task = toTask(offset, line, users);
+        IO.read(line, task != null);
+        return task;
+    }
+
+    private Task toTask(long offset, String line, IntFunction<User> users) {
+        CsvLineParser parser = PARSER.get();
+
+        // カラム数を確認
+        if (parser.parse(line) != 4) {
+            malformedRows.reject(offset, line, "unexpected column count");
+            return null;
+        }
+
+        // 各カラムを数値として読み取る
+        long code = parser.intField(0);
+        long status = parser.intField(2);
+        long userCode = parser.intField(3);
+        if (code == CsvLineParser.INVALID || status == CsvLineParser.INVALID || userCode == CsvLineParser.INVALID) {
+            malformedRows.reject(offset, line, "parsing error");
+            return null;
+        }
+
+        // Userオブジェクトを取得
+        User repUser = users.apply((int) userCode);
+        if (repUser == null) {
+            malformedRows.unresolved(line, "user not found");
+            return null;
+        }
+
+        // タスクオブジェクトを作成
+        return new Task((int) code, parser.field(1), (int) status, repUser);
+    }
 
     /**
      * タスクをCSVに保存します。
@@ -84,27 +177,229 @@ public class TaskDataAccess {
      * @param task 保存するタスク
      */
     public void save(Task task) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath, true))) {
-            pw.println(createLine(task));
+        try {
+            FileWriteLock.of(filePath).run(() -> index.append(() -> {
+                try (PrintWriter pw = new PrintWriter(new FileWriter(filePath, true))) {
+                    String line = createLine(task);
+                    pw.println(line);
+                    IO.written(line);
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 複数のタスクを1回の書き込みでCSVに追記します。
+     *
+     * @param tasks 保存するタスク
+     */
+    public void saveAll(List<Task> tasks) {
+        try {
+            FileWriteLock.of(filePath).run(() -> index.append(() -> {
+                try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(filePath, true), 1 << 16))) {
+                    for (Task task : tasks) {
+                        String line = createLine(task);
+                        pw.println(line);
+                        IO.written(line);
+                    }
+                }
+            }));
         } catch (IOException e) {
             System.err.println("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
         }
     }
 
     /**
-     * コードを基にタスクデータを1件取得します。
+     * 既に使われているコードがないことを確認してから、複数のタスクを1回の書き込みでCSVに追記します。
+     * 確認から追記までをFileWriteLockで排他します。
+     *
+     * @param tasks 保存するタスク
+     * @throws AppException 既に使われているコードがある場合、または保存に失敗した場合
+     */
+    @Override
+    public void saveAllIfAbsent(List<Task> tasks) throws AppException {
+        Set<Integer> duplicates = new TreeSet<>();
+        Set<Integer> codes = new HashSet<>();
+        for (Task task : tasks) {
+            if (!codes.add(task.getCode())) {
+                duplicates.add(task.getCode());
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw duplicateCodes(duplicates);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                duplicates.addAll(usedCodes(codes));
+                if (duplicates.isEmpty()) {
+                    saveAll(tasks);
+                }
+            });
+        } catch (IOException e) {
+            throw new AppException("タスクデータの保存中にエラーが発生しました: " + e.getMessage());
+        }
+        if (!duplicates.isEmpty()) {
+            throw duplicateCodes(duplicates);
+        }
+    }
+
+    /**
+     * 指定したコードのうち、既にファイルで使われているものを取得します。
+     * saveAllIfAbsentからFileWriteLockを取得した状態で呼び出されます。
+     *
+     * @param codes 確認するコード
+     * @return 使われているコード
+     */
+    protected Set<Integer> usedCodes(Collection<Integer> codes) throws IOException {
+        Set<Integer> used = new HashSet<>();
+        for (int code : codes) {
+            if (index.offsetOf(code) >= 0) {
+                used.add(code);
+            }
+        }
+        return used;
+    }
+
+    /**
+     * 全てのタスクを読み込み、指定したコードのうち使われているものを取得します。
+     * 索引を使えない保存形式のサブクラスで使います。
+     *
+     * @param codes 確認するコード
+     * @return 使われているコード
+     */
+    protected Set<Integer> scanUsedCodes(Collection<Integer> codes) {
+        Set<Integer> used = new HashSet<>();
+        for (Task task : findAll()) {
+            if (codes.contains(task.getCode())) {
+                used.add(task.getCode());
+            }
+        }
+        return used;
+    }
+
+    /**
+     * 既に使われているコードを知らせる例外を作成します。
+     *
+     * @param codes 使われているコード
+     * @return 例外
+     */
+    static AppException duplicateCodes(Collection<Integer> codes) {
+        StringBuilder message = new StringBuilder("タスクコード");
+        int shown = 0;
+        for (int code : codes) {
+            if (shown == 10) {
+                message.append(" ほか").append(codes.size() - shown).append("件");
+                break;
+            }
+            message.append(shown++ == 0 ? "" : ", ").append(code);
+        }
+        return new AppException(message.append("は既に使われています").toString());
+    }
+
+    /**
+     * 索引を使ってコードを基にタスクデータを1件取得します。
+     * 該当する1行だけを読み込んでタスクに変換します。
      *
      * @param code 取得するタスクのコード
-     * @return 取得したタスク
+     * @return 取得したタスク、見つからなければnull
      */
     public Task findByCode(int code) {
-        List<Task> tasks = findAll(); // 全タスクを取得
-        for (Task task : tasks) {
+        try {
+            long offset = index.offsetOf(code);
+            if (offset < 0) {
+                return null;
+            }
+            Task task = readLines(new long[] {offset}, userDataAccess::findByCode).get(0);
+            if (task != null && task.getCode() == code) {
+                return task;
+            }
+            // 索引の作成後にファイルが書き直されていれば全件から探す
+            return task == null && index.isCurrent() ? null : scanByCode(code);
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 索引を使って、指定したユーザーが担当しているタスクをコード順に取得します。
+     * 該当する行だけを読み込むため、他のユーザーのタスクは変換しません。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    @Override
+    public List<Task> findByRepUser(int userCode) {
+        try {
+            long[] offsets = index.offsetsOf(userCode);
+            if (offsets.length == 0) {
+                return new ArrayList<>();
+            }
+            User repUser = userDataAccess.findByCode(userCode);
+            List<Task> tasks = new ArrayList<>(offsets.length);
+            for (Task task : readLines(offsets, code -> code == userCode ? repUser : null)) {
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            if (!index.isCurrent()) {
+                return scanByRepUser(userCode);
+            }
+            tasks.sort(Comparator.comparingInt(Task::getCode));
+            return tasks;
+        } catch (IOException e) {
+            System.err.println("タスクデータの読み込み中にエラーが発生しました: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 全てのタスクを読み込み、コードが一致する最初のタスクを取得します。
+     * 索引を使えない保存形式のサブクラスで使います。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク、見つからなければnull
+     */
+    protected Task scanByCode(int code) {
+        for (Task task : findAll()) {
             if (task.getCode() == code) {
-                return task; // コードが一致したタスクを返す
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 全てのタスクを読み込み、指定したユーザーが担当しているタスクをコード順に取得します。
+     * 索引を使えない保存形式のサブクラスで使います。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    protected List<Task> scanByRepUser(int userCode) {
+        List<Task> tasks = new ArrayList<>();
+        try (Stream<Task> all = streamAll()) {
+            all.filter(task -> task.getRepUser().getCode() == userCode).forEach(tasks::add);
+        }
+        tasks.sort(Comparator.comparingInt(Task::getCode));
+        return tasks;
+    }
+
+    /**
+     * 指定した位置の行を読み込んでタスクに変換します。不正な行はnullになります。
+     */
+    private List<Task> readLines(long[] offsets, IntFunction<User> users) throws IOException {
+        List<Task> tasks = new ArrayList<>(offsets.length);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            for (long offset : offsets) {
+                tasks.add(parseLine(offset, LineScanner.readLine(channel, offset), users));
             }
+        } finally {
+            malformedRows.summarize();
         }
-        return null; // 見つからなければnullを返す
+        return tasks;
     }
 
     /**
@@ -113,15 +408,105 @@ public class TaskDataAccess {
      * @param updateTask 更新するタスク
      */
     public void update(Task updateTask) {
-        List<Task> tasks = findAll(); // すべてのタスクを取得
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filePath))) {
-            for (Task task : tasks) {
-                if (task.getCode() == updateTask.getCode()) {
-                    pw.println(createLine(updateTask)); // 更新データ
-                } else {
-                    pw.println(createLine(task)); // 変更なし
+        try {
+            // 読み込みから書き直しまでをロックし、他の更新を取りこぼさないようにする
+            FileWriteLock.of(filePath).run(() -> {
+                List<Task> tasks = findAll(); // すべてのタスクを取得
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (tasks.get(i).getCode() == updateTask.getCode()) {
+                        tasks.set(i, updateTask); // 更新データ
+                    }
+                }
+                writeAll(tasks);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 複数のタスクデータをまとめて更新します。
+     * 読み込みと書き直しはそれぞれ1回だけ行います。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    public void updateAll(Collection<Task> updateTasks) {
+        if (updateTasks.isEmpty()) {
+            return;
+        }
+        Map<Integer, Task> updates = new HashMap<>();
+        for (Task task : updateTasks) {
+            updates.put(task.getCode(), task);
+        }
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                List<Task> tasks = findAll();
+                for (int i = 0; i < tasks.size(); i++) {
+                    Task updateTask = updates.get(tasks.get(i).getCode());
+                    if (updateTask != null) {
+                        tasks.set(i, updateTask);
+                    }
                 }
+                writeAll(tasks);
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * タスクを読み込んでから更新するまでを排他するロックを取得します。
+     * 書き込み用のFileWriteLockとは別の「ファイル名.update.lock」で排他するため、
+     * ロックを保持したまま同期化されたサブクラスのメソッドを呼び出してもデッドロックしません。
+     *
+     * @return 取得したロック
+     * @throws AppException ロックの取得に失敗した場合
+     */
+    @Override
+    public UpdateLock lockForUpdate() throws AppException {
+        FileWriteLock.Held held;
+        try {
+            held = FileWriteLock.of(filePath + ".update").acquire();
+        } catch (IOException e) {
+            throw new AppException("タスクデータのロック中にエラーが発生しました: " + e.getMessage());
+        }
+        return () -> {
+            try {
+                held.close();
+            } catch (IOException e) {
+                System.err.println("タスクデータのロックの解放中にエラーが発生しました: " + e.getMessage());
             }
+        };
+    }
+
+    /**
+     * ヘッダー行と全てのタスクでCSVファイルを書き直します。
+     * 一時ファイルに書き込んでから置き換えるため、読み込み側が書きかけのファイルを読むことはありません。
+     *
+     * @param tasks 書き込むタスク
+     */
+    protected void writeAll(Collection<Task> tasks) {
+        Path path = Paths.get(filePath).toAbsolutePath();
+        try {
+            FileWriteLock.of(filePath).run(() -> {
+                index.invalidate();
+                Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+                try {
+                    try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(temp))) {
+                        pw.println(HEADER);
+                        IO.written(HEADER);
+                        for (Task task : tasks) {
+                            String line = createLine(task);
+                            pw.println(line);
+                            IO.written(line);
+                        }
+                    }
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    malformedRows.rewritten();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -141,25 +526,7 @@ public class TaskDataAccess {
      * @param task フォーマットを作成するタスク
      * @return CSVに書き込むためのフォーマット文字列
      */
-    private String createLine(Task task) {
+    protected String createLine(Task task) {
         return String.format("%d,%s,%d,%d", task.getCode(), task.getName(), task.getStatus(), task.getRepUser().getCode());
     }
-
-    /**
-     * 文字列が数値であるかを判定します。
-     *
-     * @param input チェック対象の文字列
-     * @return 数値ならtrue、それ以外はfalse
-     */
-    private boolean isNumeric(String input) {
-        if (input == null || input.isEmpty()) {
-            return false;
-        }
-        try {
-            Integer.parseInt(input);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,169 @@
+package com.taskapp.dataaccess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * tasks.csvの行の位置を、タスクコードと担当ユーザーのコードから引く索引です。
+ * 索引にはコードと担当ユーザーのコードだけを読み取って登録し、タスクへの変換は必要な行だけで行います。
+ * 索引は初めて使う時点で作成し、ファイルの更新日時かサイズが前回から変わっていれば作り直します。
+ * 自身が追記した行は、追記した部分だけを走査して加えます。
+ */
+final class TaskIndex {
+    private static final long[] NO_OFFSETS = new long[0];
+
+    private final Path path;
+    // タスクコードから、そのコードを持つ最初の行の位置を引く索引
+    private final IntLongIndex offsetsByCode = new IntLongIndex();
+    // 担当ユーザーのコードから、そのユーザーが担当する行の位置(ファイル上の順)を引く索引
+    private final Map<Integer, OffsetList> offsetsByRepUser = new HashMap<>();
+    private final CsvLineParser parser = new CsvLineParser();
+    private boolean built;
+    // 索引に登録済みの範囲(最後の改行の直後まで)と、改行で終わっていない最後の行があるか
+    private long indexedLength;
+    private boolean partialTail;
+    private long lastModified = -1;
+    private long size = -1;
+
+    /**
+     * @param path tasks.csvのパス
+     */
+    TaskIndex(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * コードを持つ最初の行の位置を取得します。
+     *
+     * @param code タスクコード
+     * @return 行の先頭のバイト位置、見つからなければ-1
+     */
+    synchronized long offsetOf(int code) throws IOException {
+        refresh();
+        return offsetsByCode.get(code);
+    }
+
+    /**
+     * 担当ユーザーが担当する行の位置をファイル上の順に取得します。
+     *
+     * @param repUserCode 担当ユーザーのコード
+     * @return 行の先頭のバイト位置
+     */
+    synchronized long[] offsetsOf(int repUserCode) throws IOException {
+        refresh();
+        OffsetList offsets = offsetsByRepUser.get(repUserCode);
+        return offsets == null ? NO_OFFSETS : Arrays.copyOf(offsets.values, offsets.size);
+    }
+
+    /**
+     * 索引に登録されているタスクコードの数を取得します。
+     *
+     * @return コードの数
+     */
+    synchronized int size() throws IOException {
+        refresh();
+        return offsetsByCode.size();
+    }
+
+    /**
+     * 索引を作成した後にファイルが変わっていないかを確認します。
+     *
+     * @return 変わっていなければtrue
+     */
+    synchronized boolean isCurrent() {
+        try {
+            return built && Files.getLastModifiedTime(path).toMillis() == lastModified && Files.size(path) == size;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * ファイルへの追記を実行し、追記した行を索引に加えます。
+     * 追記の前に索引が最新でなかった場合は、次に使う時点で作り直します。
+     * FileWriteLockを取得した状態で呼び出してください。
+     *
+     * @param append 追記する処理
+     */
+    synchronized void append(FileWriteLock.IOAction append) throws IOException {
+        boolean current = isCurrent() && !partialTail;
+        append.run();
+        if (current) {
+            scan(indexedLength);
+            recordFileState();
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * 索引を破棄し、次に使う時点で作り直すようにします。
+     */
+    synchronized void invalidate() {
+        built = false;
+    }
+
+    private void refresh() throws IOException {
+        if (isCurrent()) {
+            return;
+        }
+        offsetsByCode.clear();
+        offsetsByRepUser.clear();
+        built = false;
+        scan(0);
+        recordFileState();
+        built = true;
+    }
+
+    /**
+     * 指定した位置から末尾までの行のコードと担当ユーザーのコードを索引に登録します。
+     * 改行で終わっていない最後の行も登録しますが、登録済みの範囲には含めません。
+     */
+    private void scan(long from) throws IOException {
+        partialTail = false;
+        indexedLength = LineScanner.scan(path, from, Long.MAX_VALUE, true, (offset, line) -> {
+            if (offset == 0) {
+                return; // ヘッダー行
+            }
+            if (parser.parse(line) != 4) {
+                return;
+            }
+            long code = parser.intField(0);
+            long repUserCode = parser.intField(3);
+            if (code == CsvLineParser.INVALID || repUserCode == CsvLineParser.INVALID) {
+                return;
+            }
+            offsetsByCode.putIfAbsent((int) code, offset);
+            offsetsByRepUser.computeIfAbsent((int) repUserCode, key -> new OffsetList()).add(offset);
+        });
+        try {
+            partialTail = Files.size(path) > indexedLength;
+        } catch (IOException e) {
+            partialTail = true;
+        }
+    }
+
+    private void recordFileState() throws IOException {
+        lastModified = Files.getLastModifiedTime(path).toMillis();
+        size = Files.size(path);
+    }
+
+    /**
+     * ボクシングを行わない、行の位置の可変長のリストです。
+     */
+    private static final class OffsetList {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.taskapp.dataaccess;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+
+/**
+ * タスクデータの保存先を表すインターフェースです。
+ * 保存形式ごとの実装は{@link RepositoryFactory}で選択します。
+ */
+public interface TaskRepository {
+    /**
+     * 全てのタスクデータを取得します。
+     *
+     * @return タスクのリスト
+     */
+    List<Task> findAll();
+
+    /**
+     * 全てのタスクデータのストリームを取得します。
+     * 利用後は必ずストリームを閉じてください。
+     *
+     * @return タスクのストリーム
+     */
+    Stream<Task> streamAll();
+
+    /**
+     * 条件に該当するタスクを1ページ分取得します。
+     * 並び順を指定しない場合はページが埋まった時点で読み込みを止めます。
+     * 索引を持つ実装では索引を使って取得します。
+     *
+     * @param query 絞り込み条件・並び順・ページ
+     * @return 該当するページ
+     */
+    default TaskPage findPage(TaskQuery query) {
+        try (Stream<Task> tasks = streamAll()) {
+            return query.select(tasks);
+        }
+    }
+
+    /**
+     * 指定したユーザーが担当しているタスクをコード順に取得します。
+     * 索引を持つ実装では全件を読み込まずに取得します。
+     *
+     * @param userCode 担当ユーザーのコード
+     * @return 担当しているタスクのリスト
+     */
+    default List<Task> findByRepUser(int userCode) {
+        try (Stream<Task> tasks = streamAll()) {
+            return tasks.filter(task -> task.getRepUser().getCode() == userCode)
+                    .sorted(Comparator.comparingInt(Task::getCode))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * コードを基にタスクデータを1件取得します。
+     *
+     * @param code 取得するタスクのコード
+     * @return 取得したタスク。存在しない場合はnull
+     */
+    Task findByCode(int code);
+
+    /**
+     * タスクを保存します。
+     *
+     * @param task 保存するタスク
+     */
+    void save(Task task);
+
+    /**
+     * 複数のタスクをまとめて保存します。
+     *
+     * @param tasks 保存するタスク
+     */
+    void saveAll(List<Task> tasks);
+
+    /**
+     * 既に使われているコードがないことを確認してから、複数のタスクをまとめて保存します。
+     * 確認から保存までの間に、他の保存が同じコードを使うことはありません。
+     * 使われているコードが1件でもあれば何も保存しません。
+     *
+     * @param tasks 保存するタスク
+     * @throws AppException 既に使われているコードがある場合、または保存に失敗した場合
+     */
+    void saveAllIfAbsent(List<Task> tasks) throws AppException;
+
+    /**
+     * タスクデータを更新します。
+     *
+     * @param updateTask 更新するタスク
+     */
+    void update(Task updateTask);
+
+    /**
+     * 複数のタスクデータをまとめて更新します。
+     *
+     * @param updateTasks 更新するタスク
+     */
+    void updateAll(Collection<Task> updateTasks);
+
+    /**
+     * タスクを読み込んでから更新するまでを、他のセッションの同じ処理と排他するロックを取得します。
+     * ファイルに保存する実装では、別のプロセスとの間でも排他します。
+     * 取得したロックは必ずcloseで解放してください。
+     *
+     * @return 取得したロック
+     * @throws AppException ロックの取得に失敗した場合
+     */
+    default UpdateLock lockForUpdate() throws AppException {
+        return () -> {
+        };
+    }
+
+    /**
+     * lockForUpdateで取得したロックです。
+     */
+    interface UpdateLock extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
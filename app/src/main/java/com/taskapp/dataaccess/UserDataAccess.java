@@ -3,14 +3,28 @@ package com.taskapp.dataaccess;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.User;
 
-public class UserDataAccess {
+public class UserDataAccess implements UserRepository {
+    private static final IoMetrics IO = Metrics.io("users");
     private final String filePath;
+    // メールアドレスをキーにしたログイン用の索引(初回のログイン時に作成)
+    private Map<String, User> emailIndex;
+    private long indexedModified = -1;
+    private long indexedSize = -1;
 
     public UserDataAccess() {
-        filePath = "app\\src\\main\\resources\\users.csv"; // CSVファイルのパス
+        filePath = "app/src/main/resources/users.csv"; // CSVファイルのパス
     }
 
     /**
@@ -29,55 +43,103 @@ public class UserDataAccess {
      */
     // UserDataAccessクラスでuser.csvの読み込みエラーがあった
     public User findByEmailAndPassword(String email, String password) {
+        User user = emailIndex().get(email);
+        if (user == null || !user.getPassword().equals(password)) {
+            return null;  // ユーザーが見つからない場合
+        }
+        return user;
+    }
+
+    /**
+     * メールアドレスの索引を取得します。
+     * 未作成の場合や、users.csvの更新日時かサイズが変わっていた場合は作り直します。
+     * @return メールアドレスをキーにしたユーザーのマップ
+     */
+    private synchronized Map<String, User> emailIndex() {
+        long modified;
+        long size;
+        try {
+            Path path = Paths.get(filePath);
+            modified = Files.getLastModifiedTime(path).toMillis();
+            size = Files.size(path);
+        } catch (IOException e) {
+            System.out.println("CSVファイルの読み込み中にエラーが発生しました: " + e.getMessage());
+            return Collections.emptyMap();
+        }
+
+        if (emailIndex == null || modified != indexedModified || size != indexedSize) {
+            Map<String, User> index = new HashMap<>();
+            for (User user : findAllAsMap().values()) {
+                // 同じメールアドレスが複数ある場合は先に出てくる行を優先する
+                index.putIfAbsent(user.getEmail(), user);
+            }
+            emailIndex = index;
+            indexedModified = modified;
+            indexedSize = size;
+        }
+        return emailIndex;
+    }
+
+    /**
+     * コードを基にユーザーデータを取得します。
+     * @param code 取得するユーザーのコード
+     * @return 見つかったユーザー
+     */
+    public User findByCode(int code) {
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String line;
-            
-            // 最初の行（ヘッダー行）を読み飛ばす
             br.readLine(); // ヘッダー行をスキップ
-    
+            CsvLineParser parser = new CsvLineParser();
             while ((line = br.readLine()) != null) {
-                String[] data = line.split(",",-1);
-    
-                // データの長さが正しいか確認
-                if (data.length == 4) {
-                    // メールアドレスとパスワードが一致するかを確認
-                    if (data[2].equals(email) && data[3].equals(password)) {
-                        int code = Integer.parseInt(data[0]);
-                        String userName = data[1];
-                        return new User(code, email, password, userName);
-                    }
+                boolean parsed = parser.parse(line) == 4;
+                IO.read(line, parsed);
+                if (parsed && parser.intField(0) == code) {
+                    return toUser(parser);
                 }
             }
         } catch (IOException e) {
             System.out.println("CSVファイルの読み込み中にエラーが発生しました: " + e.getMessage());
         }
-    
-        return null;  // ユーザーが見つからない場合
+
+        return null;
     }
 
     /**
-     * コードを基にユーザーデータを取得します。
-     * @param code 取得するユーザーのコード
-     * @return 見つかったユーザー
+     * 全てのユーザーデータをコードをキーにしたマップとして取得します。
+     * CSVファイルは1回だけ読み込みます。
+     * @return ユーザーコードをキーにしたユーザーのマップ
      */
-    public User findByCode(int code) {
+    public Map<Integer, User> findAllAsMap() {
+        Map<Integer, User> users = new LinkedHashMap<>();
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             String line;
             br.readLine(); // ヘッダー行をスキップ
+            CsvLineParser parser = new CsvLineParser();
             while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-
-                if (data.length == 4 && Integer.parseInt(data[0]) == code) {
-                    String email = data[1];
-                    String password = data[2];
-                    String userName = data[3];
-                    return new User(code, email, password, userName);
+                // カラム数かコードが不正な行は読み飛ばす
+                User user = parser.parse(line) == 4 ? toUser(parser) : null;
+                IO.read(line, user != null);
+                if (user != null) {
+                    users.put(user.getCode(), user);
                 }
             }
         } catch (IOException e) {
             System.out.println("CSVファイルの読み込み中にエラーが発生しました: " + e.getMessage());
         }
 
-        return null;
+        return users;
+    }
+
+    /**
+     * 区切り済みの行をユーザーに変換します。
+     * @param parser 行を区切ったパーサー
+     * @return 変換したユーザー、コードが数値でなければnull
+     */
+    private User toUser(CsvLineParser parser) {
+        long code = parser.intField(0);
+        if (code == CsvLineParser.INVALID) {
+            return null;
+        }
+        return new User((int) code, parser.field(1), parser.field(2), parser.field(3));
     }
 }
@@ -0,0 +1,35 @@
+package com.taskapp.dataaccess;
+
+import java.util.Map;
+
+import com.taskapp.model.User;
+
+/**
+ * ユーザーデータの保存先を表すインターフェースです。
+ * 保存形式ごとの実装は{@link RepositoryFactory}で選択します。
+ */
+public interface UserRepository {
+    /**
+     * メールアドレスとパスワードを基にユーザーデータを探します。
+     *
+     * @param email メールアドレス
+     * @param password パスワード
+     * @return 見つかったユーザー。存在しない場合はnull
+     */
+    User findByEmailAndPassword(String email, String password);
+
+    /**
+     * コードを基にユーザーデータを取得します。
+     *
+     * @param code 取得するユーザーのコード
+     * @return 見つかったユーザー。存在しない場合はnull
+     */
+    User findByCode(int code);
+
+    /**
+     * 全てのユーザーをコードをキーにしたMapで取得します。
+     *
+     * @return ユーザーコードとユーザーのMap
+     */
+    Map<Integer, User> findAllAsMap();
+}
@@ -0,0 +1,136 @@
+package com.taskapp.logic;
+
+import java.io.BufferedReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Map;
+
+import com.taskapp.dataaccess.LogRepository;
+import com.taskapp.dataaccess.RepositoryFactory;
+import com.taskapp.dataaccess.TaskRepository;
+import com.taskapp.dataaccess.UserRepository;
+import com.taskapp.exception.AppException;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+import com.taskapp.model.User;
+
+/**
+ * TaskLogicの各操作の呼び出し回数と処理時間を{@link Metrics}に記録するTaskLogicです。
+ * 処理は全てTaskLogicに任せます。表示の操作はWriterを受け取る方だけを計測するため、
+ * コンソールへの表示も二重には数えません。
+ */
+public class InstrumentedTaskLogic extends TaskLogic {
+    private static final OperationMetrics SHOW_ALL = Metrics.operation("TaskLogic.showAll");
+    private static final OperationMetrics SHOW_PAGE = Metrics.operation("TaskLogic.showPage");
+    private static final OperationMetrics SHOW_MY_TASKS = Metrics.operation("TaskLogic.showMyTasks");
+    private static final OperationMetrics SAVE = Metrics.operation("TaskLogic.save");
+    private static final OperationMetrics SAVE_ALL = Metrics.operation("TaskLogic.saveAll");
+    private static final OperationMetrics UPDATE_TASK_NAME = Metrics.operation("TaskLogic.updateTaskName");
+    private static final OperationMetrics CHANGE_STATUS = Metrics.operation("TaskLogic.changeStatus");
+    private static final OperationMetrics CHANGE_STATUS_BATCH = Metrics.operation("TaskLogic.changeStatusBatch");
+
+    // 保存先は設定(taskapp.propertiesまたはシステムプロパティ)に従って作成する
+    public InstrumentedTaskLogic() {
+        super();
+    }
+
+    public InstrumentedTaskLogic(RepositoryFactory factory) {
+        super(factory);
+    }
+
+    public InstrumentedTaskLogic(TaskRepository taskDataAccess, LogRepository logDataAccess,
+            UserRepository userDataAccess) {
+        super(taskDataAccess, logDataAccess, userDataAccess);
+    }
+
+    protected InstrumentedTaskLogic(TaskLogic base, PrintStream out) {
+        super(base, out);
+    }
+
+    @Override
+    public TaskLogic forSession(PrintStream out) {
+        return new InstrumentedTaskLogic(this, out);
+    }
+
+    @Override
+    public void showAll(User loginUser, Writer out) {
+        long start = System.nanoTime();
+        try {
+            super.showAll(loginUser, out);
+        } finally {
+            SHOW_ALL.record(start);
+        }
+    }
+
+    @Override
+    public TaskPage showPage(TaskQuery query, User loginUser, Writer out) {
+        long start = System.nanoTime();
+        try {
+            return super.showPage(query, loginUser, out);
+        } finally {
+            SHOW_PAGE.record(start);
+        }
+    }
+
+    @Override
+    public int showMyTasks(User loginUser, Writer out) {
+        long start = System.nanoTime();
+        try {
+            return super.showMyTasks(loginUser, out);
+        } finally {
+            SHOW_MY_TASKS.record(start);
+        }
+    }
+
+    @Override
+    public void save(int code, String name, int repUserCode, User loginUser) throws AppException {
+        long start = System.nanoTime();
+        try {
+            super.save(code, name, repUserCode, loginUser);
+        } finally {
+            SAVE.record(start);
+        }
+    }
+
+    @Override
+    public int saveAll(BufferedReader reader, User loginUser) throws AppException {
+        long start = System.nanoTime();
+        try {
+            return super.saveAll(reader, loginUser);
+        } finally {
+            SAVE_ALL.record(start);
+        }
+    }
+
+    @Override
+    public void updateTaskName(int taskCode, String newTaskName, User loginUser) throws AppException {
+        long start = System.nanoTime();
+        try {
+            super.updateTaskName(taskCode, newTaskName, loginUser);
+        } finally {
+            UPDATE_TASK_NAME.record(start);
+        }
+    }
+
+    @Override
+    public void changeStatus(int code, int status, User loginUser) throws AppException {
+        long start = System.nanoTime();
+        try {
+            super.changeStatus(code, status, loginUser);
+        } finally {
+            CHANGE_STATUS.record(start);
+        }
+    }
+
+    @Override
+    public Map<Integer, String> changeStatusBatch(Map<Integer, Integer> statuses, User loginUser) {
+        long start = System.nanoTime();
+        try {
+            return super.changeStatusBatch(statuses, loginUser);
+        } finally {
+            CHANGE_STATUS_BATCH.record(start);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.taskapp.logic;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+/**
+ * タスク一覧の行を組み立て、まとめてWriterへ書き込むクラスです。
+ * 行は使い回すバッファに追加し、一定の大きさになった時点で書き込みます。
+ * 最後に必ずflushを呼び出してください。
+ */
+public class TaskListRenderer {
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+    private static final String[] STATUS_LABELS = { "未着手", "着手中", "完了" };
+    private static final String UNKNOWN_STATUS = "不明なステータス";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final User loginUser;
+    private final int chunkSize;
+    private final StringBuilder buffer;
+    private char[] chars;
+    // 担当者ごとの表示名(同じ担当者の文字列を行ごとに作らない)
+    private final Map<Integer, String> responsibleNames = new HashMap<>();
+
+    /**
+     * @param out 書き込み先
+     * @param loginUser ログインユーザー
+     */
+    public TaskListRenderer(Writer out, User loginUser) {
+        this(out, loginUser, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param out 書き込み先
+     * @param loginUser ログインユーザー
+     * @param chunkSize 1回に書き込む文字数の目安
+     */
+    public TaskListRenderer(Writer out, User loginUser, int chunkSize) {
+        this.out = out;
+        this.loginUser = loginUser;
+        this.chunkSize = chunkSize;
+        this.buffer = new StringBuilder(chunkSize + 256);
+        this.chars = new char[chunkSize + 256];
+    }
+
+    /**
+     * タスクを1行追加します。
+     *
+     * @param task 追加するタスク
+     */
+    public void render(Task task) throws IOException {
+        buffer.append(task.getCode())
+                .append(". タスク名：").append(task.getName())
+                .append(", 担当者名：").append(responsibleName(task.getRepUser()))
+                .append(", ステータス：").append(statusLabel(task.getStatus()))
+                .append(LINE_SEPARATOR);
+        if (buffer.length() >= chunkSize) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * 任意の1行を追加します。
+     *
+     * @param line 追加する行
+     */
+    public void println(String line) throws IOException {
+        buffer.append(line).append(LINE_SEPARATOR);
+        if (buffer.length() >= chunkSize) {
+            writeBuffer();
+        }
+    }
+
+    /**
+     * バッファに残っている行を書き込み、Writerをフラッシュします。
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        out.flush();
+    }
+
+    /**
+     * ステータスの表示名を取得します。
+     *
+     * @param status ステータス
+     * @return 表示名
+     */
+    static String statusLabel(int status) {
+        return status >= 0 && status < STATUS_LABELS.length ? STATUS_LABELS[status] : UNKNOWN_STATUS;
+    }
+
+    private String responsibleName(User responsibleUser) {
+        if (responsibleUser.getCode() == loginUser.getCode()) {
+            return "あなたが担当しています";
+        }
+        return responsibleNames.computeIfAbsent(responsibleUser.getCode(),
+                code -> responsibleUser.getName() + "が担当しています");
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+    }
+}
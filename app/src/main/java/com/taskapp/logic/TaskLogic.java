@@ -1,58 +1,246 @@
 package com.taskapp.logic;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
-import com.taskapp.dataaccess.LogDataAccess;
-import com.taskapp.dataaccess.TaskDataAccess;
-import com.taskapp.dataaccess.UserDataAccess;
+import com.taskapp.dataaccess.CsvLineParser;
+import com.taskapp.dataaccess.InstrumentedLogRepository;
+import com.taskapp.dataaccess.InstrumentedTaskRepository;
+import com.taskapp.dataaccess.InstrumentedUserRepository;
+import com.taskapp.dataaccess.LogAnalytics;
+import com.taskapp.dataaccess.LogRepository;
+import com.taskapp.dataaccess.RepositoryFactory;
+import com.taskapp.dataaccess.TaskRepository;
+import com.taskapp.dataaccess.UserRepository;
 import com.taskapp.exception.AppException;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.Log;
 import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
 import com.taskapp.model.User;
 
 public class TaskLogic {
-    private final TaskDataAccess taskDataAccess;
-    private final LogDataAccess logDataAccess;
-    private final UserDataAccess userDataAccess;
+    private final TaskRepository taskDataAccess;
+    private final LogRepository logDataAccess;
+    private final UserRepository userDataAccess;
+    // CSV形式のログの場合だけ作成する
+    private final LogAnalytics logAnalytics;
+    // 表示先。nullの場合は表示のたびにSystem.outを使う
+    private final PrintStream out;
 
+    // 保存先は設定(taskapp.propertiesまたはシステムプロパティ)に従って作成する
     public TaskLogic() {
-        taskDataAccess = new TaskDataAccess();
-        logDataAccess = new LogDataAccess();
-        userDataAccess = new UserDataAccess();
+        this(RepositoryFactory.fromEnvironment());
     }
 
-    public TaskLogic(TaskDataAccess taskDataAccess, LogDataAccess logDataAccess, UserDataAccess userDataAccess) {
+    // 保存先の呼び出し回数と処理時間はMetricsに記録する
+    public TaskLogic(RepositoryFactory factory) {
+        userDataAccess = new InstrumentedUserRepository(factory.createUserRepository());
+        taskDataAccess = new InstrumentedTaskRepository(factory.createTaskRepository(userDataAccess));
+        LogRepository logs = factory.createLogRepository();
+        logDataAccess = new InstrumentedLogRepository(logs);
+        logAnalytics = LogAnalytics.forRepository(logs);
+        out = null;
+    }
+
+    public TaskLogic(TaskRepository taskDataAccess, LogRepository logDataAccess, UserRepository userDataAccess) {
+        this(taskDataAccess, logDataAccess, userDataAccess, null);
+    }
+
+    // 表示先を指定する依存性注入用のコンストラクタ
+    public TaskLogic(TaskRepository taskDataAccess, LogRepository logDataAccess, UserRepository userDataAccess,
+            PrintStream out) {
         this.taskDataAccess = taskDataAccess;
         this.logDataAccess = logDataAccess;
         this.userDataAccess = userDataAccess;
+        this.logAnalytics = LogAnalytics.forRepository(logDataAccess);
+        this.out = out;
+    }
+
+    // 保存先を共有し、表示先だけを替える
+    protected TaskLogic(TaskLogic base, PrintStream out) {
+        this.taskDataAccess = base.taskDataAccess;
+        this.logDataAccess = base.logDataAccess;
+        this.userDataAccess = base.userDataAccess;
+        this.logAnalytics = base.logAnalytics;
+        this.out = out;
+    }
+
+    /**
+     * 保存先を共有し、指定した表示先へ結果を表示するTaskLogicを作成します。
+     * サーバーではセッションごとに作成し、各セッションの接続へ表示します。
+     *
+     * @param out 表示先
+     * @return 表示先を替えたTaskLogic
+     */
+    public TaskLogic forSession(PrintStream out) {
+        return new TaskLogic(this, out);
     }
 
     public void showAll(User loginUser) {
-        List<Task> tasks = taskDataAccess.findAll();
-        tasks.stream()
-            .forEach(task -> {
-                User responsibleUser = task.getRepUser();
-                String responsibleName = (responsibleUser.getCode() == loginUser.getCode()) ?
-                    "あなたが担当しています" : responsibleUser.getName() + "が担当しています";
+        showAll(loginUser, consoleWriter());
+    }
 
-                String status = getStatusString(task.getStatus());
+    /**
+     * 全てのタスクを指定したWriterへ表示します。
+     * 1行ずつ読み込みながら組み立て、まとめて書き込むため全件をメモリに持ちません。
+     * Writerはフラッシュしますが閉じません。
+     *
+     * @param loginUser ログインユーザー
+     * @param out 表示先
+     */
+    public void showAll(User loginUser, Writer out) {
+        TaskListRenderer renderer = new TaskListRenderer(out, loginUser);
+        try (Stream<Task> tasks = taskDataAccess.streamAll()) {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                renderer.render(iterator.next());
+            }
+            renderer.flush();
+        } catch (IOException e) {
+            System.err.println("タスク一覧の表示中にエラーが発生しました: " + e.getMessage());
+        }
+    }
 
-                System.out.printf("%d. タスク名：%s, 担当者名：%s, ステータス：%s%n",
-                    task.getCode(),
-                    task.getName(),
-                    responsibleName,
-                    status);
-            });
+    /**
+     * 条件に該当するタスクを1ページ分表示します。
+     * 保存先からはページに必要な分だけを読み込みます。
+     *
+     * @param query 絞り込み条件・並び順・ページ
+     * @param loginUser ログインユーザー
+     * @return 表示したページ
+     */
+    public TaskPage showPage(TaskQuery query, User loginUser) {
+        return showPage(query, loginUser, consoleWriter());
     }
 
-    private String getStatusString(int status) {
-        switch (status) {
-            case 0: return "未着手";
-            case 1: return "着手中";
-            case 2: return "完了";
-            default: return "不明なステータス";
+    /**
+     * 条件に該当するタスクを1ページ分、指定したWriterへ表示します。
+     * Writerはフラッシュしますが閉じません。
+     *
+     * @param query 絞り込み条件・並び順・ページ
+     * @param loginUser ログインユーザー
+     * @param out 表示先
+     * @return 表示したページ
+     */
+    public TaskPage showPage(TaskQuery query, User loginUser, Writer out) {
+        TaskPage page = taskDataAccess.findPage(query);
+        TaskListRenderer renderer = new TaskListRenderer(out, loginUser);
+        try {
+            if (page.getTasks().isEmpty()) {
+                renderer.println("該当するタスクはありません");
+            }
+            for (Task task : page.getTasks()) {
+                renderer.render(task);
+            }
+            renderer.println("(" + (page.getPage() + 1) + "ページ目"
+                    + (page.hasNext() ? "、次のページがあります" : "") + ")");
+            renderer.flush();
+        } catch (IOException e) {
+            System.err.println("タスク一覧の表示中にエラーが発生しました: " + e.getMessage());
         }
+        return page;
+    }
+
+    /**
+     * ログインユーザーが担当しているタスクをコード順に表示します。
+     * 担当ユーザーの索引を持つ保存先では、他のユーザーのタスクを読み込みません。
+     *
+     * @param loginUser ログインユーザー
+     * @return 表示したタスクの件数
+     */
+    public int showMyTasks(User loginUser) {
+        return showMyTasks(loginUser, consoleWriter());
+    }
+
+    /**
+     * ログインユーザーが担当しているタスクをコード順に、指定したWriterへ表示します。
+     * Writerはフラッシュしますが閉じません。
+     *
+     * @param loginUser ログインユーザー
+     * @param out 表示先
+     * @return 表示したタスクの件数
+     */
+    public int showMyTasks(User loginUser, Writer out) {
+        List<Task> tasks = taskDataAccess.findByRepUser(loginUser.getCode());
+        TaskListRenderer renderer = new TaskListRenderer(out, loginUser);
+        try {
+            if (tasks.isEmpty()) {
+                renderer.println("担当しているタスクはありません");
+            }
+            for (Task task : tasks) {
+                renderer.render(task);
+            }
+            renderer.flush();
+        } catch (IOException e) {
+            System.err.println("タスク一覧の表示中にエラーが発生しました: " + e.getMessage());
+        }
+        return tasks.size();
+    }
+
+    /**
+     * 計測した処理時間と読み書きの量を表示します。
+     */
+    public void showDiagnostics() {
+        showDiagnostics(consoleWriter());
+    }
+
+    /**
+     * 処理ごとの呼び出し回数と処理時間、CSVファイルごとの読み書きの量を指定したWriterへ表示します。
+     * CSV形式のログの場合は、ログから集計した平均サイクルタイムと着手中のタスク件数も表示します。
+     * Writerはフラッシュしますが閉じません。
+     *
+     * @param out 表示先
+     */
+    public void showDiagnostics(Writer out) {
+        try {
+            if (!Metrics.isEnabled()) {
+                out.write("計測は無効です(taskapp.metrics=false)" + System.lineSeparator());
+            }
+            out.write(Metrics.report());
+            out.write(System.lineSeparator() + analyticsReport());
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("診断情報の表示中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private String analyticsReport() {
+        if (logAnalytics == null) {
+            return "ログの集計はCSV形式のログ(taskapp.log.storage=csv)でのみ表示します" + System.lineSeparator();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("平均サイクルタイム: %.1f日%n", logAnalytics.getAverageCycleTimeDays()));
+        Map.Entry<LocalDate, Integer> wip = logAnalytics.getWorkInProgressPerDay().lastEntry();
+        if (wip == null) {
+            sb.append(String.format("着手中のタスク: 0件%n"));
+        } else {
+            sb.append(String.format("着手中のタスク: %d件(%sの時点)%n", wip.getValue(), wip.getKey()));
+        }
+        return sb.toString();
+    }
+
+    private PrintStream out() {
+        return out != null ? out : System.out;
+    }
+
+    private Writer consoleWriter() {
+        PrintStream target = out();
+        return new OutputStreamWriter(target, target.charset());
     }
 
     public void save(int code, String name, int repUserCode, User loginUser) throws AppException {
@@ -61,6 +249,11 @@ public class TaskLogic {
             throw new AppException("存在するユーザーコードを入力してください");
         }
 
+        // 既に使われているコードでは保存もログの記録も行わない
+        if (taskDataAccess.findByCode(code) != null) {
+            throw new AppException("タスクコード" + code + "は既に使われています");
+        }
+
         Task task = new Task(code, name, 0, responsibleUser);
         taskDataAccess.save(task);
 
@@ -68,43 +261,205 @@ public class TaskLogic {
         logDataAccess.save(log);
     }
 
-    public void updateTaskName(int taskCode, String newTaskName, User loginUser) throws AppException {
-        Task task = taskDataAccess.findByCode(taskCode);
-        if (task == null) {
-            throw new AppException("指定されたタスクが存在しません");
+    /**
+     * CSV形式で渡された複数のタスクをまとめて登録します。
+     * 各行は「コード,タスク名,担当ユーザーコード」の形式で、先頭のヘッダー行は省略できます。
+     * 全ての行を検証し、1件でも不正な行があれば何も登録せずに例外をスローします。
+     * 既に使われているコードの確認はタスクの保存と同じ排他の中で行い、使われていれば何も登録しません。
+     * 問題がなければタスクとログをそれぞれ1回の書き込みで保存します。
+     *
+     * @param reader 登録するタスクのCSV
+     * @param loginUser ログインユーザー
+     * @return 登録したタスクの件数
+     * @throws AppException 不正な行がある場合、または読み込みに失敗した場合
+     */
+    public int saveAll(BufferedReader reader, User loginUser) throws AppException {
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+        Set<Integer> codes = new HashSet<>();
+
+        List<Task> tasks = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        CsvLineParser parser = new CsvLineParser();
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (parser.parse(line) != 3) {
+                    errors.add(lineNumber + "行目：項目数が正しくありません");
+                    continue;
+                }
+                long code = parser.intField(0);
+                long repUserCode = parser.intField(2);
+                if (code == CsvLineParser.INVALID && lineNumber == 1) {
+                    continue; // ヘッダー行
+                }
+                if (code == CsvLineParser.INVALID || code <= 0 || repUserCode == CsvLineParser.INVALID) {
+                    errors.add(lineNumber + "行目：コードは半角の数字で入力してください");
+                    continue;
+                }
+                String name = parser.field(1);
+                if (name.isEmpty()) {
+                    errors.add(lineNumber + "行目：タスク名を入力してください");
+                    continue;
+                }
+                User responsibleUser = users.get((int) repUserCode);
+                if (responsibleUser == null) {
+                    errors.add(lineNumber + "行目：存在するユーザーコードを入力してください");
+                    continue;
+                }
+                if (!codes.add((int) code)) {
+                    errors.add(lineNumber + "行目：タスクコード" + code + "が重複しています");
+                    continue;
+                }
+                tasks.add(new Task((int) code, name, 0, responsibleUser));
+            }
+        } catch (IOException e) {
+            throw new AppException("タスクの読み込み中にエラーが発生しました：" + e.getMessage());
         }
 
-        if (task.getRepUser().getCode() != loginUser.getCode()) {
-            throw new AppException("このタスクの更新権限がありません");
+        if (!errors.isEmpty()) {
+            throw new AppException(formatErrors(errors));
+        }
+        if (tasks.isEmpty()) {
+            return 0;
         }
 
-        task.setName(newTaskName);
-        taskDataAccess.update(task);
+        LocalDate today = LocalDate.now();
+        List<Log> logs = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            logs.add(new Log(task.getCode(), loginUser.getCode(), 0, today));
+        }
+        taskDataAccess.saveAllIfAbsent(tasks);
+        logDataAccess.saveAll(logs);
+        return tasks.size();
+    }
 
-        Log log = new Log(taskCode, loginUser.getCode(), task.getStatus(), LocalDate.now());
-        logDataAccess.save(log);
+    private String formatErrors(List<String> errors) {
+        int shown = Math.min(errors.size(), 10);
+        StringBuilder message = new StringBuilder("登録できない行があります");
+        for (int i = 0; i < shown; i++) {
+            message.append(System.lineSeparator()).append(errors.get(i));
+        }
+        if (errors.size() > shown) {
+            message.append(System.lineSeparator()).append("ほか").append(errors.size() - shown).append("件");
+        }
+        return message.toString();
+    }
 
-        System.out.println("タスク名が更新されました：" + newTaskName);
+    @SuppressWarnings("try") // 更新のロックは解放のためだけに持ち、本体では参照しない
+    public void updateTaskName(int taskCode, String newTaskName, User loginUser) throws AppException {
+        // 読み込みから更新までを、別のセッションやプロセスの更新と排他する
+        try (TaskRepository.UpdateLock lock = taskDataAccess.lockForUpdate()) {
+            Task task = taskDataAccess.findByCode(taskCode);
+            if (task == null) {
+                throw new AppException("指定されたタスクが存在しません");
+            }
+
+            if (task.getRepUser().getCode() != loginUser.getCode()) {
+                throw new AppException("このタスクの更新権限がありません");
+            }
+
+            task.setName(newTaskName);
+            taskDataAccess.update(task);
+
+            Log log = new Log(taskCode, loginUser.getCode(), task.getStatus(), LocalDate.now());
+            logDataAccess.save(log);
+        }
+
+        out().println("タスク名が更新されました：" + newTaskName);
     }
 
+    @SuppressWarnings("try") // 更新のロックは解放のためだけに持ち、本体では参照しない
     public void changeStatus(int code, int status, User loginUser) throws AppException {
-        Task task = taskDataAccess.findByCode(code);
-        if (task == null) {
-            throw new AppException("存在するタスクコードを入力してください");
+        // 読み込みから更新までを、別のセッションやプロセスの更新と排他する
+        try (TaskRepository.UpdateLock lock = taskDataAccess.lockForUpdate()) {
+            Task task = taskDataAccess.findByCode(code);
+            if (task == null) {
+                throw new AppException("存在するタスクコードを入力してください");
+            }
+            int currentStatus = task.getStatus();
+
+            if (status != currentStatus + 1) {
+                throw new AppException("前のステータスより1つ先のもののみを選択してください");
+            }
+
+            task.setStatus(status);
+            taskDataAccess.update(task);
+
+            Log log = new Log(code, loginUser.getCode(), status, LocalDate.now());
+            logDataAccess.save(log);
         }
-        int currentStatus = task.getStatus();
 
-        if (status != currentStatus + 1) {
-            throw new AppException("前のステータスより1つ先のもののみを選択してください");
+        out().println("タスクのステータスが変更されました");
+    }
+
+    /**
+     * 複数のタスクのステータスをまとめて変更します。
+     * 変更の条件はchangeStatusと同じく、現在のステータスより1つ先のもののみです。
+     * 画面を通さずに呼ばれるため、ステータスが1・2であることもここで確認します。
+     * 条件を満たさないタスクがあっても残りのタスクは変更し、失敗したタスクとその理由を返します。
+     * タスクの読み込みと書き直し、ログの追記はそれぞれ1回だけ行います。
+     *
+     * @param statuses タスクコードと変更後のステータス
+     * @param loginUser ログインユーザー
+     * @return 変更できなかったタスクコードと理由
+     */
+    @SuppressWarnings("try") // 更新のロックは解放のためだけに持ち、本体では参照しない
+    public Map<Integer, String> changeStatusBatch(Map<Integer, Integer> statuses, User loginUser) {
+        Map<Integer, String> failures = new LinkedHashMap<>();
+        if (statuses.isEmpty()) {
+            return failures;
         }
 
-        task.setStatus(status);
-        taskDataAccess.update(task);
+        // 読み込みから更新までを、別のセッションやプロセスの更新と排他する
+        try (TaskRepository.UpdateLock lock = taskDataAccess.lockForUpdate()) {
+            Map<Integer, Task> tasks = new HashMap<>();
+            for (Task task : taskDataAccess.findAll()) {
+                if (statuses.containsKey(task.getCode())) {
+                    tasks.put(task.getCode(), task);
+                }
+            }
 
-        Log log = new Log(code, loginUser.getCode(), status, LocalDate.now());
-        logDataAccess.save(log);
+            List<Task> updates = new ArrayList<>();
+            List<Log> logs = new ArrayList<>();
+            LocalDate today = LocalDate.now();
+            for (Map.Entry<Integer, Integer> entry : statuses.entrySet()) {
+                int code = entry.getKey();
+                int status = entry.getValue();
+                if (status != 1 && status != 2) {
+                    failures.put(code, "ステータスは1・2の中から選択してください");
+                    continue;
+                }
+                Task task = tasks.get(code);
+                if (task == null) {
+                    failures.put(code, "存在するタスクコードを入力してください");
+                    continue;
+                }
+                if (status != task.getStatus() + 1) {
+                    failures.put(code, "前のステータスより1つ先のもののみを選択してください");
+                    continue;
+                }
+                task.setStatus(status);
+                updates.add(task);
+                logs.add(new Log(code, loginUser.getCode(), status, today));
+            }
+
+            if (!updates.isEmpty()) {
+                taskDataAccess.updateAll(updates);
+                logDataAccess.saveAll(logs);
+            }
+        } catch (AppException e) {
+            for (int code : statuses.keySet()) {
+                failures.putIfAbsent(code, e.getMessage());
+            }
+        }
 
-        System.out.println("タスクのステータスが変更されました");
+        out().println((statuses.size() - failures.size()) + "件のタスクのステータスが変更されました");
+        return failures;
     }
 
     // public void delete(int code) throws AppException {
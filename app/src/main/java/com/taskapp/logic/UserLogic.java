@@ -1,19 +1,42 @@
 package com.taskapp.logic;
 
-import com.taskapp.dataaccess.UserDataAccess;
+import java.io.PrintStream;
+
+import com.taskapp.dataaccess.InstrumentedUserRepository;
+import com.taskapp.dataaccess.RepositoryFactory;
+import com.taskapp.dataaccess.UserRepository;
 import com.taskapp.exception.AppException;
 import com.taskapp.model.User;
 
 public class UserLogic {
-    private final UserDataAccess userDataAccess;
+    private final UserRepository userDataAccess;
+    // 表示先。nullの場合は表示のたびにSystem.outを使う
+    private final PrintStream out;
 
+    // 保存先は設定(taskapp.propertiesまたはシステムプロパティ)に従って作成する
     public UserLogic() {
-        userDataAccess = new UserDataAccess();
+        this(new InstrumentedUserRepository(RepositoryFactory.fromEnvironment().createUserRepository()));
     }
 
     // 依存性注入用のコンストラクタ
-    public UserLogic(UserDataAccess userDataAccess) {
+    public UserLogic(UserRepository userDataAccess) {
+        this(userDataAccess, null);
+    }
+
+    // 表示先を指定する依存性注入用のコンストラクタ
+    public UserLogic(UserRepository userDataAccess, PrintStream out) {
         this.userDataAccess = userDataAccess;
+        this.out = out;
+    }
+
+    /**
+     * 保存先を共有し、指定した表示先へ結果を表示するUserLogicを作成します。
+     *
+     * @param out 表示先
+     * @return 表示先を替えたUserLogic
+     */
+    public UserLogic forSession(PrintStream out) {
+        return new UserLogic(userDataAccess, out);
     }
 
     /**
@@ -33,7 +56,7 @@ public class UserLogic {
             throw new AppException("メールアドレスまたはパスワードが間違っています。");
         }
 
-        System.out.println("ユーザー名：" + user.getName() + "でログインしました。");
+        (out != null ? out : System.out).println("ユーザー名：" + user.getName() + "でログインしました。");
         return user;
     }
 }
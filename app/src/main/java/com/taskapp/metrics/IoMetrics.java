@@ -0,0 +1,120 @@
+package com.taskapp.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 1つのデータファイルについて、変換した行・読み飛ばした行の数と読み書きしたバイト数を記録します。
+ * CSVファイルのバイト数は行をUTF-8で表したときの長さに改行の1バイトを加えたものです。
+ * バイナリ形式のファイルは、レコードを1行として数え、読み書きしたバイト数をそのまま記録します。
+ */
+public final class IoMetrics {
+    private final String name;
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder rowsSkipped = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    IoMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 読み込んだ1行を記録します。
+     *
+     * @param line 読み込んだ行(改行を含まない)
+     * @param parsed 変換できた場合はtrue、読み飛ばした場合はfalse
+     */
+    public void read(String line, boolean parsed) {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        (parsed ? rowsParsed : rowsSkipped).increment();
+        bytesRead.add(utf8Length(line) + 1);
+    }
+
+    /**
+     * 書き込んだ1行を記録します。
+     *
+     * @param line 書き込んだ行(改行を含まない)
+     */
+    public void written(String line) {
+        if (Metrics.isEnabled()) {
+            bytesWritten.add(utf8Length(line) + 1);
+        }
+    }
+
+    /**
+     * バイナリ形式のファイルから読み込んだ1レコードを記録します。
+     * 読み込んだバイト数は{@link #readBytes(long)}で別に記録してください。
+     *
+     * @param parsed 変換できた場合はtrue、読み飛ばした場合はfalse
+     */
+    public void readRecord(boolean parsed) {
+        if (Metrics.isEnabled()) {
+            (parsed ? rowsParsed : rowsSkipped).increment();
+        }
+    }
+
+    /**
+     * バイナリ形式のファイルから読み込んだバイト数を記録します。
+     *
+     * @param bytes 読み込んだバイト数
+     */
+    public void readBytes(long bytes) {
+        if (Metrics.isEnabled()) {
+            bytesRead.add(bytes);
+        }
+    }
+
+    /**
+     * バイナリ形式のファイルに書き込んだバイト数を記録します。
+     *
+     * @param bytes 書き込んだバイト数
+     */
+    public void writtenBytes(long bytes) {
+        if (Metrics.isEnabled()) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    void reset() {
+        rowsParsed.reset();
+        rowsSkipped.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+    }
+
+    static int utf8Length(String s) {
+        int length = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // サロゲートペアは2文字で4バイト、それ以外は3バイト
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length += 1;
+            }
+        }
+        return length;
+    }
+}
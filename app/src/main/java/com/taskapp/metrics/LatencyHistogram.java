@@ -0,0 +1,112 @@
+package com.taskapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 処理時間(ナノ秒)の分布を記録するヒストグラムです。
+ * HdrHistogramと同じく、2の累乗ごとの区間をさらに等分したバケットに数えるため、
+ * 記録はロックを使わずに配列の1要素を増やすだけで済み、パーセンタイルの誤差は約1.6%に収まります。
+ */
+public final class LatencyHistogram {
+    // 1つの2の累乗の区間を分けるバケットの数の2倍(最初の区間だけはこの数の値をそのまま数える)
+    private static final int SUB_BUCKETS = 128;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(HALF);
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 値を1件記録します。負の値は0として記録します。
+     *
+     * @param value 記録する値(ナノ秒)
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        count.increment();
+        total.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * @return 記録した件数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return 記録した値の平均、記録がなければ0
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * @return 記録した値の最大値
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 指定したパーセンタイルの値を取得します。
+     * 該当するバケットの上限を返すため、実際の値より最大で約1.6%大きくなります。
+     *
+     * @param percentile パーセンタイル(0~100)
+     * @return パーセンタイルの値、記録がなければ0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 記録を全て消去します。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // 上位ビットがHALF~SUB_BUCKETS-1に収まるよう右にずらし、ずらした量で区間を決める
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long sub = (index - SUB_BUCKETS) % HALF + HALF;
+        // 最後のバケットは桁あふれによりlongの最大値になる
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,155 @@
+package com.taskapp.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 処理ごとの呼び出し回数・処理時間と、CSVファイルごとの読み書きの量を集めるクラスです。
+ * 計測値は同じJVM内の全てのインスタンスで共有します。
+ * 既定で有効です。システムプロパティtaskapp.metrics=falseで無効にできます。
+ */
+public final class Metrics {
+    public static final String OBJECT_NAME = "com.taskapp:type=Metrics";
+
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+    private static final Map<String, IoMetrics> FILES = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.parseBoolean(System.getProperty("taskapp.metrics", "true"));
+
+    private Metrics() {
+    }
+
+    /**
+     * 処理の計測値を取得します。初めての名前の場合は作成します。
+     * 呼び出し側ではstatic finalのフィールドに保持してください。
+     *
+     * @param name 処理の名前(例: TaskLogic.save)
+     * @return 処理の計測値
+     */
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * CSVファイルの読み書きの計測値を取得します。初めての名前の場合は作成します。
+     *
+     * @param name ファイルの種類(例: tasks)
+     * @return 読み書きの計測値
+     */
+    public static IoMetrics io(String name) {
+        return FILES.computeIfAbsent(name, IoMetrics::new);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @return 呼び出されたことのある処理の計測値(名前順)
+     */
+    public static List<OperationMetrics> operations() {
+        List<OperationMetrics> result = new ArrayList<>();
+        for (OperationMetrics operation : OPERATIONS.values()) {
+            if (operation.getCount() > 0) {
+                result.add(operation);
+            }
+        }
+        result.sort(Comparator.comparing(OperationMetrics::getName));
+        return result;
+    }
+
+    /**
+     * @return ファイルの読み書きの計測値(名前順)
+     */
+    public static List<IoMetrics> files() {
+        List<IoMetrics> result = new ArrayList<>(FILES.values());
+        result.sort(Comparator.comparing(IoMetrics::getName));
+        return result;
+    }
+
+    /**
+     * 全ての計測値を0に戻します。
+     */
+    public static void reset() {
+        for (OperationMetrics operation : OPERATIONS.values()) {
+            operation.histogram().reset();
+        }
+        for (IoMetrics file : FILES.values()) {
+            file.reset();
+        }
+    }
+
+    /**
+     * 計測値を表形式の文字列にします。
+     *
+     * @return 表示用の文字列
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %10s %10s %10s %10s %10s %10s%n",
+                "処理", "回数", "平均(us)", "p50(us)", "p90(us)", "p99(us)", "最大(us)"));
+        for (OperationMetrics operation : operations()) {
+            sb.append(String.format("%-32s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.getName(), operation.getCount(), operation.getMeanMicros(), operation.getP50Micros(),
+                    operation.getP90Micros(), operation.getP99Micros(), operation.getMaxMicros()));
+        }
+        sb.append(String.format("%n%-32s %12s %12s %14s %14s%n",
+                "ファイル", "変換した行", "読み飛ばした行", "読込(byte)", "書込(byte)"));
+        for (IoMetrics file : files()) {
+            sb.append(String.format("%-32s %12d %12d %14d %14d%n", file.getName(), file.getRowsParsed(),
+                    file.getRowsSkipped(), file.getBytesRead(), file.getBytesWritten()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 計測値をJMXのプラットフォームMBeanServerに登録します。既に登録済みの場合は何もしません。
+     */
+    public static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // 既に登録済み
+        } catch (JMException e) {
+            System.err.println("計測値の登録中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    private static final class MBean implements MetricsMXBean {
+        @Override
+        public List<OperationMetrics> getOperations() {
+            return operations();
+        }
+
+        @Override
+        public List<IoMetrics> getFiles() {
+            return files();
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
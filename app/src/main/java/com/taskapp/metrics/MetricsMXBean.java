@@ -0,0 +1,18 @@
+package com.taskapp.metrics;
+
+import java.util.List;
+
+/**
+ * JMXで公開する計測結果です。JConsoleなどから{@value Metrics#OBJECT_NAME}で参照できます。
+ */
+public interface MetricsMXBean {
+    List<OperationMetrics> getOperations();
+
+    List<IoMetrics> getFiles();
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+}
@@ -0,0 +1,74 @@
+package com.taskapp.metrics;
+
+/**
+ * 1つの処理の呼び出し回数と処理時間を記録します。
+ * 呼び出し側で開始時刻を取得し、終了時に{@link #record(long)}へ渡してください。
+ *
+ * <pre>
+ * long start = System.nanoTime();
+ * try {
+ *     ...
+ * } finally {
+ *     SAVE.record(start);
+ * }
+ * </pre>
+ */
+public final class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 開始時刻から現在までの時間を1回分として記録します。
+     * 計測が無効な場合は何もしません。
+     *
+     * @param startNanos System.nanoTime()で取得した開始時刻
+     */
+    public void record(long startNanos) {
+        if (Metrics.isEnabled()) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    public double getMeanMicros() {
+        return histogram.getMean() / 1000;
+    }
+
+    public double getP50Micros() {
+        return histogram.getValueAtPercentile(50) / 1000.0;
+    }
+
+    public double getP90Micros() {
+        return histogram.getValueAtPercentile(90) / 1000.0;
+    }
+
+    public double getP99Micros() {
+        return histogram.getValueAtPercentile(99) / 1000.0;
+    }
+
+    public double getP999Micros() {
+        return histogram.getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    public double getMaxMicros() {
+        return histogram.getMax() / 1000.0;
+    }
+
+    /**
+     * @return 処理時間のヒストグラム
+     */
+    public LatencyHistogram histogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,34 @@
+package com.taskapp.model;
+
+import java.util.List;
+
+/**
+ * タスク一覧の1ページ分の結果です。
+ */
+public class TaskPage {
+    private final List<Task> tasks;
+    private final int page;
+    private final boolean hasNext;
+
+    public TaskPage(List<Task> tasks, int page, boolean hasNext) {
+        this.tasks = tasks;
+        this.page = page;
+        this.hasNext = hasNext;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+}
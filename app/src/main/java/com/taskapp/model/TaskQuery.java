@@ -0,0 +1,180 @@
+package com.taskapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * タスク一覧の絞り込み条件・並び順・ページを表すクラスです。
+ * 条件を指定しない項目(null)は絞り込みに使いません。
+ */
+public class TaskQuery {
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * 並び順です。NONEは保存先に登録されている順です。
+     */
+    public enum Sort {
+        NONE, CODE, NAME, STATUS
+    }
+
+    private Integer status;
+    private Integer repUserCode;
+    private String namePrefix;
+    private Sort sort = Sort.NONE;
+    private int page;
+    private int limit = DEFAULT_LIMIT;
+
+    public TaskQuery() {
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public Integer getRepUserCode() {
+        return repUserCode;
+    }
+
+    public void setRepUserCode(Integer repUserCode) {
+        this.repUserCode = repUserCode;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort == null ? Sort.NONE : sort;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @param page 0から始まるページ番号
+     */
+    public void setPage(int page) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative: " + page);
+        }
+        this.page = page;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit 1ページの件数
+     */
+    public void setLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * 読み飛ばす件数を取得します。
+     *
+     * @return ページの先頭より前にある件数
+     */
+    public long getOffset() {
+        return (long) page * limit;
+    }
+
+    /**
+     * タスクが絞り込み条件に一致するかを判定します。
+     *
+     * @param task 判定するタスク
+     * @return 一致する場合はtrue
+     */
+    public boolean matches(Task task) {
+        return (status == null || task.getStatus() == status)
+                && (repUserCode == null || task.getRepUser().getCode() == repUserCode)
+                && (namePrefix == null || task.getName().startsWith(namePrefix));
+    }
+
+    /**
+     * 並び順の比較に使うComparatorを取得します。同じ値の場合はコード順にします。
+     *
+     * @return Comparator。NONEの場合はnull
+     */
+    public Comparator<Task> comparator() {
+        Comparator<Task> byCode = Comparator.comparingInt(Task::getCode);
+        switch (sort) {
+            case CODE: return byCode;
+            case NAME: return Comparator.comparing(Task::getName).thenComparing(byCode);
+            case STATUS: return Comparator.comparingInt(Task::getStatus).thenComparing(byCode);
+            default: return null;
+        }
+    }
+
+    /**
+     * タスクのストリームからこの条件に該当するページを取り出します。
+     * 並び順がNONEの場合はページが埋まった時点で読み込みを止めます。
+     * それ以外の場合も全件は保持せず、ページの末尾までの件数だけを保持します。
+     *
+     * @param tasks 対象のタスク
+     * @return 該当するページ
+     */
+    public TaskPage select(Stream<Task> tasks) {
+        Stream<Task> matched = tasks.filter(this::matches);
+        Comparator<Task> comparator = comparator();
+        List<Task> found;
+        if (comparator == null) {
+            // 次のページの有無を判定するため1件多く読む
+            found = new ArrayList<>(limit + 1);
+            matched.skip(getOffset()).limit(limit + 1L).forEach(found::add);
+        } else {
+            found = top(matched, comparator);
+        }
+        boolean hasNext = found.size() > limit;
+        if (hasNext) {
+            found = found.subList(0, limit);
+        }
+        return new TaskPage(found, page, hasNext);
+    }
+
+    /**
+     * 並び順で先頭からページの次の1件までを求め、ページ以降の部分を返します。
+     */
+    private List<Task> top(Stream<Task> tasks, Comparator<Task> comparator) {
+        long keep = getOffset() + limit + 1;
+        PriorityQueue<Task> heap = new PriorityQueue<>(comparator.reversed());
+        Iterator<Task> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            if (heap.size() < keep) {
+                heap.add(task);
+            } else if (comparator.compare(task, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(task);
+            }
+        }
+        List<Task> sorted = new ArrayList<>(heap);
+        sorted.sort(comparator);
+        if (sorted.size() <= getOffset()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(sorted.subList((int) getOffset(), sorted.size()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.taskapp.ui;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+
+import com.taskapp.logic.InstrumentedTaskLogic;
+import com.taskapp.logic.TaskLogic;
+import com.taskapp.logic.UserLogic;
+import com.taskapp.metrics.Metrics;
+
+/**
+ * ローカルのTCPソケットで接続を受け付け、接続ごとにTaskUIのセッションを実行するサーバーです。
+ * 各セッションは仮想スレッド上で動作し、UserLogicとTaskLogicの保存先は全セッションで共有します。
+ * 表示はセッションごとに接続へ書き込むため、応答の遅い接続が他のセッションを待たせることはありません。
+ */
+public class TaskServer implements Closeable {
+    public static final int DEFAULT_PORT = 8765;
+    private static final int BACKLOG = 2048;
+
+    private final UserLogic userLogic;
+    private final TaskLogic taskLogic;
+    private final ServerSocket serverSocket;
+    private Thread acceptThread;
+    private boolean closed;
+
+    /**
+     * @param port 待ち受けるポート番号(0の場合は空いているポート)
+     * @param userLogic 全セッションで共有するUserLogic
+     * @param taskLogic 全セッションで共有するTaskLogic
+     */
+    public TaskServer(int port, UserLogic userLogic, TaskLogic taskLogic) throws IOException {
+        this.userLogic = userLogic;
+        this.taskLogic = taskLogic;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * 接続の受け付けを開始します。
+     */
+    public synchronized void start() {
+        if (acceptThread != null || closed) {
+            return;
+        }
+        acceptThread = Thread.ofPlatform().name("task-server-accept").start(this::acceptLoop);
+    }
+
+    /**
+     * 待ち受けているポート番号を取得します。
+     *
+     * @return ポート番号
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * 接続の受け付けを終了します。
+     * 実行中のセッションは各接続が閉じられるまで続きます。
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("task-session-" + socket.getPort()).start(() -> runSession(socket));
+            } catch (SocketException e) {
+                // closeによる終了
+            } catch (IOException e) {
+                System.err.println("接続の受け付け中にエラーが発生しました: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runSession(Socket socket) {
+        try (socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            new TaskUI(reader, out, userLogic.forSession(out), taskLogic.forSession(out)).displayMenu();
+        } catch (IOException e) {
+            System.err.println("セッションの実行中にエラーが発生しました: " + e.getMessage());
+        }
+    }
+
+    /**
+     * メインメソッド - サーバーを起動します。
+     *
+     * @param args 1番目の引数にポート番号を指定できます
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Metrics.registerMBean();
+        TaskServer server = new TaskServer(port, new UserLogic(), new InstrumentedTaskLogic());
+        server.start();
+        System.err.println("タスク管理サーバーを起動しました: localhost:" + server.getPort());
+    }
+}
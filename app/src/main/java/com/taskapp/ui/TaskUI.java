@@ -3,71 +3,116 @@ package com.taskapp.ui;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
 
 import com.taskapp.exception.AppException;
+import com.taskapp.logic.InstrumentedTaskLogic;
 import com.taskapp.logic.TaskLogic;
 import com.taskapp.logic.UserLogic;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
 import com.taskapp.model.User;
 
 public class TaskUI {
     private final BufferedReader reader;
+    // 表示先。nullの場合は表示のたびにSystem.outを使う
+    private final PrintStream out;
     private final UserLogic userLogic;
     private final TaskLogic taskLogic;
     private User loginUser;
+    // タスク一覧で表示中の条件とページ
+    private TaskQuery query = new TaskQuery();
+    private TaskPage page;
+    // 入力の読み込みに失敗した場合は、以降の入力を受け付けずにセッションを終了する
+    private boolean inputFailed;
 
     // デフォルトコンストラクタ
     public TaskUI() {
         reader = new BufferedReader(new InputStreamReader(System.in));
+        out = null;
         userLogic = new UserLogic();
-        taskLogic = new TaskLogic();
+        taskLogic = new InstrumentedTaskLogic();
     }
 
     // 依存性注入用のコンストラクタ
     public TaskUI(BufferedReader reader, UserLogic userLogic, TaskLogic taskLogic) {
+        this(reader, null, userLogic, taskLogic);
+    }
+
+    // 表示先を指定する依存性注入用のコンストラクタ
+    public TaskUI(BufferedReader reader, PrintStream out, UserLogic userLogic, TaskLogic taskLogic) {
         this.reader = reader;
+        this.out = out;
         this.userLogic = userLogic;
         this.taskLogic = taskLogic;
     }
 
+    private PrintStream out() {
+        return out != null ? out : System.out;
+    }
+
+    // 接続が切れた場合などに同じ入力を待ち続けないよう、セッションを終了する
+    private void endSession() {
+        out().println("入力エラーが発生しました。セッションを終了します。");
+        inputFailed = true;
+    }
+
     /**
      * メインメニューを表示し、ユーザー入力に基づいてアクションを実行します。
      */
     public void displayMenu() {
-        System.out.println("タスク管理アプリケーションにようこそ!!");
+        out().println("タスク管理アプリケーションにようこそ!!");
         inputLogin();
+        if (loginUser == null) {
+            return; // ログイン前に入力が終了した
+        }
         boolean isRunning = true;
 
-        while (isRunning) {
+        while (isRunning && !inputFailed) {
             try {
-                System.out.println("以下1~3のメニューから好きな選択肢を選んでください。");
-                System.out.println("1. タスク一覧, 2. タスク新規登録, 3. ログアウト");
-                System.out.print("選択肢：");
+                out().println("以下1~5のメニューから好きな選択肢を選んでください。");
+                out().println("1. タスク一覧, 2. タスク新規登録, 3. ログアウト, 4. 担当タスク一覧, 5. 診断情報");
+                out().print("選択肢：");
                 String selectMenu = reader.readLine();
-                System.out.println();
+                out().println();
+                if (selectMenu == null) {
+                    selectMenu = "3"; // 入力が終了した場合はログアウトする
+                }
 
                 // メインメニューの選択処理
                 switch (selectMenu) {
                     case "1":
-                        taskLogic.showAll(loginUser);
+                        query = new TaskQuery();
+                        page = taskLogic.showPage(query, loginUser);
                         selectSubMenu();
                         break;
                     case "2":
                         inputNewInformation();
                         break;
                     case "3":
-                        System.out.println("ログアウトしました");
+                        out().println("ログアウトしました");
                         isRunning = false;
                         break;
+                    case "4":
+                        // 担当タスクはページを持たないため、次・前のページは選べない
+                        query = new TaskQuery();
+                        page = null;
+                        taskLogic.showMyTasks(loginUser);
+                        selectSubMenu();
+                        break;
+                    case "5":
+                        taskLogic.showDiagnostics();
+                        break;
                     default:
-                        System.out.println("選択肢が誤っています。1~3の中から選択してください。");
+                        out().println("選択肢が誤っています。1~5の中から選択してください。");
                         break;
                 }
             } catch (IOException e) {
-                System.out.println("入力エラーが発生しました。再度お試しください。");
-                e.printStackTrace();
+                endSession();
             }
-            System.out.println();
+            out().println();
         }
     }
 
@@ -77,13 +122,16 @@ public class TaskUI {
     public void selectSubMenu() {
         boolean isSubMenuRunning = true;
 
-        while (isSubMenuRunning) {
+        while (isSubMenuRunning && !inputFailed) {
             try {
-                System.out.println("以下1~2から好きな選択肢を選んでください。");
-                System.out.println("1. タスクのステータス変更, 2. メインメニューに戻る");
-                System.out.print("選択肢：");
+                out().println("以下1~5から好きな選択肢を選んでください。");
+                out().println("1. タスクのステータス変更, 2. メインメニューに戻る, 3. 次のページ, 4. 前のページ, 5. 絞り込み・並び替え");
+                out().print("選択肢：");
                 String selectSubMenu = reader.readLine();
-                System.out.println();
+                out().println();
+                if (selectSubMenu == null) {
+                    selectSubMenu = "2"; // 入力が終了した場合はメインメニューに戻る
+                }
 
                 // サブメニューの選択処理
                 switch (selectSubMenu) {
@@ -91,18 +139,113 @@ public class TaskUI {
                         inputChangeInformation();
                         break;
                     case "2":
-                        System.out.println("メインメニューに戻ります。");
+                        out().println("メインメニューに戻ります。");
                         isSubMenuRunning = false;  // メニューを終了してメインに戻る
                         break;
+                    case "3":
+                        if (page == null || !page.hasNext()) {
+                            out().println("次のページはありません");
+                            break;
+                        }
+                        showPage(query.getPage() + 1);
+                        break;
+                    case "4":
+                        if (page == null || !page.hasPrevious()) {
+                            out().println("前のページはありません");
+                            break;
+                        }
+                        showPage(query.getPage() - 1);
+                        break;
+                    case "5":
+                        inputQuery();
+                        break;
                     default:
-                        System.out.println("ステータスは1・2の中から選択してください");
+                        out().println("選択肢は1~5の中から選択してください");
                         break;
                 }
             } catch (IOException e) {
-                System.out.println("入力エラーが発生しました。再度お試しください。");
-                e.printStackTrace();
+                endSession();
+            }
+        }
+    }
+
+    /**
+     * 表示中の条件で指定したページを表示します。
+     *
+     * @param pageNumber 0から始まるページ番号
+     */
+    private void showPage(int pageNumber) {
+        query.setPage(pageNumber);
+        page = taskLogic.showPage(query, loginUser);
+    }
+
+    /**
+     * ユーザーからタスク一覧の絞り込み条件と並び順を受け付け、1ページ目を表示します。
+     * 未入力の項目は条件に使いません。
+     */
+    public void inputQuery() throws IOException {
+        TaskQuery newQuery = new TaskQuery();
+
+        out().print("ステータスで絞り込む場合は0. 未着手, 1. 着手中, 2. 完了から入力してください(未入力で全て)：");
+        String statusStr = reader.readLine();
+        if (statusStr == null) {
+            return; // 入力が終了した
+        }
+        if (!statusStr.isEmpty()) {
+            if (!statusStr.equals("0") && !statusStr.equals("1") && !statusStr.equals("2")) {
+                out().println("ステータスは0・1・2の中から選択してください");
+                return;
             }
+            newQuery.setStatus(Integer.parseInt(statusStr));
+        }
+
+        out().print("担当者で絞り込む場合はユーザーのコードを入力してください(未入力で全て)：");
+        String userCodeStr = reader.readLine();
+        if (userCodeStr == null) {
+            return;
         }
+        if (!userCodeStr.isEmpty()) {
+            if (!isNumeric(userCodeStr)) {
+                out().println("ユーザーのコードは半角の数字で入力してください");
+                return;
+            }
+            newQuery.setRepUserCode(Integer.parseInt(userCodeStr));
+        }
+
+        out().print("タスク名の先頭の文字で絞り込む場合は入力してください(未入力で全て)：");
+        String namePrefix = reader.readLine();
+        if (namePrefix == null) {
+            return;
+        }
+        newQuery.setNamePrefix(namePrefix);
+
+        out().print("並び順を1. 登録順, 2. コード順, 3. タスク名順, 4. ステータス順から選択してください(未入力で登録順)：");
+        String sortStr = reader.readLine();
+        if (sortStr == null) {
+            return;
+        }
+        switch (sortStr) {
+            case "":
+            case "1":
+                newQuery.setSort(TaskQuery.Sort.NONE);
+                break;
+            case "2":
+                newQuery.setSort(TaskQuery.Sort.CODE);
+                break;
+            case "3":
+                newQuery.setSort(TaskQuery.Sort.NAME);
+                break;
+            case "4":
+                newQuery.setSort(TaskQuery.Sort.STATUS);
+                break;
+            default:
+                out().println("並び順は1~4の中から選択してください");
+                return;
+        }
+        out().println();
+
+        query = newQuery;
+        showPage(0);
     }
 
     /**
@@ -110,41 +253,41 @@ public class TaskUI {
      */
     public void inputChangeInformation() {
     try {
-        System.out.print("ステータスを変更するタスクコードを入力してください:");
+        out().print("ステータスを変更するタスクコードを入力してください:");
         String taskCodeStr = reader.readLine();
 
         // タスクコードが数字かどうかをチェック
         if (!isNumeric(taskCodeStr)) {
-            System.out.println("タスクコードは半角の数字で入力してください");
+            out().println("タスクコードは半角の数字で入力してください");
             return;
         }
 
         int taskCode = Integer.parseInt(taskCodeStr);
         // ステータスの選択
-        System.out.println("1. 着手中, 2. 完了");
-        System.out.print("選択肢：");
+        out().println("1. 着手中, 2. 完了");
+        out().print("選択肢：");
         String statusChoiceStr = reader.readLine();
 
         // ステータス選択が1または2であるかチェック
         if (!isNumeric(statusChoiceStr)) {
-            System.out.println("ステータスは半角の数字で入力してください");
+            out().println("ステータスは半角の数字で入力してください");
             return;
         }
         
         int statusChoice = Integer.parseInt(statusChoiceStr);
         if (statusChoice != 1 && statusChoice != 2) {
-            System.out.println("ステータスは1・2の中から選択してください");
+            out().println("ステータスは1・2の中から選択してください");
             return;
         }
 
         // ステータスの変更処理
         taskLogic.changeStatus(taskCode, statusChoice, loginUser);
-        System.out.println("ステータスの変更が完了しました。");
+        out().println("ステータスの変更が完了しました。");
 
     } catch (IOException e) {
-        System.out.println("入力エラーが発生しました。再度お試しください。");
+        endSession();
     } catch (AppException e) {
-        System.out.println("エラー：" + e.getMessage());
+        out().println("エラー：" + e.getMessage());
     }
 }
 
@@ -154,21 +297,24 @@ public class TaskUI {
     public void inputLogin() {
         boolean isLoginSuccessful = false;
 
-        while (!isLoginSuccessful) {
+        while (!isLoginSuccessful && !inputFailed) {
             try {
-                System.out.print("メールアドレスを入力してください：");
+                out().print("メールアドレスを入力してください：");
                 String email = reader.readLine();
-                System.out.print("パスワードを入力してください：");
+                out().print("パスワードを入力してください：");
                 String password = reader.readLine();
+                if (email == null || password == null) {
+                    return; // 入力が終了した
+                }
 
                 // ログイン情報を呼び出す
                 loginUser = userLogic.login(email, password);
                 isLoginSuccessful = true; // ログイン成功
                 
             } catch (IOException e) {
-                System.out.println("入力エラーが発生しました。再度お試しください。");
+                endSession();
             } catch (AppException e) {
-                System.out.println("ログインエラー：" + e.getMessage());
+                out().println("ログインエラー：" + e.getMessage());
             }
         }
     }
@@ -177,39 +323,48 @@ public class TaskUI {
      * ユーザーから新規タスク情報を受け取り、タスクを登録します。
      */
     public void inputNewInformation() {
-        while (true) {
+        while (!inputFailed) {
             try {
-                System.out.print("タスクコードを入力してください：");
+                out().print("タスクコードを入力してください：");
                 String taskCodeStr = reader.readLine();
+                if (taskCodeStr == null) {
+                    return; // 入力が終了した
+                }
                 if (!isNumeric(taskCodeStr)) {
-                    System.out.println("コードは半角の数字で入力してください");
+                    out().println("コードは半角の数字で入力してください");
                     continue;
                 }
                 int taskCode = Integer.parseInt(taskCodeStr);
 
-                System.out.print("タスク名を入力してください：");
+                out().print("タスク名を入力してください：");
                 String taskName = reader.readLine();
+                if (taskName == null) {
+                    return; // 入力が終了した
+                }
                 if (taskName.length() > 10) {
-                    System.out.println("タスク名は10文字以内で入力してください");
+                    out().println("タスク名は10文字以内で入力してください");
                     continue;
                 }
 
-                System.out.print("担当するユーザーのコードを選択してください：");
+                out().print("担当するユーザーのコードを選択してください：");
                 String userCodeStr = reader.readLine();
+                if (userCodeStr == null) {
+                    return; // 入力が終了した
+                }
                 if (!isNumeric(userCodeStr)) {
-                    System.out.println("ユーザーのコードは半角の数字で入力してください");
+                    out().println("ユーザーのコードは半角の数字で入力してください");
                     continue;
                 }
                 int userCode = Integer.parseInt(userCodeStr);
 
                 // タスク登録処理
                 taskLogic.save(taskCode, taskName, userCode, loginUser);
-                System.out.println(taskName + "の登録が完了しました。");
+                out().println(taskName + "の登録が完了しました。");
                 break;
             } catch (IOException e) {
-                System.out.println("入力エラーが発生しました。再度お試しください。");
+                endSession();
             } catch (AppException e) {
-                System.out.println(e.getMessage());
+                out().println(e.getMessage());
             }
         }
     }
@@ -236,6 +391,7 @@ public class TaskUI {
      * メインメソッド - アプリケーションを起動します。
      */
     public static void main(String[] args) {
+        Metrics.registerMBean();
         TaskUI taskUI = new TaskUI();
         taskUI.displayMenu();
     }
@@ -0,0 +1,71 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Log;
+
+public class BinaryLogDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_logs.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private BinaryLogDataAccess logDataAccess;
+
+    @BeforeEach
+    public void setUp() {
+        logFile = tempDir.resolve("logs.bin");
+        logDataAccess = new BinaryLogDataAccess(logFile.toString());
+        logDataAccess.importCsv(TEST_FILE_PATH);
+    }
+
+    @Test
+    public void testImportCsv() throws IOException {
+        List<Log> logs = logDataAccess.findAll();
+
+        assertThat(logs).hasSize(7);
+        assertThat(logs.get(5)).isEqualToComparingFieldByField(new Log(3, 2, 2, LocalDate.of(2024, 1, 12)));
+        assertThat(Files.size(logFile)).isEqualTo(BinaryFiles.HEADER_BYTES + 7 * BinaryLogDataAccess.RECORD_BYTES);
+    }
+
+    @Test
+    public void testSave() {
+        Log log = new Log(5, 1, 0, LocalDate.of(2024, 2, 1));
+        logDataAccess.save(log);
+        logDataAccess.saveAll(List.of(new Log(5, 1, 1, LocalDate.of(2024, 2, 2)), new Log(5, 1, 2, LocalDate.of(2024, 2, 3))));
+
+        List<Log> logs = logDataAccess.findAll();
+        assertThat(logs).hasSize(10);
+        assertThat(logs.get(7)).isEqualToComparingFieldByField(log);
+        assertThat(logs.get(9).getStatus()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDeleteByTaskCode() {
+        logDataAccess.deleteByTaskCode(3);
+
+        assertThat(logDataAccess.findAll()).extracting(Log::getTaskCode).containsExactly(1, 2, 4, 4);
+    }
+
+    @Test
+    public void testExportCsv() throws IOException {
+        Path csv = tempDir.resolve("logs.csv");
+
+        logDataAccess.exportCsv(csv.toString());
+
+        List<Log> exported = new LogDataAccess(csv.toString()).findAll();
+        assertThat(exported).hasSize(7);
+        assertThat(exported.get(6)).isEqualToComparingFieldByField(new Log(4, 2, 1, LocalDate.of(2024, 1, 13)));
+    }
+}
@@ -0,0 +1,170 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class BinaryTaskDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_tasks.csv";
+    private static final String TEST_FILE_PATH_USER = "src/test/resources/test_users.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path taskFile;
+    private BinaryTaskDataAccess taskDataAccess;
+
+    @BeforeEach
+    public void setUp() {
+        taskFile = tempDir.resolve("tasks.bin");
+        taskDataAccess = new BinaryTaskDataAccess(taskFile.toString(), new UserDataAccess(TEST_FILE_PATH_USER));
+        taskDataAccess.importCsv(TEST_FILE_PATH);
+    }
+
+    @Test
+    public void testImportCsv() throws IOException {
+        List<Task> tasks = taskDataAccess.findAll();
+
+        assertThat(tasks).extracting(Task::getCode).containsExactly(1, 2, 3, 4);
+        assertThat(tasks).extracting(Task::getName).containsExactly("taskA", "taskB", "taskC", "taskD");
+        assertThat(tasks).extracting(Task::getStatus).containsExactly(0, 0, 2, 1);
+        assertThat(tasks.get(1).getRepUser().getName()).isEqualTo("鈴木二郎");
+        assertThat(Files.size(taskFile)).isEqualTo(BinaryFiles.HEADER_BYTES + BinaryTaskDataAccess.GENERATION_BYTES
+                + 4 * BinaryTaskDataAccess.RECORD_BYTES);
+    }
+
+    @Test
+    public void testFindAllRecordsRecordsAndBytes() throws IOException {
+        IoMetrics io = Metrics.io("tasks.bin");
+        long parsed = io.getRowsParsed();
+        long bytesRead = io.getBytesRead();
+
+        taskDataAccess.findAll();
+
+        assertThat(io.getRowsParsed()).isEqualTo(parsed + 4);
+        assertThat(io.getBytesRead()).isEqualTo(bytesRead + 4 * BinaryTaskDataAccess.RECORD_BYTES
+                + Files.size(tempDir.resolve("tasks.bin.strings")));
+
+        // 読み込み済みの文字列テーブルは読み直さない
+        bytesRead = io.getBytesRead();
+        taskDataAccess.findAll();
+
+        assertThat(io.getBytesRead()).isEqualTo(bytesRead + 4 * BinaryTaskDataAccess.RECORD_BYTES);
+    }
+
+    @Test
+    public void testSaveAppendsRecord() {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        taskDataAccess.save(new Task(5, "タスク,カンマ入り", 0, repUser));
+
+        Task saved = taskDataAccess.findByCode(5);
+        assertThat(saved.getName()).isEqualTo("タスク,カンマ入り");
+        assertThat(saved.getRepUser().getCode()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSaveToNewFile() {
+        BinaryTaskDataAccess empty = new BinaryTaskDataAccess(tempDir.resolve("new.bin").toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER));
+        User repUser = new User(2, "鈴木二郎", "test2@example.com", "password2");
+        empty.saveAll(List.of(new Task(1, "a", 0, repUser), new Task(2, "b", 1, repUser)));
+
+        assertThat(empty.findAll()).extracting(Task::getName).containsExactly("a", "b");
+    }
+
+    @Test
+    public void testUpdateRewritesRecordInPlace() throws IOException {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        long size = Files.size(taskFile);
+
+        taskDataAccess.update(new Task(3, "taskC", 1, repUser));
+        taskDataAccess.update(new Task(2, "renamed", 2, repUser));
+
+        assertThat(Files.size(taskFile)).isEqualTo(size);
+        Task task3 = taskDataAccess.findByCode(3);
+        assertThat(task3.getStatus()).isEqualTo(1);
+        assertThat(task3.getRepUser().getCode()).isEqualTo(1);
+        assertThat(taskDataAccess.findByCode(2).getName()).isEqualTo("renamed");
+        assertThat(taskDataAccess.findByCode(1).getName()).isEqualTo("taskA");
+    }
+
+    @Test
+    public void testUpdateAll() {
+        User repUser = new User(2, "鈴木二郎", "test2@example.com", "password2");
+        taskDataAccess.updateAll(List.of(new Task(1, "taskA", 1, repUser), new Task(4, "taskD", 2, repUser)));
+
+        assertThat(taskDataAccess.findAll()).extracting(Task::getStatus).containsExactly(1, 0, 2, 2);
+    }
+
+    @Test
+    public void testWriteAllRewritesStringTable() throws IOException {
+        Path strings = tempDir.resolve("tasks.bin.strings");
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        List<Task> tasks = List.of(new Task(9, "renamed", 0, repUser));
+
+        taskDataAccess.writeAll(tasks);
+        long size = Files.size(strings);
+        taskDataAccess.writeAll(tasks);
+        taskDataAccess.writeAll(tasks);
+
+        assertThat(Files.size(strings)).isEqualTo(size);
+        assertThat(taskDataAccess.findAll()).extracting(Task::getName).containsExactly("renamed");
+    }
+
+    @Test
+    public void testReadsOldStringTableAfterInterruptedWriteAll() throws IOException {
+        Path oldRecords = tempDir.resolve("old.bin");
+        Path strings = tempDir.resolve("tasks.bin.strings");
+        Path oldStrings = tempDir.resolve("old.strings");
+        Files.copy(taskFile, oldRecords);
+        Files.copy(strings, oldStrings);
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+
+        taskDataAccess.writeAll(List.of(new Task(9, "renamed", 0, repUser)));
+        assertThat(taskDataAccess.findAll()).extracting(Task::getName).containsExactly("renamed");
+
+        // 文字列テーブルを置き換え、レコードを置き換える前に中断した状態を再現する
+        Files.copy(oldRecords, taskFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(oldStrings, tempDir.resolve("tasks.bin.strings.old"));
+        BinaryTaskDataAccess reopened = new BinaryTaskDataAccess(taskFile.toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER));
+        assertThat(reopened.findAll()).extracting(Task::getName)
+                .containsExactly("taskA", "taskB", "taskC", "taskD");
+
+        // 次の書き込みで古い文字列テーブルを戻してから追記する
+        reopened.save(new Task(5, "taskE", 0, repUser));
+        assertThat(reopened.findAll()).extracting(Task::getName)
+                .containsExactly("taskA", "taskB", "taskC", "taskD", "taskE");
+    }
+
+    @Test
+    public void testExportCsv() throws IOException {
+        Path csv = tempDir.resolve("tasks.csv");
+
+        int exported = taskDataAccess.exportCsv(csv.toString());
+
+        assertThat(exported).isEqualTo(4);
+        assertThat(Files.readAllLines(csv)).containsExactly(
+                "Code,Name,Status,Rep_User_Code", "1,taskA,0,1", "2,taskB,0,2", "3,taskC,2,2", "4,taskD,1,2");
+    }
+
+    @Test
+    public void testRejectsCsvFile() {
+        BinaryTaskDataAccess csv = new BinaryTaskDataAccess(TEST_FILE_PATH, new UserDataAccess(TEST_FILE_PATH_USER));
+
+        assertThat(csv.findAll()).isEmpty();
+    }
+}
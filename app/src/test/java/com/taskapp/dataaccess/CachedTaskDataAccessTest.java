@@ -0,0 +1,231 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class CachedTaskDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_tasks.csv";
+    private static final String TEST_FILE_PATH_USER = "src/test/resources/test_users.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path taskFile;
+    private CachedTaskDataAccess taskDataAccess;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskFile = tempDir.resolve("tasks.csv");
+        Files.copy(Paths.get(TEST_FILE_PATH), taskFile, StandardCopyOption.REPLACE_EXISTING);
+        taskDataAccess = new CachedTaskDataAccess(taskFile.toString(), new UserDataAccess(TEST_FILE_PATH_USER));
+    }
+
+    @Test
+    public void testFindAllOrderedByCode() {
+        List<Task> tasks = taskDataAccess.findAll();
+
+        assertThat(tasks).extracting(Task::getCode).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    public void testFindByCodeReturnsCopy() {
+        Task task = taskDataAccess.findByCode(1);
+        task.setStatus(2);
+
+        assertThat(taskDataAccess.findByCode(1).getStatus()).isEqualTo(0);
+    }
+
+    @Test
+    public void testUpdateWritesThrough() throws IOException {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        taskDataAccess.update(new Task(2, "taskB2", 1, repUser));
+
+        List<String> lines = Files.readAllLines(taskFile);
+        assertThat(lines.get(0)).isEqualTo("Code,Name,Status,Rep_User_Code");
+        assertThat(lines).contains("2,taskB2,1,1");
+        assertThat(taskDataAccess.findByCode(2).getName()).isEqualTo("taskB2");
+    }
+
+    @Test
+    public void testSaveWritesThrough() throws IOException {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        Files.writeString(taskFile, System.lineSeparator(), StandardOpenOption.APPEND);
+        taskDataAccess.save(new Task(5, "taskE", 0, repUser));
+
+        assertThat(Files.readAllLines(taskFile)).contains("5,taskE,0,1");
+        assertThat(taskDataAccess.findByCode(5)).isNotNull();
+    }
+
+    @Test
+    public void testFindByRepUserFollowsSaveAndUpdate() throws IOException {
+        User user1 = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        User user2 = new User(2, "鈴木二郎", "test2@example.com", "password2");
+        assertThat(taskDataAccess.findByRepUser(2)).extracting(Task::getCode).containsExactly(2, 3, 4);
+
+        taskDataAccess.update(new Task(2, "taskB", 0, user1));
+        Files.writeString(taskFile, System.lineSeparator(), StandardOpenOption.APPEND);
+        taskDataAccess.save(new Task(5, "taskE", 0, user2));
+
+        assertThat(taskDataAccess.findByRepUser(1)).extracting(Task::getCode).containsExactly(1, 2);
+        assertThat(taskDataAccess.findByRepUser(2)).extracting(Task::getCode).containsExactly(3, 4, 5);
+        assertThat(taskDataAccess.findByRepUser(9)).isEmpty();
+    }
+
+    @Test
+    public void testConcurrentSavesFromTwoInstancesAreAllCached() throws Exception {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        Files.writeString(taskFile, System.lineSeparator(), StandardOpenOption.APPEND);
+        CachedTaskDataAccess other = new CachedTaskDataAccess(taskFile.toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER));
+        taskDataAccess.findAll();
+        other.findAll();
+
+        Thread thread = new Thread(() -> {
+            for (int code = 1000; code < 1200; code++) {
+                other.save(new Task(code, "other", 0, repUser));
+            }
+        });
+        thread.start();
+        for (int code = 2000; code < 2200; code++) {
+            taskDataAccess.save(new Task(code, "this", 0, repUser));
+        }
+        thread.join();
+
+        // 相手の追記を読み込まずに読み込み済みの範囲へ含めることはない
+        assertThat(taskDataAccess.findAll()).hasSize(404);
+        assertThat(other.findAll()).hasSize(404);
+    }
+
+    @Test
+    public void testReloadsAfterExternalEdit() throws IOException {
+        assertThat(taskDataAccess.findAll()).hasSize(4);
+
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n9,taskZ,0,2\n");
+        Files.setLastModifiedTime(taskFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertThat(taskDataAccess.findAll()).extracting(Task::getCode).containsExactly(9);
+    }
+
+    @Test
+    public void testWarmStartParsesOnlyAppendedLines() throws IOException {
+        writeTasks(100);
+        CachedTaskDataAccess cold = new CachedTaskDataAccess(taskFile.toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER), true);
+        assertThat(cold.findAll()).hasSize(100);
+        assertThat(snapshotFile()).exists();
+
+        Files.writeString(taskFile, "101,task101,0,1\n", StandardOpenOption.APPEND);
+        CountingTaskDataAccess warm = new CountingTaskDataAccess(taskFile.toString(), true);
+        List<Task> tasks = warm.findAll();
+
+        assertThat(tasks).hasSize(101);
+        assertThat(tasks.get(100).getName()).isEqualTo("task101");
+        assertThat(warm.parsed).isEqualTo(1);
+    }
+
+    @Test
+    public void testSnapshotIgnoredWhenLoadedPartChanged() throws IOException {
+        writeTasks(10);
+        new CachedTaskDataAccess(taskFile.toString(), new UserDataAccess(TEST_FILE_PATH_USER), true).findAll();
+
+        // 同じファイル・同じサイズのまま既存の行を書き換える(更新日時だけが変わる)
+        String content = Files.readString(taskFile).replace("3,task3,0,", "3,task3,2,");
+        Files.writeString(taskFile, content);
+        Files.setLastModifiedTime(taskFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        CountingTaskDataAccess warm = new CountingTaskDataAccess(taskFile.toString(), true);
+
+        assertThat(warm.findByCode(3).getStatus()).isEqualTo(2);
+        assertThat(warm.parsed).isEqualTo(10);
+    }
+
+    @Test
+    public void testExternalAppendReplaysOnlyNewLines() throws IOException {
+        writeTasks(10);
+        CountingTaskDataAccess counting = new CountingTaskDataAccess(taskFile.toString(), false);
+        assertThat(counting.findAll()).hasSize(10);
+
+        Files.writeString(taskFile, "11,task11,1,2\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(taskFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertThat(counting.findByCode(11).getStatus()).isEqualTo(1);
+        assertThat(counting.findByRepUser(2)).extracting(Task::getCode).contains(11);
+        assertThat(counting.parsed).isEqualTo(11);
+    }
+
+    @Test
+    public void testDetectsRewriteByAnotherInstanceFollowedByAppend() throws IOException {
+        writeTasks(10);
+        CountingTaskDataAccess counting = new CountingTaskDataAccess(taskFile.toString(), false);
+        assertThat(counting.findAll()).hasSize(10);
+
+        // 読み込み済みの範囲の末尾は変えずに、途中の行の書き直しと追記を行う
+        CachedTaskDataAccess other = new CachedTaskDataAccess(taskFile.toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER));
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        other.update(new Task(3, "task3", 2, repUser));
+        other.save(new Task(11, "task11", 0, repUser));
+
+        assertThat(counting.findByCode(3).getStatus()).isEqualTo(2);
+        assertThat(counting.findByCode(11)).isNotNull();
+        assertThat(counting.parsed).isEqualTo(21);
+    }
+
+    @Test
+    public void testSnapshotFollowsUpdate() throws IOException {
+        writeTasks(10);
+        CachedTaskDataAccess first = new CachedTaskDataAccess(taskFile.toString(),
+                new UserDataAccess(TEST_FILE_PATH_USER), true);
+        first.setSnapshotIntervalMillis(0);
+        User repUser = new User(2, "鈴木二郎", "test2@example.com", "password2");
+        first.update(new Task(5, "task5", 2, repUser));
+
+        CountingTaskDataAccess second = new CountingTaskDataAccess(taskFile.toString(), true);
+        Task task = second.findByCode(5);
+
+        assertThat(task.getStatus()).isEqualTo(2);
+        assertThat(task.getRepUser().getCode()).isEqualTo(2);
+        assertThat(second.parsed).isZero();
+    }
+
+    private void writeTasks(int count) throws IOException {
+        StringBuilder content = new StringBuilder("Code,Name,Status,Rep_User_Code\n");
+        for (int i = 1; i <= count; i++) {
+            content.append(i).append(",task").append(i).append(",0,1\n");
+        }
+        Files.writeString(taskFile, content);
+    }
+
+    private Path snapshotFile() {
+        return Paths.get(taskFile + ".snapshot");
+    }
+
+    private static class CountingTaskDataAccess extends CachedTaskDataAccess {
+        int parsed;
+
+        CountingTaskDataAccess(String filePath, boolean snapshot) {
+            super(filePath, new UserDataAccess(TEST_FILE_PATH_USER), snapshot);
+        }
+
+        @Override
+        protected Task parseLine(long offset, String line, IntFunction<User> users) {
+            parsed++;
+            return super.parseLine(offset, line, users);
+        }
+    }
+}
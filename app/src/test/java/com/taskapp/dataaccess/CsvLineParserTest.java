@@ -0,0 +1,66 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CsvLineParserTest {
+    private final CsvLineParser parser = new CsvLineParser();
+
+    @Test
+    public void testParse() {
+        assertThat(parser.parse("1,taskA,0,2")).isEqualTo(4);
+        assertThat(parser.intField(0)).isEqualTo(1);
+        assertThat(parser.field(1)).isEqualTo("taskA");
+        assertThat(parser.intField(3)).isEqualTo(2);
+    }
+
+    @Test
+    public void testParseKeepsEmptyFields() {
+        assertThat(parser.parse("1,,,")).isEqualTo(4);
+        assertThat(parser.field(1)).isEmpty();
+        assertThat(parser.intField(3)).isEqualTo(CsvLineParser.INVALID);
+    }
+
+    @Test
+    public void testParseWithHandler() {
+        List<String> fields = new ArrayList<>();
+
+        parser.parse("a,b,c", (index, line, start, end) -> fields.add(index + ":" + line.subSequence(start, end)));
+
+        assertThat(fields).containsExactly("0:a", "1:b", "2:c");
+    }
+
+    @Test
+    public void testIntField() {
+        parser.parse("123,-5,abc,2147483648,12a");
+
+        assertThat(parser.intField(0)).isEqualTo(123);
+        assertThat(parser.intField(1)).isEqualTo(-5);
+        assertThat(parser.intField(2)).isEqualTo(CsvLineParser.INVALID);
+        assertThat(parser.intField(3)).isEqualTo(CsvLineParser.INVALID);
+        assertThat(parser.intField(4)).isEqualTo(CsvLineParser.INVALID);
+    }
+
+    @Test
+    public void testDateField() {
+        parser.parse("2024-01-10,2024-02-30,2024/01/10");
+
+        assertThat(parser.dateField(0)).isEqualTo(LocalDate.of(2024, 1, 10));
+        assertThat(parser.dateField(1)).isNull();
+        assertThat(parser.dateField(2)).isNull();
+    }
+
+    @Test
+    public void testFieldEquals() {
+        parser.parse("1,鈴木一郎,test1@example.com,password1");
+
+        assertThat(parser.fieldEquals(2, "test1@example.com")).isTrue();
+        assertThat(parser.fieldEquals(3, "password")).isFalse();
+        assertThat(parser.fieldEquals(3, null)).isFalse();
+    }
+}
@@ -0,0 +1,77 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class H2DatabaseTest {
+    static final String TEST_FILE_PATH_USER = "src/test/resources/test_users.csv";
+    static final String TEST_FILE_PATH_TASK = "src/test/resources/test_tasks.csv";
+    static final String TEST_FILE_PATH_LOG = "src/test/resources/test_logs.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private H2Database database;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        database = new H2Database("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testImportCsv() throws SQLException {
+        database.importCsv(TEST_FILE_PATH_USER, TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG);
+
+        assertThat(new H2UserDataAccess(database).findAllAsMap()).containsOnlyKeys(1, 2);
+        assertThat(new H2TaskDataAccess(database).findAll()).hasSize(4);
+        assertThat(new H2LogDataAccess(database).findAll()).hasSize(7);
+    }
+
+    @Test
+    public void testImportCsvReplacesExistingRows() throws SQLException {
+        database.importCsv(TEST_FILE_PATH_USER, TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG);
+        database.importCsv(TEST_FILE_PATH_USER, TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG);
+
+        assertThat(new H2TaskDataAccess(database).findAll()).hasSize(4);
+        assertThat(new H2LogDataAccess(database).findAll()).hasSize(7);
+    }
+
+    @Test
+    public void testImportCsvRollsBackOnDuplicateEmail() throws IOException, SQLException {
+        database.importCsv(TEST_FILE_PATH_USER, TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG);
+        Path users = tempDir.resolve("users.csv");
+        Files.writeString(users, "Code,Name,Email,Password\n1,a,same@example.com,p\n2,b,same@example.com,p\n");
+
+        assertThatThrownBy(() -> database.importCsv(users.toString(), TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("ユーザーコード1と2");
+        assertThat(new H2UserDataAccess(database).findByCode(1).getEmail()).isEqualTo("test1@example.com");
+        assertThat(new H2LogDataAccess(database).findAll()).hasSize(7);
+    }
+
+    @Test
+    public void testFileDatabaseKeepsData() throws SQLException {
+        String url = "jdbc:h2:file:" + tempDir.resolve("taskapp").toAbsolutePath();
+        try (H2Database file = new H2Database(url)) {
+            file.importCsv(TEST_FILE_PATH_USER, TEST_FILE_PATH_TASK, TEST_FILE_PATH_LOG);
+        }
+        try (H2Database file = new H2Database(url)) {
+            assertThat(new H2TaskDataAccess(file).findByCode(3).getName()).isEqualTo("taskC");
+        }
+    }
+}
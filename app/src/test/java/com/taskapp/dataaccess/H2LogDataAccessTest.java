@@ -0,0 +1,65 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.taskapp.model.Log;
+
+public class H2LogDataAccessTest {
+    private H2Database database;
+    private H2LogDataAccess logDataAccess;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        database = new H2Database("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        database.importCsv(H2DatabaseTest.TEST_FILE_PATH_USER, H2DatabaseTest.TEST_FILE_PATH_TASK,
+                H2DatabaseTest.TEST_FILE_PATH_LOG);
+        logDataAccess = new H2LogDataAccess(database);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testFindAllInInsertionOrder() {
+        List<Log> logs = logDataAccess.findAll();
+
+        assertThat(logs).extracting(Log::getTaskCode).containsExactly(1, 2, 3, 4, 3, 3, 4);
+        assertThat(logs.get(6)).isEqualToComparingFieldByField(new Log(4, 2, 1, LocalDate.of(2024, 1, 13)));
+    }
+
+    @Test
+    public void testSaveAndFindByTaskCode() {
+        Log log = new Log(3, 1, 2, LocalDate.of(2024, 2, 1));
+        logDataAccess.save(log);
+
+        List<Log> logs = logDataAccess.findByTaskCode(3);
+        assertThat(logs).extracting(Log::getStatus).containsExactly(0, 1, 2, 2);
+        assertThat(logs.get(3)).isEqualToComparingFieldByField(log);
+    }
+
+    @Test
+    public void testStreamAll() {
+        try (Stream<Log> logs = logDataAccess.streamAll()) {
+            assertThat(logs.count()).isEqualTo(7);
+        }
+    }
+
+    @Test
+    public void testDeleteByTaskCode() {
+        logDataAccess.deleteByTaskCode(3);
+
+        assertThat(logDataAccess.findAll()).extracting(Log::getTaskCode).containsExactly(1, 2, 4, 4);
+    }
+}
@@ -0,0 +1,134 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.taskapp.exception.AppException;
+import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
+import com.taskapp.model.User;
+
+public class H2TaskDataAccessTest {
+    private H2Database database;
+    private H2TaskDataAccess taskDataAccess;
+    private final User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        database = new H2Database("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        database.importCsv(H2DatabaseTest.TEST_FILE_PATH_USER, H2DatabaseTest.TEST_FILE_PATH_TASK,
+                H2DatabaseTest.TEST_FILE_PATH_LOG);
+        taskDataAccess = new H2TaskDataAccess(database);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testFindAll() {
+        List<Task> tasks = taskDataAccess.findAll();
+
+        assertThat(tasks).extracting(Task::getCode).containsExactly(1, 2, 3, 4);
+        assertThat(tasks.get(1).getRepUser()).isEqualToComparingFieldByField(
+                new User(2, "鈴木二郎", "test2@example.com", "password2"));
+    }
+
+    @Test
+    public void testStreamAll() {
+        List<Integer> codes;
+        try (Stream<Task> tasks = taskDataAccess.streamAll()) {
+            codes = tasks.map(Task::getCode).collect(Collectors.toList());
+        }
+
+        assertThat(codes).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    public void testFindByCode() {
+        assertThat(taskDataAccess.findByCode(3).getName()).isEqualTo("taskC");
+        assertThat(taskDataAccess.findByCode(99)).isNull();
+    }
+
+    @Test
+    public void testSaveAndUpdate() {
+        taskDataAccess.save(new Task(5, "taskE", 0, repUser));
+        taskDataAccess.update(new Task(5, "taskE2", 1, repUser));
+
+        Task task = taskDataAccess.findByCode(5);
+        assertThat(task.getName()).isEqualTo("taskE2");
+        assertThat(task.getStatus()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSaveAllIsAtomic() {
+        taskDataAccess.saveAll(List.of(new Task(5, "taskE", 0, repUser), new Task(1, "duplicate", 0, repUser)));
+
+        assertThat(taskDataAccess.findByCode(5)).isNull();
+        assertThat(taskDataAccess.findByCode(1).getName()).isEqualTo("taskA");
+    }
+
+    @Test
+    public void testSaveAllIfAbsentRejectsUsedCodes() {
+        assertThatThrownBy(() -> taskDataAccess.saveAllIfAbsent(
+                List.of(new Task(5, "taskE", 0, repUser), new Task(1, "duplicate", 0, repUser))))
+                .isInstanceOf(AppException.class)
+                .hasMessage("タスクコード1は既に使われています");
+
+        assertThat(taskDataAccess.findByCode(5)).isNull();
+        assertThat(taskDataAccess.findByCode(1).getName()).isEqualTo("taskA");
+    }
+
+    @Test
+    public void testFindByRepUser() {
+        taskDataAccess.update(new Task(2, "taskB", 0, repUser));
+
+        assertThat(taskDataAccess.findByRepUser(1)).extracting(Task::getCode).containsExactly(1, 2);
+        assertThat(taskDataAccess.findByRepUser(2)).extracting(Task::getCode).containsExactly(3, 4);
+        assertThat(taskDataAccess.findByRepUser(9)).isEmpty();
+    }
+
+    @Test
+    public void testFindPage() {
+        TaskQuery query = new TaskQuery();
+        query.setRepUserCode(2);
+        query.setSort(TaskQuery.Sort.STATUS);
+        query.setLimit(2);
+        TaskPage page = taskDataAccess.findPage(query);
+        assertThat(page.getTasks()).extracting(Task::getCode).containsExactly(2, 4);
+        assertThat(page.hasNext()).isTrue();
+
+        query.setPage(1);
+        page = taskDataAccess.findPage(query);
+        assertThat(page.getTasks()).extracting(Task::getCode).containsExactly(3);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testFindPageEscapesNamePrefix() {
+        taskDataAccess.save(new Task(5, "50%_off", 0, repUser));
+        taskDataAccess.save(new Task(6, "500", 0, repUser));
+
+        TaskQuery query = new TaskQuery();
+        query.setNamePrefix("50%");
+        assertThat(taskDataAccess.findPage(query).getTasks()).extracting(Task::getCode).containsExactly(5);
+    }
+
+    @Test
+    public void testUpdateAll() {
+        taskDataAccess.updateAll(List.of(new Task(1, "taskA", 1, repUser), new Task(2, "taskB", 1, repUser)));
+
+        assertThat(taskDataAccess.findAll()).extracting(Task::getStatus).containsExactly(1, 1, 2, 1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.taskapp.model.User;
+
+public class H2UserDataAccessTest {
+    private H2Database database;
+    private H2UserDataAccess userDataAccess;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        database = new H2Database("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        database.importCsv(H2DatabaseTest.TEST_FILE_PATH_USER, H2DatabaseTest.TEST_FILE_PATH_TASK,
+                H2DatabaseTest.TEST_FILE_PATH_LOG);
+        userDataAccess = new H2UserDataAccess(database);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void testFindByEmailAndPassword() {
+        User user = userDataAccess.findByEmailAndPassword("test2@example.com", "password2");
+
+        assertThat(user).isEqualToComparingFieldByField(new User(2, "鈴木二郎", "test2@example.com", "password2"));
+        assertThat(userDataAccess.findByEmailAndPassword("test2@example.com", "wrong")).isNull();
+    }
+
+    @Test
+    public void testFindByCode() {
+        assertThat(userDataAccess.findByCode(1).getName()).isEqualTo("鈴木一郎");
+        assertThat(userDataAccess.findByCode(3)).isNull();
+    }
+
+    @Test
+    public void testFindAllAsMap() {
+        assertThat(userDataAccess.findAllAsMap()).containsOnlyKeys(1, 2);
+    }
+}
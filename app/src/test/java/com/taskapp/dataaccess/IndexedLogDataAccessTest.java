@@ -0,0 +1,116 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Log;
+
+public class IndexedLogDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_logs.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private IndexedLogDataAccess logDataAccess;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        logFile = tempDir.resolve("logs.csv");
+        Files.copy(Paths.get(TEST_FILE_PATH), logFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.writeString(logFile, System.lineSeparator(), StandardOpenOption.APPEND);
+        logDataAccess = new IndexedLogDataAccess(logFile.toString());
+    }
+
+    @Test
+    public void testFindByTaskCode() {
+        List<Log> logs = logDataAccess.findByTaskCode(3);
+
+        assertThat(logs).extracting(Log::getStatus).containsExactly(0, 1, 2);
+        assertThat(logDataAccess.findByTaskCode(99)).isEmpty();
+    }
+
+    @Test
+    public void testFindByTaskCodeIncludesSavedLogs() {
+        logDataAccess.findByTaskCode(4);
+        logDataAccess.save(new Log(4, 2, 2, LocalDate.of(2024, 1, 20)));
+        logDataAccess.save(new Log(4, 2, 2, LocalDate.of(2024, 1, 21)));
+
+        List<Log> logs = logDataAccess.findByTaskCode(4);
+
+        assertThat(logs).extracting(Log::getChangeDate).contains(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 1, 21));
+    }
+
+    @Test
+    public void testDeleteByTaskCodeWritesTombstone() throws IOException {
+        String before = Files.readString(logFile);
+
+        logDataAccess.deleteByTaskCode(3);
+
+        assertThat(Files.readString(logFile)).isEqualTo(before);
+        assertThat(logDataAccess.findByTaskCode(3)).isEmpty();
+        assertThat(logDataAccess.findAll()).extracting(Log::getTaskCode).doesNotContain(3);
+        assertThat(new IndexedLogDataAccess(logFile.toString()).findByTaskCode(3)).isEmpty();
+    }
+
+    @Test
+    public void testLogsSavedAfterDeleteAreVisible() {
+        logDataAccess.deleteByTaskCode(2);
+        logDataAccess.save(new Log(2, 1, 0, LocalDate.of(2024, 2, 1)));
+
+        assertThat(logDataAccess.findByTaskCode(2)).extracting(Log::getChangeDate)
+                .containsExactly(LocalDate.of(2024, 2, 1));
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        logDataAccess.deleteByTaskCode(3);
+
+        logDataAccess.compact();
+
+        assertThat(Files.exists(tempDir.resolve("logs.csv.tombstones"))).isFalse();
+        assertThat(Files.readAllLines(logFile)).hasSize(5);
+        assertThat(logDataAccess.findByTaskCode(4)).hasSize(2);
+    }
+
+    @Test
+    public void testSeesTombstonesFromAnotherInstance() {
+        IndexedLogDataAccess other = new IndexedLogDataAccess(logFile.toString());
+        assertThat(logDataAccess.findByTaskCode(3)).hasSize(3);
+
+        other.deleteByTaskCode(3);
+        assertThat(logDataAccess.findByTaskCode(3)).isEmpty();
+        assertThat(logDataAccess.findAll()).extracting(Log::getTaskCode).doesNotContain(3);
+
+        // 書き戻しで削除の記録が空になっても、書き直したファイルから索引を作り直す
+        other.compact();
+        logDataAccess.save(new Log(3, 1, 0, LocalDate.of(2024, 2, 1)));
+        assertThat(logDataAccess.findByTaskCode(3)).extracting(Log::getChangeDate)
+                .containsExactly(LocalDate.of(2024, 2, 1));
+        assertThat(logDataAccess.findByTaskCode(4)).hasSize(2);
+    }
+
+    @Test
+    public void testRebuildsIndexAfterRewriteInPlace() throws IOException {
+        assertThat(logDataAccess.findByTaskCode(4)).hasSize(2);
+
+        // 同じ長さのまま最後の行のタスクコードを書き換える
+        String content = Files.readString(logFile).replace("4,2,1,2024-01-13", "1,2,1,2024-01-13");
+        Files.writeString(logFile, content);
+
+        assertThat(logDataAccess.findByTaskCode(4)).hasSize(1);
+        assertThat(logDataAccess.findByTaskCode(1)).hasSize(2);
+    }
+}
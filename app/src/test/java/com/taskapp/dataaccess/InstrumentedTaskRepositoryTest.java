@@ -0,0 +1,62 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class InstrumentedTaskRepositoryTest {
+    private final TaskRepository delegate = mock(TaskRepository.class);
+    private final InstrumentedTaskRepository repository = new InstrumentedTaskRepository(delegate);
+
+    @Test
+    public void testDelegatesAndCountsCalls() {
+        Task task = new Task(1, "taskA", 0, new User(1, "鈴木一郎", "test1@example.com", "password1"));
+        when(delegate.findByCode(1)).thenReturn(task);
+        OperationMetrics findByCode = Metrics.operation("TaskRepository.findByCode");
+        OperationMetrics save = Metrics.operation("TaskRepository.save");
+        long findByCodeBefore = findByCode.getCount();
+        long saveBefore = save.getCount();
+
+        assertThat(repository.findByCode(1)).isSameAs(task);
+        repository.save(task);
+
+        verify(delegate).save(task);
+        assertThat(findByCode.getCount()).isEqualTo(findByCodeBefore + 1);
+        assertThat(save.getCount()).isEqualTo(saveBefore + 1);
+    }
+
+    @Test
+    public void testCountsCallThatThrows() {
+        when(delegate.findAll()).thenThrow(new IllegalStateException("failed"));
+        OperationMetrics findAll = Metrics.operation("TaskRepository.findAll");
+        long before = findAll.getCount();
+
+        assertThatThrownBy(repository::findAll).isInstanceOf(IllegalStateException.class);
+
+        assertThat(findAll.getCount()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void testStreamRecordedOnClose() {
+        when(delegate.streamAll()).thenReturn(Stream.empty());
+        OperationMetrics streamAll = Metrics.operation("TaskRepository.streamAll");
+        long before = streamAll.getCount();
+
+        Stream<Task> tasks = repository.streamAll();
+        assertThat(streamAll.getCount()).isEqualTo(before);
+        List<Task> result = tasks.toList();
+        tasks.close();
+
+        assertThat(result).isEmpty();
+        assertThat(streamAll.getCount()).isEqualTo(before + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class JournaledTaskDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_tasks.csv";
+    private static final String TEST_FILE_PATH_USER = "src/test/resources/test_users.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path taskFile;
+    private Path journalFile;
+    private UserDataAccess userDataAccess;
+    private User repUser;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskFile = tempDir.resolve("tasks.csv");
+        journalFile = tempDir.resolve("tasks.csv.journal");
+        Files.copy(Paths.get(TEST_FILE_PATH), taskFile, StandardCopyOption.REPLACE_EXISTING);
+        userDataAccess = new UserDataAccess(TEST_FILE_PATH_USER);
+        repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+    }
+
+    @Test
+    public void testUpdateAppendsToJournal() throws IOException {
+        JournaledTaskDataAccess taskDataAccess = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess);
+        String before = Files.readString(taskFile);
+
+        taskDataAccess.update(new Task(2, "taskB", 1, repUser));
+
+        assertThat(Files.readString(taskFile)).isEqualTo(before);
+        assertThat(Files.readAllLines(journalFile)).containsExactly("2,taskB,1,1");
+        assertThat(taskDataAccess.findByCode(2).getStatus()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFindAllMergesJournalInFileOrder() {
+        JournaledTaskDataAccess taskDataAccess = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess);
+        taskDataAccess.update(new Task(3, "taskC2", 2, repUser));
+        taskDataAccess.update(new Task(3, "taskC3", 2, repUser));
+        taskDataAccess.update(new Task(99, "unknown", 0, repUser));
+
+        List<Task> tasks = taskDataAccess.findAll();
+
+        assertThat(tasks).extracting(Task::getCode).containsExactly(1, 2, 3, 4);
+        assertThat(tasks.get(2).getName()).isEqualTo("taskC3");
+    }
+
+    @Test
+    public void testCompactAfterMaxRecords() throws IOException {
+        JournaledTaskDataAccess taskDataAccess = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess, 2, Long.MAX_VALUE);
+
+        taskDataAccess.update(new Task(1, "taskA", 1, repUser));
+        assertThat(taskDataAccess.getJournalRecords()).isEqualTo(1);
+        taskDataAccess.update(new Task(1, "taskA", 2, repUser));
+
+        assertThat(taskDataAccess.getJournalRecords()).isZero();
+        assertThat(Files.exists(journalFile)).isFalse();
+        assertThat(Files.readAllLines(taskFile)).contains("1,taskA,2,1");
+    }
+
+    @Test
+    public void testJournalSurvivesReopen() {
+        new JournaledTaskDataAccess(taskFile.toString(), userDataAccess).update(new Task(4, "taskD", 2, repUser));
+
+        JournaledTaskDataAccess reopened = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess);
+
+        assertThat(reopened.getJournalRecords()).isEqualTo(1);
+        assertThat(reopened.findByCode(4).getStatus()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSeesJournalWrittenByAnotherInstance() throws IOException {
+        JournaledTaskDataAccess reader = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess);
+        JournaledTaskDataAccess writer = new JournaledTaskDataAccess(taskFile.toString(), userDataAccess, 2, Long.MAX_VALUE);
+        assertThat(reader.findByCode(1).getStatus()).isZero();
+
+        writer.update(new Task(1, "taskA", 2, repUser));
+        assertThat(reader.findByCode(1).getStatus()).isEqualTo(2);
+        assertThat(reader.getJournalRecords()).isEqualTo(1);
+
+        // 他のインスタンスの追記を数えて書き戻す
+        reader.update(new Task(2, "taskB", 1, repUser));
+        reader.compact();
+        assertThat(Files.exists(journalFile)).isFalse();
+        assertThat(writer.getJournalRecords()).isZero();
+        assertThat(Files.readAllLines(taskFile)).contains("1,taskA,2,1", "2,taskB,1,1");
+    }
+}
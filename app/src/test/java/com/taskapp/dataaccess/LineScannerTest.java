@@ -0,0 +1,87 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LineScannerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testScanReportsOffsetsAcrossBuffers() throws IOException {
+        Path file = tempDir.resolve("lines.csv");
+        StringBuilder content = new StringBuilder();
+        List<Long> expectedOffsets = new ArrayList<>();
+        // バッファ(64KB)の境目をまたぐ長い行を含める
+        String longLine = "x".repeat(70_000);
+        long offset = 0;
+        for (String line : new String[] {"header", "1,a", longLine, "2,あいう", "3,c"}) {
+            expectedOffsets.add(offset);
+            content.append(line).append("\r\n");
+            offset += line.getBytes("UTF-8").length + 2;
+        }
+        content.append("4,partial");
+        Files.writeString(file, content);
+
+        List<Long> offsets = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        long end = LineScanner.scan(file, 0, Long.MAX_VALUE, false, (o, line) -> {
+            offsets.add(o);
+            lines.add(line);
+        });
+
+        assertThat(offsets).isEqualTo(expectedOffsets);
+        assertThat(lines).containsExactly("header", "1,a", longLine, "2,あいう", "3,c");
+        assertThat(end).isEqualTo(offset);
+    }
+
+    @Test
+    public void testCursorReturnsPartialLastLine() throws IOException {
+        Path file = tempDir.resolve("lines.csv");
+        Files.writeString(file, "header\n1,a\n2,b");
+
+        try (LineScanner.Cursor cursor = new LineScanner.Cursor(file, 7, Long.MAX_VALUE)) {
+            assertThat(cursor.next()).isTrue();
+            assertThat(cursor.offset()).isEqualTo(7);
+            assertThat(cursor.line()).isEqualTo("1,a");
+            assertThat(cursor.isPartial()).isFalse();
+
+            assertThat(cursor.next()).isTrue();
+            assertThat(cursor.offset()).isEqualTo(11);
+            assertThat(cursor.line()).isEqualTo("2,b");
+            assertThat(cursor.isPartial()).isTrue();
+
+            assertThat(cursor.next()).isFalse();
+            assertThat(cursor.lineEnd()).isEqualTo(11);
+        }
+    }
+
+    @Test
+    public void testStreamSkipsHeaderAndNulls() throws IOException {
+        Path file = tempDir.resolve("lines.csv");
+        Files.writeString(file, "header\n1,a\ninvalid\n3,c\n");
+
+        List<Long> offsets = new ArrayList<>();
+        try (Stream<String> values = LineScanner.stream(file, true, (offset, line) -> {
+            offsets.add(offset);
+            return line.contains(",") ? line : null;
+        })) {
+            assertThat(values.iterator().next()).isEqualTo("1,a");
+            // 要素を取り出した分だけ読み込む
+            assertThat(offsets).containsExactly(7L);
+        }
+
+        try (Stream<String> values = LineScanner.stream(file, true, (offset, line) -> line.contains(",") ? line : null)) {
+            assertThat(values.toList()).containsExactly("1,a", "3,c");
+        }
+    }
+}
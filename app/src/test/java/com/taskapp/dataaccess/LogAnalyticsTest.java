@@ -0,0 +1,169 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Log;
+
+public class LogAnalyticsTest {
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private LogDataAccess logDataAccess;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        logFile = tempDir.resolve("logs.csv");
+        Files.writeString(logFile, "taskCode,userCode,status,changeDate\n"
+                + "1,1,0,2024-01-01\n"
+                + "2,1,0,2024-01-01\n"
+                + "1,1,1,2024-01-02\n"
+                + "2,2,1,2024-01-03\n"
+                + "1,2,2,2024-01-05\n");
+        logDataAccess = new LogDataAccess(logFile.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logDataAccess.close();
+    }
+
+    @Test
+    public void testAggregates() {
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+
+        assertThat(analytics.getCycleTimeDays(1)).isEqualTo(4);
+        assertThat(analytics.getCycleTimeDays(2)).isEqualTo(-1);
+        assertThat(analytics.getCycleTimeDays(9)).isEqualTo(-1);
+        assertThat(analytics.getAverageCycleTimeDays()).isEqualTo(4.0);
+        assertThat(analytics.getCompletionsPerDay(2)).containsExactly(Map.entry(LocalDate.of(2024, 1, 5), 1));
+        assertThat(analytics.getCompletionsPerDay(1)).isEmpty();
+        assertThat(analytics.getWorkInProgressPerDay()).containsExactly(
+                Map.entry(LocalDate.of(2024, 1, 2), 1),
+                Map.entry(LocalDate.of(2024, 1, 3), 2),
+                Map.entry(LocalDate.of(2024, 1, 5), 1));
+    }
+
+    @Test
+    public void testAppliesOutOfOrderLogsByDate() {
+        // 着手(1/3)より前の日付で完了したログが後から届いた場合は、完了を1/2として数え直す
+        logDataAccess.save(new Log(2, 1, 2, LocalDate.of(2024, 1, 2)));
+        // 登録より前の日付のログは、現在のステータスを変えずに登録日だけを早める
+        logDataAccess.save(new Log(1, 1, 0, LocalDate.of(2023, 12, 30)));
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+
+        assertThat(analytics.getCycleTimeDays(1)).isEqualTo(6);
+        assertThat(analytics.getCycleTimeDays(2)).isEqualTo(1);
+        assertThat(analytics.getAverageCycleTimeDays()).isEqualTo(3.5);
+        assertThat(analytics.getCompletionsPerDay(1)).containsExactly(Map.entry(LocalDate.of(2024, 1, 2), 1));
+        assertThat(analytics.getWorkInProgressPerDay()).containsExactly(
+                Map.entry(LocalDate.of(2024, 1, 2), 1),
+                Map.entry(LocalDate.of(2024, 1, 3), 2),
+                Map.entry(LocalDate.of(2024, 1, 5), 1));
+
+        // 書き出した集計結果から再開しても同じ結果になる
+        analytics.checkpoint();
+        LogAnalytics restarted = new LogAnalytics(logDataAccess);
+        assertThat(restarted.getAverageCycleTimeDays()).isEqualTo(3.5);
+        assertThat(restarted.getWorkInProgressPerDay()).isEqualTo(analytics.getWorkInProgressPerDay());
+    }
+
+    @Test
+    public void testRejectsNonCsvLogs() {
+        BinaryLogDataAccess binary = new BinaryLogDataAccess(tempDir.resolve("logs.bin").toString());
+        try {
+            assertThat(LogAnalytics.forRepository(binary)).isNull();
+            assertThatThrownBy(() -> new LogAnalytics(binary)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(LogAnalytics.forRepository(logDataAccess)).isNotNull();
+        } finally {
+            binary.close();
+        }
+    }
+
+    @Test
+    public void testReadsOnlyAppendedLogs() throws IOException {
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+        analytics.refresh();
+        long processed = analytics.getProcessedLength();
+        assertThat(processed).isEqualTo(Files.size(logFile));
+
+        // 読み込み済みの部分を同じ長さのまま書き換えても、末尾以外は読み直さない
+        String content = Files.readString(logFile).replace("1,1,0,2024-01-01", "1,1,0,2023-12-31");
+        Files.writeString(logFile, content);
+        logDataAccess.save(new Log(2, 1, 2, LocalDate.of(2024, 1, 10)));
+
+        assertThat(analytics.getCycleTimeDays(1)).isEqualTo(4);
+        assertThat(analytics.getCycleTimeDays(2)).isEqualTo(9);
+        assertThat(analytics.getCompletionsPerDay(1)).containsExactly(Map.entry(LocalDate.of(2024, 1, 10), 1));
+        assertThat(analytics.getWorkInProgressPerDay()).containsEntry(LocalDate.of(2024, 1, 10), 0);
+        assertThat(analytics.getProcessedLength()).isGreaterThan(processed);
+    }
+
+    @Test
+    public void testResumesFromCheckpoint() throws IOException {
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+        analytics.refresh();
+        analytics.checkpoint();
+
+        String content = Files.readString(logFile).replace("1,1,0,2024-01-01", "1,1,0,2023-12-31");
+        Files.writeString(logFile, content);
+        logDataAccess.save(new Log(2, 1, 2, LocalDate.of(2024, 1, 10)));
+
+        // 書き出した位置の続きから読み込むため、書き換えた行は集計に使われない
+        LogAnalytics restarted = new LogAnalytics(logDataAccess);
+        assertThat(restarted.getProcessedLength()).isEqualTo(analytics.getProcessedLength());
+        assertThat(restarted.getCycleTimeDays(1)).isEqualTo(4);
+        assertThat(restarted.getCycleTimeDays(2)).isEqualTo(9);
+    }
+
+    @Test
+    public void testCheckpointSizeDoesNotGrowWithLogs() throws IOException {
+        Path checkpoint = tempDir.resolve("logs.csv.analytics");
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+        analytics.refresh();
+        analytics.checkpoint();
+        long size = Files.size(checkpoint);
+
+        // 集計結果はタスクごとの状態だけを書き出すため、同じタスクのログが増えても大きくならない
+        for (int i = 0; i < 100; i++) {
+            logDataAccess.save(new Log(2, 2, 1, LocalDate.of(2024, 1, 3)));
+        }
+        analytics.refresh();
+        analytics.checkpoint();
+
+        assertThat(Files.size(checkpoint)).isEqualTo(size);
+        assertThat(new LogAnalytics(logDataAccess).getWorkInProgressPerDay())
+                .isEqualTo(analytics.getWorkInProgressPerDay());
+    }
+
+    @Test
+    public void testCheckpointsAfterInterval() {
+        LogAnalytics analytics = new LogAnalytics(logDataAccess, 1);
+        analytics.refresh();
+
+        assertThat(Files.exists(tempDir.resolve("logs.csv.analytics"))).isTrue();
+    }
+
+    @Test
+    public void testRecomputesAfterRewrite() {
+        LogAnalytics analytics = new LogAnalytics(logDataAccess);
+        assertThat(analytics.getCycleTimeDays(1)).isEqualTo(4);
+
+        logDataAccess.deleteByTaskCode(1);
+
+        assertThat(analytics.getCycleTimeDays(1)).isEqualTo(-1);
+        assertThat(analytics.getCompletionsPerDay(2)).isEmpty();
+        assertThat(analytics.getWorkInProgressPerDay()).containsExactly(Map.entry(LocalDate.of(2024, 1, 3), 1));
+    }
+}
@@ -0,0 +1,155 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Log;
+
+public class LogAppenderTest {
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        logFile = tempDir.resolve("logs.csv");
+        Files.writeString(logFile, "Task_Code,Change_User_Code,Status,Change_Date" + System.lineSeparator());
+    }
+
+    @Test
+    public void testFlushPerRecord() throws IOException {
+        try (LogAppender appender = new LogAppender(logFile.toString(), LogAppender.DurabilityMode.FLUSH_PER_RECORD)) {
+            appender.append("1,1,0,2024-01-10");
+
+            assertThat(Files.readAllLines(logFile)).contains("1,1,0,2024-01-10");
+        }
+    }
+
+    @Test
+    public void testGroupCommitWritesOnBatchSize() throws IOException {
+        try (LogAppender appender = new LogAppender(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT, 2, 60_000)) {
+            appender.append("1,1,0,2024-01-10");
+            assertThat(Files.readAllLines(logFile)).hasSize(1);
+
+            appender.append("2,1,0,2024-01-10");
+            assertThat(Files.readAllLines(logFile)).hasSize(3);
+        }
+    }
+
+    @Test
+    public void testGroupCommitWritesOnFlushAndClose() throws IOException {
+        LogAppender appender = new LogAppender(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT, 100, 60_000);
+        appender.append("1,1,0,2024-01-10");
+        appender.flush();
+        assertThat(Files.readAllLines(logFile)).hasSize(2);
+
+        appender.append("2,1,0,2024-01-10");
+        appender.close();
+        assertThat(Files.readAllLines(logFile)).hasSize(3);
+        assertThatThrownBy(() -> appender.append("3,1,0,2024-01-10")).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void testGroupCommitWritesAfterDelay() throws Exception {
+        try (LogAppender appender = new LogAppender(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT, 100, 10)) {
+            appender.append("1,1,0,2024-01-10");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.readAllLines(logFile).size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(Files.readAllLines(logFile)).hasSize(2);
+        }
+    }
+
+    @Test
+    public void testReopensReplacedFile() throws Exception {
+        try (LogAppender appender = new LogAppender(logFile.toString(), LogAppender.DurabilityMode.FLUSH_PER_RECORD)) {
+            appender.append("1,1,0,2024-01-10");
+            Path replacement = tempDir.resolve("logs.csv.tmp");
+            Files.writeString(replacement, "Task_Code,Change_User_Code,Status,Change_Date" + System.lineSeparator());
+            Files.move(replacement, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // ファイルの識別子は一定時間ごとに確認する
+            Thread.sleep(1100);
+            appender.append("2,1,0,2024-01-11");
+
+            assertThat(Files.readAllLines(logFile)).containsExactly(
+                    "Task_Code,Change_User_Code,Status,Change_Date", "2,1,0,2024-01-11");
+        }
+    }
+
+    @Test
+    public void testLogDataAccessReadsPendingRecords() {
+        LogDataAccess logDataAccess = new LogDataAccess(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT);
+        Log log = new Log(1, 1, 1, LocalDate.of(2024, 1, 10));
+
+        logDataAccess.save(log);
+
+        assertThat(logDataAccess.findAll()).containsExactly(log);
+        logDataAccess.close();
+    }
+
+    @Test
+    public void testDeleteByTaskCodeThenSave() throws IOException {
+        LogDataAccess logDataAccess = new LogDataAccess(logFile.toString());
+        logDataAccess.save(new Log(1, 1, 0, LocalDate.of(2024, 1, 10)));
+        logDataAccess.save(new Log(2, 1, 0, LocalDate.of(2024, 1, 10)));
+
+        logDataAccess.deleteByTaskCode(1);
+        logDataAccess.save(new Log(3, 1, 0, LocalDate.of(2024, 1, 11)));
+
+        assertThat(Files.readAllLines(logFile)).containsExactly(
+                "taskCode,userCode,status,changeDate", "2,1,0,2024-01-10", "3,1,0,2024-01-11");
+        logDataAccess.close();
+    }
+
+    @Test
+    public void testDeleteByTaskCodeKeepsConcurrentSaves() throws Exception {
+        LogDataAccess logDataAccess = new LogDataAccess(logFile.toString());
+        Thread saver = new Thread(() -> {
+            for (int i = 0; i < 200; i++) {
+                logDataAccess.save(new Log(2, 1, 0, LocalDate.of(2024, 1, 10)));
+            }
+        });
+        saver.start();
+        for (int i = 0; i < 20; i++) {
+            logDataAccess.save(new Log(1, 1, 0, LocalDate.of(2024, 1, 10)));
+            logDataAccess.deleteByTaskCode(1);
+        }
+        saver.join();
+
+        assertThat(logDataAccess.findAll()).hasSize(200).allMatch(log -> log.getTaskCode() == 2);
+        logDataAccess.close();
+    }
+
+    @Test
+    public void testLogDataAccessSharesAppenderPerFile() throws IOException {
+        LogDataAccess first = new LogDataAccess(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT);
+        LogDataAccess second = new LogDataAccess(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT);
+        assertThat(second.appender).isSameAs(first.appender);
+
+        first.save(new Log(1, 1, 1, LocalDate.of(2024, 1, 10)));
+        first.close();
+        first.close();
+        // 他のインスタンスが使っている間は閉じない
+        second.save(new Log(2, 1, 1, LocalDate.of(2024, 1, 10)));
+        assertThat(second.findAll()).extracting(Log::getTaskCode).containsExactly(1, 2);
+
+        second.close();
+        assertThatThrownBy(() -> second.appender.append("3,1,1,2024-01-10")).isInstanceOf(IOException.class);
+        LogDataAccess third = new LogDataAccess(logFile.toString(), LogAppender.DurabilityMode.GROUP_COMMIT);
+        assertThat(third.appender).isNotSameAs(first.appender);
+        third.close();
+    }
+}
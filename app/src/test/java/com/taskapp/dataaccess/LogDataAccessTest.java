@@ -11,11 +11,13 @@ import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.taskapp.model.Log;
 
@@ -67,6 +69,15 @@ public class LogDataAccessTest {
         assertThat(actuaList).isEqualTo(expectedList);
     }
 
+    @Test
+    public void testStreamAll() {
+        List<Log> expectedList = readLogsFromFile(TEST_FILE_PATH);
+
+        try (Stream<Log> logs = logDataAccess.streamAll()) {
+            assertThat(logs.toList()).isEqualTo(expectedList);
+        }
+    }
+
     @Tag("Q5")
     @Test
     public void testDeleteByTaskCode() {
@@ -105,4 +116,32 @@ public class LogDataAccessTest {
         }
         return logs;
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindAllInParallel(@TempDir Path tempDir) throws IOException {
+        Path logFile = tempDir.resolve("logs.csv");
+        StringBuilder content = new StringBuilder("taskCode,userCode,status,changeDate\n");
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        for (int i = 1; i <= 200000; i++) {
+            if (i % 10007 == 0) {
+                content.append("invalid line\n");
+            }
+            content.append(i).append(',').append(i % 5 + 1).append(',').append(i % 3).append(',')
+                    .append(date.plusDays(i % 365)).append('\n');
+        }
+        Files.writeString(logFile, content);
+        LogDataAccess sequential = new LogDataAccess(logFile.toString());
+        LogDataAccess parallel = new LogDataAccess(logFile.toString());
+        parallel.setParallelism(4);
+
+        List<Log> expected = sequential.findAll();
+        List<Log> actual = parallel.findAll();
+        sequential.close();
+        parallel.close();
+
+        assertThat(ParallelLineReader.split(logFile, 4, ParallelLineReader.DEFAULT_MIN_CHUNK_BYTES).length).isGreaterThan(2);
+        assertThat(actual).hasSize(200000);
+        assertThat(actual.stream().map(logDataAccess::createLine).toList())
+                .isEqualTo(expected.stream().map(logDataAccess::createLine).toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MalformedRowsTest {
+    @TempDir
+    Path tempDir;
+
+    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+    private final PrintStream originalErr = System.err;
+    private String csv;
+
+    @BeforeEach
+    public void setUp() {
+        System.setErr(new PrintStream(errContent));
+        csv = tempDir.resolve("tasks.csv").toString();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setErr(originalErr);
+    }
+
+    @Test
+    public void testSummarizesOnceWithSamples() throws IOException {
+        MalformedRows rows = new MalformedRows(csv);
+        for (int i = 0; i < 1000; i++) {
+            rows.reject(100L + i, "broken" + i, "unexpected column count");
+        }
+        rows.unresolved("5,taskE,0,9", "user not found");
+
+        rows.summarize();
+
+        String err = errContent.toString();
+        assertThat(err).contains("tasks.csv: 不正な行を1001行読み飛ばしました", "新たに退避: 1000", "未解決: 1",
+                "[unexpected column count] broken0");
+        assertThat(err.split(System.lineSeparator())).hasSize(1 + MalformedRows.SAMPLE_LIMIT);
+        assertThat(Files.readAllLines(Paths.get(csv + ".rejected"))).hasSize(1000)
+                .startsWith("100," + "broken0".hashCode() + ",unexpected column count,broken0");
+    }
+
+    @Test
+    public void testKnownRowsAreSkippedByOtherInstances() {
+        MalformedRows first = new MalformedRows(csv);
+        first.reject(10, "broken", "parsing error");
+        first.summarize();
+        errContent.reset();
+
+        MalformedRows second = new MalformedRows(csv);
+
+        assertThat(second.isKnown(10, "broken")).isTrue();
+        // 同じ位置でも内容が変わっていれば退避済みとはみなさない
+        assertThat(second.isKnown(10, "1,taskA,0,1")).isFalse();
+        assertThat(second.isKnown(11, "broken")).isFalse();
+        assertThat(second.isKnown(MalformedRows.NO_OFFSET, "broken")).isFalse();
+        second.summarize();
+        assertThat(errContent.toString()).isEmpty();
+    }
+
+    @Test
+    public void testRepeatedUnresolvedRowsAreRateLimited() {
+        MalformedRows rows = new MalformedRows(csv);
+        rows.unresolved("5,taskE,0,9", "user not found");
+        rows.summarize();
+        errContent.reset();
+
+        rows.unresolved("5,taskE,0,9", "user not found");
+        rows.summarize();
+
+        assertThat(errContent.toString()).isEmpty();
+        assertThat(Paths.get(csv + ".rejected")).doesNotExist();
+    }
+
+    @Test
+    public void testSharedPerFile() {
+        MalformedRows rows = MalformedRows.of(csv);
+
+        assertThat(MalformedRows.of(tempDir.resolve(".").resolve("tasks.csv").toString())).isSameAs(rows);
+        assertThat(MalformedRows.of(tempDir.resolve("logs.csv").toString())).isNotSameAs(rows);
+    }
+
+    @Test
+    public void testRewrittenDiscardsOffsets() throws IOException {
+        MalformedRows rows = new MalformedRows(csv);
+        rows.reject(10, "broken", "parsing error");
+        rows.summarize();
+
+        rows.rewritten();
+
+        // 書き直した後は同じ位置に別の行が来るため、退避済みとはみなさない
+        assertThat(rows.isKnown(10, "broken")).isFalse();
+        assertThat(new MalformedRows(csv).isKnown(10, "broken")).isFalse();
+        assertThat(Paths.get(csv + ".rejected")).doesNotExist();
+        assertThat(Files.readAllLines(Paths.get(csv + ".rejected.old")))
+                .containsExactly("10," + "broken".hashCode() + ",parsing error,broken");
+    }
+}
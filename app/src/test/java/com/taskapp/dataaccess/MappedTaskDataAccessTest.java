@@ -0,0 +1,89 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class MappedTaskDataAccessTest {
+    private static final String TEST_FILE_PATH = "src/test/resources/test_tasks.csv";
+    private static final String TEST_FILE_PATH_USER = "src/test/resources/test_users.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private Path taskFile;
+    private MappedTaskDataAccess taskDataAccess;
+    private User repUser;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        taskFile = tempDir.resolve("tasks.csv");
+        Files.copy(Paths.get(TEST_FILE_PATH), taskFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.writeString(taskFile, System.lineSeparator(), StandardOpenOption.APPEND);
+        taskDataAccess = new MappedTaskDataAccess(taskFile.toString(), new UserDataAccess(TEST_FILE_PATH_USER));
+        repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+    }
+
+    @Test
+    public void testFindByCode() {
+        Task task = taskDataAccess.findByCode(3);
+
+        assertThat(task.getName()).isEqualTo("taskC");
+        assertThat(task.getStatus()).isEqualTo(2);
+        assertThat(task.getRepUser().getName()).isEqualTo("鈴木二郎");
+        assertThat(taskDataAccess.findByCode(99)).isNull();
+    }
+
+    @Test
+    public void testSaveExtendsIndex() {
+        assertThat(taskDataAccess.indexedCount()).isEqualTo(4);
+
+        taskDataAccess.save(new Task(5, "taskE", 0, repUser));
+        taskDataAccess.save(new Task(6, "taskF", 1, repUser));
+
+        assertThat(taskDataAccess.indexedCount()).isEqualTo(6);
+        assertThat(taskDataAccess.findByCode(6).getName()).isEqualTo("taskF");
+    }
+
+    @Test
+    public void testUpdateRebuildsIndex() {
+        taskDataAccess.update(new Task(2, "taskB2", 1, repUser));
+
+        Task task = taskDataAccess.findByCode(2);
+        assertThat(task.getName()).isEqualTo("taskB2");
+        assertThat(taskDataAccess.findByCode(4).getName()).isEqualTo("taskD");
+    }
+
+    @Test
+    public void testRebuildsAfterExternalEdit() throws IOException {
+        assertThat(taskDataAccess.findByCode(1)).isNotNull();
+
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n7,taskG,0,2\n");
+        Files.setLastModifiedTime(taskFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertThat(taskDataAccess.findByCode(1)).isNull();
+        assertThat(taskDataAccess.findByCode(7).getName()).isEqualTo("taskG");
+    }
+
+    @Test
+    public void testSkipsCodesOutOfIntRange() throws IOException {
+        // int型に収まらないコードは、桁あふれした値(7)として登録しない
+        Files.writeString(taskFile, "4294967303,taskX,0,1" + System.lineSeparator(), StandardOpenOption.APPEND);
+
+        assertThat(taskDataAccess.findByCode(7)).isNull();
+        assertThat(taskDataAccess.indexedCount()).isEqualTo(4);
+    }
+}
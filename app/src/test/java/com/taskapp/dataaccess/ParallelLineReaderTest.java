@@ -0,0 +1,77 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelLineReaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSplitAlignsToLineStarts() throws IOException {
+        Path file = tempDir.resolve("lines.csv");
+        StringBuilder content = new StringBuilder("header\n");
+        for (int i = 1; i <= 1000; i++) {
+            content.append(i).append(",line").append(i).append('\n');
+        }
+        Files.writeString(file, content);
+        byte[] bytes = Files.readAllBytes(file);
+
+        long[] bounds = ParallelLineReader.split(file, 8, 16);
+
+        assertThat(bounds).hasSize(9);
+        assertThat(bounds[0]).isZero();
+        assertThat(bounds[bounds.length - 1]).isEqualTo(bytes.length);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            assertThat(bounds[i]).isGreaterThan(bounds[i - 1]);
+            assertThat(bytes[(int) bounds[i] - 1]).isEqualTo((byte) '\n');
+        }
+    }
+
+    @Test
+    public void testSmallFileIsNotSplit() throws IOException {
+        Path file = tempDir.resolve("small.csv");
+        Files.writeString(file, "header\n1,a\n2,b\n");
+
+        assertThat(ParallelLineReader.split(file, 8, 1024)).containsExactly(0, Files.size(file));
+    }
+
+    @Test
+    public void testReadKeepsOrderAndSkipsInvalidLines() throws IOException {
+        Path file = tempDir.resolve("lines.csv");
+        StringBuilder content = new StringBuilder("header\r\n");
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            if (i % 97 == 0) {
+                content.append("invalid\r\n");
+                continue;
+            }
+            content.append(i).append(",line").append(i).append("\r\n");
+            expected.add(i);
+        }
+        // 改行で終わっていない最後の行も読み込む
+        content.append("5001,last");
+        expected.add(5001);
+        Files.writeString(file, content);
+
+        LineScanner.LineParser<Integer> parser = (offset, line) -> {
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                return null;
+            }
+            assertThat(line).doesNotEndWith("\r");
+            return Integer.parseInt(line.substring(0, comma));
+        };
+        List<Integer> values = ParallelLineReader.read(file, 8, 256, true, () -> parser);
+
+        assertThat(values).containsExactlyElementsOf(expected);
+    }
+}
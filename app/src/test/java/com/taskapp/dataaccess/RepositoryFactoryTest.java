@@ -0,0 +1,98 @@
+package com.taskapp.dataaccess;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RepositoryFactoryTest {
+    private static final String TEST_RESOURCES = "src/test/resources";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty(RepositoryFactory.CONFIG_PROPERTY);
+        System.clearProperty("taskapp.task.storage");
+    }
+
+    @Test
+    public void testDefaultsToCsv() {
+        RepositoryFactory factory = new RepositoryFactory(new Properties());
+
+        UserRepository users = factory.createUserRepository();
+        assertThat(users).isExactlyInstanceOf(UserDataAccess.class);
+        assertThat(factory.createTaskRepository(users)).isExactlyInstanceOf(TaskDataAccess.class);
+        assertThat(factory.createLogRepository()).isExactlyInstanceOf(LogDataAccess.class);
+    }
+
+    @Test
+    public void testSelectsStoragePerKind() {
+        Properties properties = new Properties();
+        properties.setProperty("taskapp.storage", "binary");
+        properties.setProperty("taskapp.task.storage", "cached");
+        RepositoryFactory factory = new RepositoryFactory(properties);
+
+        assertThat(factory.createTaskRepository(null)).isExactlyInstanceOf(CachedTaskDataAccess.class);
+        assertThat(factory.createLogRepository()).isExactlyInstanceOf(BinaryLogDataAccess.class);
+    }
+
+    @Test
+    public void testUsesDataDir() {
+        Properties properties = new Properties();
+        properties.setProperty("taskapp.data.dir", TEST_RESOURCES);
+        properties.setProperty("taskapp.user.file", TEST_RESOURCES + "/test_users.csv");
+        properties.setProperty("taskapp.task.file", TEST_RESOURCES + "/test_tasks.csv");
+        RepositoryFactory factory = new RepositoryFactory(properties);
+
+        UserRepository users = factory.createUserRepository();
+        assertThat(users.findByCode(2).getName()).isEqualTo("鈴木二郎");
+        assertThat(factory.createTaskRepository(users).findAll()).hasSize(4);
+    }
+
+    @Test
+    public void testH2SharesDatabase() {
+        Properties properties = new Properties();
+        properties.setProperty("taskapp.storage", "h2");
+        properties.setProperty("taskapp.h2.url", "jdbc:h2:mem:factory;DB_CLOSE_DELAY=-1");
+        RepositoryFactory factory = new RepositoryFactory(properties);
+
+        UserRepository users = factory.createUserRepository();
+        assertThat(users).isExactlyInstanceOf(H2UserDataAccess.class);
+        assertThat(factory.createTaskRepository(users)).isExactlyInstanceOf(H2TaskDataAccess.class);
+        assertThat(factory.createLogRepository()).isExactlyInstanceOf(H2LogDataAccess.class);
+        assertThat(factory.database()).isSameAs(factory.database());
+        factory.database().close();
+    }
+
+    @Test
+    public void testRejectsUnknownStorage() {
+        Properties properties = new Properties();
+        properties.setProperty("taskapp.log.storage", "mapped");
+        RepositoryFactory factory = new RepositoryFactory(properties);
+
+        assertThatThrownBy(factory::createLogRepository)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("taskapp.log.storage=mapped");
+    }
+
+    @Test
+    public void testSystemPropertyOverridesConfigFile() throws IOException {
+        Path config = tempDir.resolve("taskapp.properties");
+        Files.writeString(config, "taskapp.task.storage=mapped\ntaskapp.log.storage=indexed\n");
+        System.setProperty(RepositoryFactory.CONFIG_PROPERTY, config.toString());
+        System.setProperty("taskapp.task.storage", "journaled");
+
+        RepositoryFactory factory = RepositoryFactory.fromEnvironment();
+
+        assertThat(factory.createTaskRepository(null)).isExactlyInstanceOf(JournaledTaskDataAccess.class);
+        assertThat(factory.createLogRepository()).isExactlyInstanceOf(IndexedLogDataAccess.class);
+    }
+}
@@ -3,21 +3,40 @@ package com.taskapp.dataaccess;
 import static org.assertj.core.api.Assertions.*;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import com.taskapp.exception.AppException;
+import com.taskapp.metrics.IoMetrics;
+import com.taskapp.metrics.Metrics;
 import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
 import com.taskapp.model.User;
 
 public class TaskDataAccessTest {
@@ -109,6 +128,68 @@ public class TaskDataAccessTest {
         assertThat(tasks).contains(updatedTask);
     }
 
+    @Test
+    public void testUpdateAll() {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        taskDataAccess.saveAll(List.of(new Task(1, "Task 1", 0, repUser), new Task(2, "Task 2", 0, repUser),
+                new Task(3, "Task 3", 0, repUser)));
+
+        Task updatedTask1 = new Task(1, "Task 1", 1, repUser);
+        Task updatedTask3 = new Task(3, "Task 3", 2, repUser);
+        taskDataAccess.updateAll(List.of(updatedTask1, updatedTask3));
+
+        List<Task> tasks = readTasksFromFile(TEST_FILE_PATH);
+        assertThat(tasks).contains(updatedTask1, new Task(2, "Task 2", 0, repUser), updatedTask3);
+    }
+
+    @Test
+    public void testFindPage() {
+        User repUser1 = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        User repUser2 = new User(2, "鈴木二郎", "test2@example.com", "password2");
+        List<Task> saved = new ArrayList<>();
+        for (int code = 1; code <= 30; code++) {
+            saved.add(new Task(code, "task" + code, code % 3, code % 2 == 0 ? repUser2 : repUser1));
+        }
+        taskDataAccess.writeAll(saved);
+
+        TaskQuery query = new TaskQuery();
+        query.setRepUserCode(2);
+        query.setLimit(4);
+        query.setPage(1);
+        TaskPage page = taskDataAccess.findPage(query);
+        assertThat(page.getTasks()).extracting(Task::getCode).containsExactly(10, 12, 14, 16);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.hasPrevious()).isTrue();
+
+        query.setPage(3);
+        assertThat(taskDataAccess.findPage(query).hasNext()).isFalse();
+
+        query = new TaskQuery();
+        query.setStatus(0);
+        query.setNamePrefix("task2");
+        query.setSort(TaskQuery.Sort.NAME);
+        assertThat(taskDataAccess.findPage(query).getTasks()).extracting(Task::getName).containsExactly("task21", "task24", "task27");
+
+        query = new TaskQuery();
+        query.setSort(TaskQuery.Sort.STATUS);
+        query.setLimit(3);
+        query.setPage(2);
+        page = taskDataAccess.findPage(query);
+        assertThat(page.getTasks()).extracting(Task::getCode).containsExactly(21, 24, 27);
+    }
+
+    @Test
+    public void testSaveAll() {
+        User repUser = new User(1, "鈴木一郎", "test1@example.com", "password1");
+        Task task5 = new Task(5, "Task 5", 0, repUser);
+        Task task6 = new Task(6, "Task 6", 0, repUser);
+        taskDataAccess.save(new Task(0, "dummy", 0, repUser));
+
+        taskDataAccess.saveAll(List.of(task5, task6));
+
+        assertThat(readTasksFromFile(TEST_FILE_PATH)).contains(task5, task6);
+    }
+
     @Tag("Q5")
     @Test
     public void testDelete() {
@@ -129,6 +210,141 @@ public class TaskDataAccessTest {
         assertThat(tasks).doesNotContain(task2);
     }
 
+    @Test
+    public void testStreamAll() {
+        List<Task> expectedList = readTasksFromFile(TEST_FILE_PATH);
+
+        try (Stream<Task> tasks = taskDataAccess.streamAll()) {
+            assertThat(tasks.toList()).isEqualTo(expectedList);
+        }
+    }
+
+    @Test
+    public void testFindAllReadsUsersOnce() {
+        CountingUserDataAccess countingUserDataAccess = new CountingUserDataAccess(TEST_FILE_PATH_USER);
+        TaskDataAccess countingTaskDataAccess = new TaskDataAccess(TEST_FILE_PATH, countingUserDataAccess);
+
+        List<Task> tasks = countingTaskDataAccess.findAll();
+
+        assertThat(tasks).hasSize(4);
+        assertThat(countingUserDataAccess.findAllAsMapCount).isEqualTo(1);
+        assertThat(countingUserDataAccess.findByCodeCount).isZero();
+    }
+
+    @Test
+    public void testConcurrentUpdatesAreNotLost(@TempDir Path tempDir) throws Exception {
+        int writers = 64;
+        Path taskFile = tempDir.resolve("tasks.csv");
+        StringBuilder content = new StringBuilder("Code,Name,Status,Rep_User_Code\n");
+        for (int code = 1; code <= writers; code++) {
+            content.append(code).append(",task").append(code).append(",0,1\n");
+        }
+        Files.writeString(taskFile, content);
+        TaskDataAccess concurrentTaskDataAccess = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        User repUser = userDataAccess.findByCode(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger tornReads = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int code = 1; code <= writers; code++) {
+            int taskCode = code;
+            futures.add(executor.submit(() -> {
+                start.await();
+                concurrentTaskDataAccess.update(new Task(taskCode, "task" + taskCode, 1, repUser));
+                return null;
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            // 読み込みはロックなしで、常に全件が揃った状態を読める
+            while (writing.get()) {
+                if (concurrentTaskDataAccess.findAll().size() != writers) {
+                    tornReads.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        reader.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(concurrentTaskDataAccess.findAll()).hasSize(writers).allMatch(task -> task.getStatus() == 1);
+        assertThat(tornReads.get()).isZero();
+    }
+
+    @Test
+    public void testConcurrentSaveAllIfAbsentUsesEachCodeOnce(@TempDir Path tempDir) throws Exception {
+        int writers = 16;
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,task1,0,1\n");
+        User repUser = userDataAccess.findByCode(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger saved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            // インスタンスごとに索引を持つため、別のセッションからの保存と同じ状況になる
+            TaskDataAccess session = new TaskDataAccess(taskFile.toString(), userDataAccess);
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    session.saveAllIfAbsent(List.of(new Task(2, "task2", 0, repUser)));
+                    saved.incrementAndGet();
+                } catch (AppException e) {
+                    assertThat(e.getMessage()).isEqualTo("タスクコード2は既に使われています");
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(saved.get()).isEqualTo(1);
+        assertThat(new TaskDataAccess(taskFile.toString(), userDataAccess).findAll())
+                .extracting(Task::getCode).containsExactly(1, 2);
+    }
+
+    @Test
+    public void testLockForUpdateIsSharedBetweenInstances(@TempDir Path tempDir) throws Exception {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,task1,0,1\n");
+        TaskDataAccess first = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        TaskDataAccess second = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean acquired = new AtomicBoolean();
+
+        Future<?> other;
+        try (TaskRepository.UpdateLock lock = first.lockForUpdate()) {
+            other = executor.submit(() -> {
+                try (TaskRepository.UpdateLock otherLock = second.lockForUpdate()) {
+                    acquired.set(true);
+                }
+                return null;
+            });
+            Thread.sleep(200);
+            assertThat(acquired.get()).isFalse();
+            // ロックを保持したまま書き込める
+            first.update(new Task(1, "task1", 1, userDataAccess.findByCode(1)));
+        }
+        other.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertThat(acquired.get()).isTrue();
+        assertThat(second.findByCode(1).getStatus()).isEqualTo(1);
+    }
+
     private List<Task> readTasksFromFile(String filePath) {
         List<Task> tasks = new ArrayList<>();
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
@@ -149,4 +365,172 @@ public class TaskDataAccessTest {
         }
         return tasks;
     }
-}
\ No newline at end of file
+
+    /**
+     * users.csvの読み込み回数を数えるためのUserDataAccess
+     */
+    private static class CountingUserDataAccess extends UserDataAccess {
+        private int findAllAsMapCount;
+        private int findByCodeCount;
+
+        CountingUserDataAccess(String filePath) {
+            super(filePath);
+        }
+
+        @Override
+        public Map<Integer, User> findAllAsMap() {
+            findAllAsMapCount++;
+            return super.findAllAsMap();
+        }
+
+        @Override
+        public User findByCode(int code) {
+            findByCodeCount++;
+            return super.findByCode(code);
+        }
+    }
+
+    @Test
+    public void testFindByRepUserParsesOnlyOwnRows(@TempDir Path tempDir) throws IOException {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        StringBuilder content = new StringBuilder("Code,Name,Status,Rep_User_Code\n");
+        for (int code = 1000; code >= 1; code--) {
+            content.append(code).append(",task").append(code).append(",0,").append(code % 2 + 1).append('\n');
+        }
+        Files.writeString(taskFile, content);
+        CountingTaskDataAccess counting = new CountingTaskDataAccess(taskFile.toString(), userDataAccess);
+
+        List<Task> tasks = counting.findByRepUser(2);
+
+        assertThat(tasks).hasSize(500);
+        assertThat(tasks.get(0).getCode()).isEqualTo(1);
+        assertThat(tasks.get(499).getCode()).isEqualTo(999);
+        assertThat(counting.parsed).isEqualTo(500);
+
+        counting.parsed = 0;
+        User repUser = userDataAccess.findByCode(2);
+        counting.save(new Task(1001, "task1001", 0, repUser));
+        assertThat(counting.findByCode(1001).getName()).isEqualTo("task1001");
+        assertThat(counting.findByRepUser(2)).hasSize(501);
+        assertThat(counting.parsed).isEqualTo(1 + 501);
+    }
+
+    @Test
+    public void testIndexFollowsExternalRewrite(@TempDir Path tempDir) throws IOException {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,taskA,0,1\n2,taskB,0,2\n");
+        TaskDataAccess indexed = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        assertThat(indexed.findByCode(2).getName()).isEqualTo("taskB");
+
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n2,renamed,1,1\n");
+        Files.setLastModifiedTime(taskFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertThat(indexed.findByCode(1)).isNull();
+        assertThat(indexed.findByCode(2).getName()).isEqualTo("renamed");
+        assertThat(indexed.findByRepUser(1)).extracting(Task::getCode).containsExactly(2);
+        assertThat(indexed.findByRepUser(2)).isEmpty();
+    }
+
+    /**
+     * 行を変換した回数を数えるためのTaskDataAccess
+     */
+    private static class CountingTaskDataAccess extends TaskDataAccess {
+        private int parsed;
+
+        CountingTaskDataAccess(String filePath, UserRepository userDataAccess) {
+            super(filePath, userDataAccess);
+        }
+
+        @Override
+        protected Task parseLine(long offset, String line, IntFunction<User> users) {
+            parsed++;
+            return super.parseLine(offset, line, users);
+        }
+    }
+
+    @Test
+    public void testFindAllRecordsRowsAndBytes(@TempDir Path tempDir) throws IOException {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,taskA,0,1\nbroken\n");
+        IoMetrics io = Metrics.io("tasks");
+        long parsed = io.getRowsParsed();
+        long skipped = io.getRowsSkipped();
+        long bytesRead = io.getBytesRead();
+
+        new TaskDataAccess(taskFile.toString(), new UserDataAccess(TEST_FILE_PATH_USER)).findAll();
+
+        assertThat(io.getRowsParsed()).isEqualTo(parsed + 1);
+        assertThat(io.getRowsSkipped()).isEqualTo(skipped + 1);
+        assertThat(io.getBytesRead()).isEqualTo(bytesRead + "1,taskA,0,1\n".length() + "broken\n".length());
+    }
+
+    @Test
+    public void testFindAllInParallel(@TempDir Path tempDir) throws IOException {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        StringBuilder content = new StringBuilder("Code,Name,Status,Rep_User_Code\n");
+        for (int code = 1; code <= 200000; code++) {
+            if (code % 10007 == 0) {
+                content.append("invalid line\n");
+            }
+            content.append(code).append(",task").append(code).append(',').append(code % 3).append(',')
+                    .append(code % 2 + 1).append('\n');
+        }
+        Files.writeString(taskFile, content);
+        TaskDataAccess sequential = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        TaskDataAccess parallel = new TaskDataAccess(taskFile.toString(), userDataAccess);
+        parallel.setParallelism(4);
+
+        List<Task> expected = sequential.findAll();
+        List<Task> actual = parallel.findAll();
+
+        assertThat(ParallelLineReader.split(taskFile, 4, ParallelLineReader.DEFAULT_MIN_CHUNK_BYTES).length).isGreaterThan(2);
+        assertThat(actual).hasSize(200000).isEqualTo(expected);
+        assertThat(actual.stream().map(Task::getName).toList())
+                .isEqualTo(expected.stream().map(Task::getName).toList());
+    }
+
+    @Test
+    public void testMalformedRowsAreSummarizedAndQuarantined(@TempDir Path tempDir) throws IOException {
+        Path taskFile = tempDir.resolve("tasks.csv");
+        StringBuilder content = new StringBuilder("Code,Name,Status,Rep_User_Code\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append("broken").append(i).append('\n');
+        }
+        content.append("1,taskA,0,1\n");
+        Files.writeString(taskFile, content);
+        Path rejectedFile = Paths.get(taskFile + ".rejected");
+        IoMetrics io = Metrics.io("tasks");
+        PrintStream originalErr = System.err;
+        ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errContent));
+        try {
+            TaskDataAccess first = new TaskDataAccess(taskFile.toString(), userDataAccess);
+            assertThat(first.findAll()).extracting(Task::getCode).containsExactly(1);
+
+            // 1000行分ではなく、まとめて1回だけ報告する
+            String err = errContent.toString();
+            assertThat(err.split(System.lineSeparator())).hasSize(1 + MalformedRows.SAMPLE_LIMIT);
+            assertThat(err).contains("不正な行を1000行読み飛ばしました");
+            assertThat(Files.readAllLines(rejectedFile)).hasSize(1000);
+
+            errContent.reset();
+            long skipped = io.getRowsSkipped();
+            TaskDataAccess second = new TaskDataAccess(taskFile.toString(), userDataAccess);
+            assertThat(second.findAll()).extracting(Task::getCode).containsExactly(1);
+            try (Stream<Task> tasks = second.streamAll()) {
+                assertThat(tasks.count()).isEqualTo(1);
+            }
+
+            assertThat(errContent.toString()).isEmpty();
+            assertThat(io.getRowsSkipped()).isEqualTo(skipped + 2000);
+            assertThat(Files.readAllLines(rejectedFile)).hasSize(1000);
+
+            // 書き直しで行の位置が変わるため、退避済みの行は別のファイルへ移す
+            second.update(new Task(1, "taskA", 1, userDataAccess.findByCode(1)));
+            assertThat(rejectedFile).doesNotExist();
+            assertThat(Files.readAllLines(Paths.get(taskFile + ".rejected.old"))).hasSize(1000);
+        } finally {
+            System.setErr(originalErr);
+        }
+    }
+}
@@ -2,9 +2,17 @@ package com.taskapp.dataaccess;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.taskapp.model.User;
 
@@ -35,4 +43,35 @@ public class UserDataAccessTest {
 
         assertThat(actualUser).isEqualToComparingFieldByField(expectedUser);
     }
+
+    @Test
+    public void testFindAllAsMap() {
+        User expectedUser = new User(2, "鈴木二郎", "test2@example.com", "password2");
+
+        Map<Integer, User> users = userDataAccess.findAllAsMap();
+
+        assertThat(users).hasSize(2);
+        assertThat(users.get(2)).isEqualToComparingFieldByField(expectedUser);
+    }
+
+    @Test
+    public void testFindByEmailAndPasswordWrongPassword() {
+        assertThat(userDataAccess.findByEmailAndPassword("test1@example.com", "password2")).isNull();
+        assertThat(userDataAccess.findByEmailAndPassword("unknown@example.com", "password1")).isNull();
+        assertThat(userDataAccess.findByEmailAndPassword(null, null)).isNull();
+    }
+
+    @Test
+    public void testFindByEmailAndPasswordAfterFileChange(@TempDir Path tempDir) throws IOException {
+        Path userFile = tempDir.resolve("users.csv");
+        Files.writeString(userFile, "Code,Name,Email,Password\n1,鈴木一郎,test1@example.com,password1\n");
+        UserDataAccess tempUserDataAccess = new UserDataAccess(userFile.toString());
+        assertThat(tempUserDataAccess.findByEmailAndPassword("test3@example.com", "password3")).isNull();
+
+        Files.writeString(userFile, "3,鈴木三郎,test3@example.com,password3\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(userFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        User actualUser = tempUserDataAccess.findByEmailAndPassword("test3@example.com", "password3");
+        assertThat(actualUser).isEqualToComparingFieldByField(new User(3, "鈴木三郎", "test3@example.com", "password3"));
+    }
 }
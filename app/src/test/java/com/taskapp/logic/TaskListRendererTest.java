@@ -0,0 +1,77 @@
+package com.taskapp.logic;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.taskapp.model.Task;
+import com.taskapp.model.User;
+
+public class TaskListRendererTest {
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    public void testRender() throws IOException {
+        User loginUser = new User(1, "John", "", "");
+        User alice = new User(2, "Alice", "", "");
+        StringWriter out = new StringWriter();
+        TaskListRenderer renderer = new TaskListRenderer(out, loginUser);
+
+        renderer.render(new Task(1, "Task 1", 0, alice));
+        renderer.render(new Task(2, "Task 2", 1, loginUser));
+        renderer.render(new Task(3, "Task 3", 2, alice));
+        renderer.render(new Task(4, "Task 4", 9, alice));
+        renderer.println("(1ページ目)");
+
+        // flushするまでは書き込まない
+        assertThat(out.toString()).isEmpty();
+        renderer.flush();
+
+        assertThat(out.toString()).isEqualTo(
+                "1. タスク名：Task 1, 担当者名：Aliceが担当しています, ステータス：未着手" + NL
+                + "2. タスク名：Task 2, 担当者名：あなたが担当しています, ステータス：着手中" + NL
+                + "3. タスク名：Task 3, 担当者名：Aliceが担当しています, ステータス：完了" + NL
+                + "4. タスク名：Task 4, 担当者名：Aliceが担当しています, ステータス：不明なステータス" + NL
+                + "(1ページ目)" + NL);
+    }
+
+    @Test
+    public void testWritesInChunks() throws IOException {
+        User loginUser = new User(1, "John", "", "");
+        List<Integer> writes = new ArrayList<>();
+        StringWriter text = new StringWriter();
+        Writer out = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                writes.add(len);
+                text.write(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        TaskListRenderer renderer = new TaskListRenderer(out, loginUser, 256);
+
+        for (int i = 1; i <= 100; i++) {
+            renderer.render(new Task(i, "Task " + i, i % 3, loginUser));
+        }
+        renderer.flush();
+
+        // 1行ごとではなく、まとめて書き込む
+        assertThat(writes.size()).isGreaterThan(1).isLessThan(100);
+        assertThat(writes.subList(0, writes.size() - 1)).allMatch(len -> len >= 256);
+        assertThat(text.toString().split(NL)).hasSize(100);
+        assertThat(text.toString()).endsWith("100. タスク名：Task 100, 担当者名：あなたが担当しています, ステータス：着手中" + NL);
+    }
+}
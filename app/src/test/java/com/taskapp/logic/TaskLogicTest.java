@@ -4,12 +4,28 @@ import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -17,8 +33,12 @@ import com.taskapp.dataaccess.LogDataAccess;
 import com.taskapp.dataaccess.TaskDataAccess;
 import com.taskapp.dataaccess.UserDataAccess;
 import com.taskapp.exception.AppException;
+import com.taskapp.metrics.Metrics;
+import com.taskapp.metrics.OperationMetrics;
 import com.taskapp.model.Log;
 import com.taskapp.model.Task;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
 import com.taskapp.model.User;
 
 public class TaskLogicTest {
@@ -48,14 +68,14 @@ public class TaskLogicTest {
         tasks.add(new Task(1, "Task 1", 0, new User(2, "Alice", "", "")));
         tasks.add(new Task(2, "Task 2", 1, new User(1, "John", "", "")));
 
-        // Mock the findAll method of taskDataAccess to return the mock tasks
-        when(taskDataAccess.findAll()).thenReturn(tasks);
+        // Mock the streamAll method of taskDataAccess to return the mock tasks
+        when(taskDataAccess.streamAll()).thenReturn(tasks.stream());
 
         // Call the showAll method
         taskLogic.showAll(loginUser);
 
         // Verify that the expected output is printed
-        verify(taskDataAccess).findAll();
+        verify(taskDataAccess).streamAll();
         assertThat(tasks).hasSize(2);
     }
 
@@ -82,6 +102,143 @@ public class TaskLogicTest {
         verify(logDataAccess).save(any(Log.class));
     }
 
+    @Test
+    public void testSaveRejectsUsedCode() {
+        User loginUser = new User(1, "John", "", "");
+        when(userDataAccess.findByCode(2)).thenReturn(new User(2, "Alice", "", ""));
+        when(taskDataAccess.findByCode(1)).thenReturn(new Task(1, "Task 1", 0, loginUser));
+
+        AppException e = catchThrowableOfType(() -> taskLogic.save(1, "Task 1", 2, loginUser), AppException.class);
+
+        assertThat(e.getMessage()).contains("タスクコード1は既に使われています");
+        verify(taskDataAccess, never()).save(any());
+        verify(logDataAccess, never()).save(any());
+    }
+
+    @Test
+    public void testShowPage() {
+        User loginUser = new User(1, "John", "", "");
+        TaskQuery query = new TaskQuery();
+        query.setRepUserCode(1);
+        when(taskDataAccess.findPage(query))
+                .thenReturn(new TaskPage(List.of(new Task(3, "Task 3", 1, loginUser)), 0, true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out));
+        TaskPage page;
+        try {
+            page = taskLogic.showPage(query, loginUser);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertThat(page.hasNext()).isTrue();
+        verify(taskDataAccess, never()).findAll();
+        verify(taskDataAccess, never()).streamAll();
+        assertThat(out.toString()).contains("3. タスク名：Task 3, 担当者名：あなたが担当しています, ステータス：着手中",
+                "1ページ目、次のページがあります");
+    }
+
+    @Test
+    public void testShowMyTasks() {
+        User loginUser = new User(1, "John", "", "");
+        when(taskDataAccess.findByRepUser(1)).thenReturn(List.of(
+                new Task(2, "Task 2", 1, loginUser), new Task(5, "Task 5", 0, loginUser)));
+
+        StringWriter out = new StringWriter();
+        int shown = taskLogic.showMyTasks(loginUser, out);
+
+        assertThat(shown).isEqualTo(2);
+        verify(taskDataAccess, never()).findAll();
+        verify(taskDataAccess, never()).streamAll();
+        assertThat(out.toString()).contains(
+                "2. タスク名：Task 2, 担当者名：あなたが担当しています, ステータス：着手中",
+                "5. タスク名：Task 5, 担当者名：あなたが担当しています, ステータス：未着手");
+    }
+
+    @Test
+    public void testShowDiagnostics() {
+        User loginUser = new User(1, "John", "", "");
+        when(taskDataAccess.findByRepUser(1)).thenReturn(List.of());
+        TaskLogic instrumented = new InstrumentedTaskLogic(taskDataAccess, logDataAccess, userDataAccess);
+        OperationMetrics showMyTasks = Metrics.operation("TaskLogic.showMyTasks");
+        long before = showMyTasks.getCount();
+        instrumented.showMyTasks(loginUser);
+
+        StringWriter out = new StringWriter();
+        instrumented.showDiagnostics(out);
+
+        assertThat(showMyTasks.getCount()).isEqualTo(before + 1);
+        assertThat(out.toString()).contains("TaskLogic.showMyTasks", "p99(us)", "読み飛ばした行");
+        // モックのログはCSV形式のログとして扱わない
+        assertThat(out.toString()).contains("ログの集計はCSV形式のログ");
+    }
+
+    @Test
+    public void testShowDiagnosticsIncludesLogAnalytics(@TempDir Path tempDir) throws Exception {
+        Path logFile = tempDir.resolve("logs.csv");
+        Files.writeString(logFile, "Task_Code,Change_User_Code,Status,Change_Date\n"
+                + "1,1,0,2024-01-01\n"
+                + "1,1,1,2024-01-02\n"
+                + "1,1,2,2024-01-05\n"
+                + "2,1,1,2024-01-06\n");
+        LogDataAccess logs = new LogDataAccess(logFile.toString());
+        try {
+            StringWriter out = new StringWriter();
+            new TaskLogic(taskDataAccess, logs, userDataAccess).showDiagnostics(out);
+
+            assertThat(out.toString()).contains("平均サイクルタイム: 4.0日", "着手中のタスク: 1件(2024-01-06の時点)");
+        } finally {
+            logs.close();
+        }
+    }
+
+    @Test
+    public void testSaveAll() throws AppException {
+        User loginUser = new User(1, "John", "", "");
+        User repUser = new User(2, "Alice", "", "");
+        when(userDataAccess.findAllAsMap()).thenReturn(Map.of(1, loginUser, 2, repUser));
+
+        BufferedReader csv = new BufferedReader(new StringReader("Code,Name,Rep_User_Code\n2,Task 2,2\n3,Task 3,1\n"));
+        int saved = taskLogic.saveAll(csv, loginUser);
+
+        assertThat(saved).isEqualTo(2);
+        verify(userDataAccess, times(1)).findAllAsMap();
+        verify(userDataAccess, never()).findByCode(anyInt());
+        verify(taskDataAccess, never()).streamAll();
+        verify(taskDataAccess, times(1)).saveAllIfAbsent(argThat(tasks -> tasks.size() == 2));
+        verify(logDataAccess, times(1)).saveAll(argThat(logs -> logs.size() == 2));
+    }
+
+    @Test
+    public void testSaveAllRejectsInvalidRows() throws AppException {
+        User loginUser = new User(1, "John", "", "");
+        when(userDataAccess.findAllAsMap()).thenReturn(Map.of(1, loginUser));
+
+        BufferedReader csv = new BufferedReader(new StringReader("1,Task 1,1\n2,Task 2,9\n3,Task 3,1\n3,Task 3,1\n"));
+
+        AppException e = catchThrowableOfType(() -> taskLogic.saveAll(csv, loginUser), AppException.class);
+
+        assertThat(e.getMessage()).contains("2行目", "4行目").doesNotContain("1行目", "3行目");
+        verify(taskDataAccess, never()).saveAllIfAbsent(any());
+        verify(logDataAccess, never()).saveAll(any());
+    }
+
+    @Test
+    public void testSaveAllRejectsUsedCodes() throws AppException {
+        User loginUser = new User(1, "John", "", "");
+        when(userDataAccess.findAllAsMap()).thenReturn(Map.of(1, loginUser));
+        doThrow(new AppException("タスクコード1は既に使われています")).when(taskDataAccess).saveAllIfAbsent(any());
+
+        BufferedReader csv = new BufferedReader(new StringReader("1,Task 1,1\n2,Task 2,1\n"));
+
+        assertThatThrownBy(() -> taskLogic.saveAll(csv, loginUser))
+                .isInstanceOf(AppException.class)
+                .hasMessageContaining("タスクコード1");
+        verify(logDataAccess, never()).saveAll(any());
+    }
+
     @Tag("Q4")
     @Test
     public void testChangeStatus() throws AppException {
@@ -104,6 +261,86 @@ public class TaskLogicTest {
         verify(logDataAccess).save(any(Log.class));
     }
 
+    @Test
+    public void testChangeStatusBatch() {
+        User loginUser = new User(1, "John", "", "");
+        User repUser = new User(2, "Alice", "", "");
+        when(taskDataAccess.findAll()).thenReturn(new ArrayList<>(List.of(
+                new Task(1, "Task 1", 0, repUser),
+                new Task(2, "Task 2", 1, repUser),
+                new Task(3, "Task 3", 2, repUser))));
+
+        Map<Integer, Integer> statuses = new LinkedHashMap<>();
+        statuses.put(1, 1);
+        statuses.put(2, 2);
+        statuses.put(3, 2);
+        statuses.put(9, 1);
+        Map<Integer, String> failures = taskLogic.changeStatusBatch(statuses, loginUser);
+
+        assertThat(failures).containsOnlyKeys(3, 9);
+        verify(taskDataAccess, times(1)).findAll();
+        verify(taskDataAccess, never()).update(any(Task.class));
+        verify(taskDataAccess, times(1)).updateAll(argThat(tasks -> tasks.size() == 2));
+        verify(logDataAccess, never()).save(any(Log.class));
+        verify(logDataAccess, times(1)).saveAll(argThat(logs -> logs.size() == 2
+                && logs.stream().allMatch(log -> log.getChangeUserCode() == 1)));
+    }
+
+    @Test
+    public void testChangeStatusBatchWithoutValidTransitions() {
+        User repUser = new User(2, "Alice", "", "");
+        when(taskDataAccess.findAll()).thenReturn(new ArrayList<>(List.of(new Task(1, "Task 1", 2, repUser))));
+
+        Map<Integer, String> failures = taskLogic.changeStatusBatch(Map.of(1, 3), new User(1, "John", "", ""));
+
+        assertThat(failures).containsOnlyKeys(1);
+        verify(taskDataAccess, never()).updateAll(any());
+        verify(logDataAccess, never()).saveAll(any());
+    }
+
+    @Test
+    public void testConcurrentChangeStatusAppliesOnce(@TempDir Path tempDir) throws Exception {
+        Path userFile = tempDir.resolve("users.csv");
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Path logFile = tempDir.resolve("logs.csv");
+        Files.writeString(userFile, "Code,Name,Email,Password\n1,John,john@example.com,password\n");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,Task 1,0,1\n");
+        Files.writeString(logFile, "Task_Code,Change_User_Code,Status,Change_Date\n");
+        UserDataAccess realUserDataAccess = new UserDataAccess(userFile.toString());
+        LogDataAccess realLogDataAccess = new LogDataAccess(logFile.toString());
+        User loginUser = realUserDataAccess.findByCode(1);
+
+        int sessions = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(sessions);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            futures.add(executor.submit(() -> {
+                // セッションごとに別のTaskLogicを使う
+                TaskLogic sessionLogic = new TaskLogic(
+                        new TaskDataAccess(taskFile.toString(), realUserDataAccess), realLogDataAccess, realUserDataAccess);
+                start.await();
+                try {
+                    sessionLogic.changeStatus(1, 1, loginUser);
+                    succeeded.incrementAndGet();
+                } catch (AppException e) {
+                    // 先に変更されたセッション以外はステータスの条件で失敗する
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        realLogDataAccess.close();
+
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(Files.readAllLines(logFile)).hasSize(2);
+    }
+
     @Tag("Q5")
     @Test
     public void testDelete() throws AppException {
@@ -0,0 +1,61 @@
+package com.taskapp.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testBucketsAreContiguous() {
+        long previousHigh = -1;
+        for (int i = 0; i < 1000; i++) {
+            long low = previousHigh + 1;
+            assertThat(LatencyHistogram.indexOf(low)).isEqualTo(i);
+            long high = LatencyHistogram.highestValueOf(i);
+            assertThat(LatencyHistogram.indexOf(high)).isEqualTo(i);
+            previousHigh = high;
+        }
+        assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)))
+                .isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        Random random = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1_000 + (long) (random.nextDouble() * 10_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(histogram.getCount()).isEqualTo(values.length);
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertThat(actual).isGreaterThanOrEqualTo(expected);
+            assertThat((double) actual).isLessThanOrEqualTo(expected * 1.016);
+        }
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.getMax()).isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    public void testResetAndEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.record(-3);
+        assertThat(histogram.getValueAtPercentile(50)).isZero();
+        assertThat(histogram.getMean()).isEqualTo(2.5);
+
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+        assertThat(histogram.getMax()).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+package com.taskapp.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class MetricsTest {
+    @AfterEach
+    public void tearDown() {
+        Metrics.setEnabled(true);
+    }
+
+    @Test
+    public void testOperationRecordsCallsAndLatency() {
+        OperationMetrics operation = Metrics.operation("MetricsTest.record");
+        long before = operation.getCount();
+
+        operation.record(System.nanoTime() - 2_000_000);
+        operation.record(System.nanoTime());
+
+        assertThat(Metrics.operation("MetricsTest.record")).isSameAs(operation);
+        assertThat(operation.getCount()).isEqualTo(before + 2);
+        assertThat(operation.getMaxMicros()).isGreaterThanOrEqualTo(2000);
+        assertThat(Metrics.report()).contains("MetricsTest.record");
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        OperationMetrics operation = Metrics.operation("MetricsTest.disabled");
+        IoMetrics io = Metrics.io("MetricsTest.disabled");
+        Metrics.setEnabled(false);
+
+        operation.record(System.nanoTime());
+        io.read("1,a", true);
+
+        assertThat(operation.getCount()).isZero();
+        assertThat(io.getRowsParsed()).isZero();
+    }
+
+    @Test
+    public void testIoCountsUtf8Bytes() {
+        IoMetrics io = Metrics.io("MetricsTest.io");
+
+        io.read("1,タスク,0,1", true);
+        io.read("broken", false);
+        io.written("a😀");
+
+        assertThat(io.getRowsParsed()).isEqualTo(1);
+        assertThat(io.getRowsSkipped()).isEqualTo(1);
+        // 「タスク」は9バイト、改行は1バイトとして数える
+        assertThat(io.getBytesRead()).isEqualTo(16 + 7);
+        assertThat(io.getBytesWritten()).isEqualTo(1 + 4 + 1);
+    }
+
+    @Test
+    public void testExposedThroughJmx() throws Exception {
+        Metrics.operation("MetricsTest.jmx").record(System.nanoTime());
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        CompositeData[] operations = (CompositeData[]) server.getAttribute(new ObjectName(Metrics.OBJECT_NAME),
+                "Operations");
+
+        boolean found = false;
+        for (CompositeData operation : operations) {
+            if (operation.get("name").equals("MetricsTest.jmx")) {
+                found = true;
+                assertThat((Long) operation.get("count")).isGreaterThanOrEqualTo(1L);
+                assertThat(operation.containsKey("p99Micros")).isTrue();
+            }
+        }
+        assertThat(found).isTrue();
+    }
+}
@@ -0,0 +1,121 @@
+package com.taskapp.ui;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.taskapp.dataaccess.LogDataAccess;
+import com.taskapp.dataaccess.TaskDataAccess;
+import com.taskapp.dataaccess.UserDataAccess;
+import com.taskapp.logic.TaskLogic;
+import com.taskapp.logic.UserLogic;
+
+public class TaskServerTest {
+    @TempDir
+    Path tempDir;
+
+    private TaskServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Path userFile = tempDir.resolve("users.csv");
+        Path taskFile = tempDir.resolve("tasks.csv");
+        Path logFile = tempDir.resolve("logs.csv");
+        Files.writeString(userFile, "Code,Name,Email,Password\n1,鈴木一郎,test1@example.com,password1\n");
+        Files.writeString(taskFile, "Code,Name,Status,Rep_User_Code\n1,taskA,0,1\n");
+        Files.writeString(logFile, "Task_Code,Change_User_Code,Status,Change_Date\n");
+
+        UserDataAccess userDataAccess = new UserDataAccess(userFile.toString());
+        TaskLogic taskLogic = new TaskLogic(new TaskDataAccess(taskFile.toString(), userDataAccess),
+                new LogDataAccess(logFile.toString()), userDataAccess);
+        server = new TaskServer(0, new UserLogic(userDataAccess), taskLogic);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testSingleSession() throws IOException {
+        String output = runSession("test1@example.com\npassword1\n1\n2\n3\n");
+
+        assertThat(output).contains(
+                "ユーザー名：鈴木一郎でログインしました。",
+                "1. タスク名：taskA, 担当者名：あなたが担当しています, ステータス：未着手",
+                "ログアウトしました");
+    }
+
+    @Test
+    public void testSessionEndsWhenClientCloses() throws IOException {
+        String output = runSession("test1@example.com\n");
+
+        assertThat(output).contains("メールアドレスを入力してください：").doesNotContain("ログアウトしました");
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        int sessions = 1000;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                outputs.add(clients.submit(() -> runSession("test1@example.com\npassword1\n1\n2\n3\n")));
+            }
+            for (Future<String> output : outputs) {
+                assertThat(output.get(60, TimeUnit.SECONDS))
+                        .contains("あなたが担当しています", "ログアウトしました");
+            }
+        }
+    }
+
+    @Test
+    public void testStalledClientDoesNotBlockOtherSessions() throws Exception {
+        PrintStream original = System.out;
+        try (Socket stalled = new Socket()) {
+            // 出力を読まない接続に大量の一覧を表示させ、サーバー側の書き込みを止める
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+            OutputStream in = stalled.getOutputStream();
+            in.write(("test1@example.com\npassword1\n" + "1\n2\n".repeat(100000))
+                    .getBytes(StandardCharsets.UTF_8));
+            in.flush();
+            // 送信バッファが埋まり、サーバー側の書き込みが止まるまで待つ
+            Thread.sleep(3000);
+
+            assertThat(runSession("test1@example.com\npassword1\n1\n2\n3\n"))
+                    .contains("あなたが担当しています", "ログアウトしました");
+        }
+        assertThat(System.out).isSameAs(original);
+    }
+
+    private String runSession(String script) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(30000);
+            OutputStream in = socket.getOutputStream();
+            in.write(script.getBytes(StandardCharsets.UTF_8));
+            in.flush();
+            socket.shutdownOutput();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,21 +1,27 @@
 package com.taskapp.ui;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.taskapp.logic.TaskLogic;
 import com.taskapp.logic.UserLogic;
+import com.taskapp.model.TaskPage;
+import com.taskapp.model.TaskQuery;
 import com.taskapp.model.User;
 
 public class TaskUITest {
@@ -61,6 +67,82 @@ public class TaskUITest {
     //     verify(taskLogic).showAll(user);
     // }
 
+    @Test
+    public void testSelectSubMenuPaging() throws Exception {
+        when(reader.readLine()).thenReturn("5", "1", "", "", "4", "3", "3", "4", "2");
+        when(taskLogic.showPage(any(TaskQuery.class), any()))
+                .thenReturn(new TaskPage(List.of(), 0, true), new TaskPage(List.of(), 1, false),
+                        new TaskPage(List.of(), 0, true));
+
+        taskUI.selectSubMenu();
+
+        ArgumentCaptor<TaskQuery> query = ArgumentCaptor.forClass(TaskQuery.class);
+        verify(taskLogic, times(3)).showPage(query.capture(), any());
+        TaskQuery last = query.getValue();
+        assertThat(last.getStatus()).isEqualTo(1);
+        assertThat(last.getRepUserCode()).isNull();
+        assertThat(last.getSort()).isEqualTo(TaskQuery.Sort.STATUS);
+        assertThat(outContent.toString()).contains("次のページはありません");
+    }
+
+    @Test
+    public void testDisplayMenuShowsMyTasks() throws Exception {
+        User user = new User(1, "John", "john@example.com", "password");
+        when(reader.readLine()).thenReturn("john@example.com", "password", "4", "3", "2", "3");
+        when(userLogic.login("john@example.com", "password")).thenReturn(user);
+
+        taskUI.displayMenu();
+
+        verify(taskLogic).showMyTasks(user);
+        verify(taskLogic, never()).showPage(any(), any());
+        assertThat(outContent.toString()).contains("次のページはありません", "ログアウトしました");
+    }
+
+    @Test
+    public void testDisplayMenuShowsDiagnostics() throws Exception {
+        User user = new User(1, "John", "john@example.com", "password");
+        when(reader.readLine()).thenReturn("john@example.com", "password", "5", "3");
+        when(userLogic.login("john@example.com", "password")).thenReturn(user);
+
+        taskUI.displayMenu();
+
+        verify(taskLogic).showDiagnostics();
+        assertThat(outContent.toString()).contains("5. 診断情報", "ログアウトしました");
+    }
+
+    @Test
+    public void testDisplayMenuEndsOnInputError() throws Exception {
+        User user = new User(1, "John", "john@example.com", "password");
+        when(reader.readLine()).thenReturn("john@example.com", "password", "1")
+                .thenThrow(new IOException("Connection reset"));
+        when(userLogic.login("john@example.com", "password")).thenReturn(user);
+
+        taskUI.displayMenu();
+
+        verify(reader, times(4)).readLine();
+        assertThat(outContent.toString()).contains("セッションを終了します").doesNotContain("ログアウトしました");
+    }
+
+    @Test
+    public void testInputQueryRejectsInvalidStatus() throws Exception {
+        when(reader.readLine()).thenReturn("3");
+
+        taskUI.inputQuery();
+
+        verify(taskLogic, never()).showPage(any(), any());
+        assertThat(outContent.toString()).contains("ステータスは0・1・2の中から選択してください");
+    }
+
+    @Test
+    public void testInputQueryRejectsInvalidSort() throws Exception {
+        when(reader.readLine()).thenReturn("", "", "", "5");
+
+        taskUI.inputQuery();
+
+        verify(taskLogic, never()).showPage(any(), any());
+        assertThat(outContent.toString()).contains("並び順は1~4の中から選択してください");
+    }
+
     @Tag("Q1")
     @Test
     public void testInputLogin() throws Exception {